@@ -0,0 +1,146 @@
+package com.es2.dem.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+@Configuration
+// Configuração do cliente HTTP usado pelo RestTemplate nas chamadas ao MDM e aos provedores externos.
+// As conexões são mantidas abertas (keep-alive) e reutilizadas a partir de um pool, com limites por host e no total,
+// e os tempos máximos de conexão, de leitura e de espera por uma conexão livre são configuráveis (dem.http.*).
+// Com dem.http.http2-enabled=true é usado o cliente HTTP do JDK, que negocia HTTP/2 e mantém o seu próprio pool
+// (sem limites por host nem métricas do pool).
+// A configuração equivalente do MDM (com.es2.mdm.config.HttpClientConfig) não tem limites por host, pois só chama o DEM.
+// DEM e MDM são projetos Maven independentes, implantados separadamente e sem módulo comum, por isso a configuração
+// do pool não é compartilhada; alterações no pool devem ser feitas nas duas classes.
+public class HttpClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientConfig.class);
+
+    @Value("${dem.http.connect-timeout-ms:5000}")   // Tempo máximo para abrir a conexão
+    private long connectTimeoutMs;
+
+    @Value("${dem.http.read-timeout-ms:60000}")   // Tempo máximo sem receber dados numa resposta (downloads grandes incluídos)
+    private long readTimeoutMs;
+
+    @Value("${dem.http.connection-request-timeout-ms:10000}")   // Tempo máximo de espera por uma conexão livre do pool
+    private long connectionRequestTimeoutMs;
+
+    @Value("${dem.http.max-total:50}")   // Conexões no pool, somando todos os hosts
+    private int maxTotal;
+
+    @Value("${dem.http.max-per-route:10}")   // Conexões por host, quando o host não tem limite próprio
+    private int maxPerRoute;
+
+    @Value("${dem.http.max-per-host:}")   // Limites próprios por host, ex.: http://localhost:8081=8,https://api.exemplo.com=2
+    private String maxPerHost;
+
+    @Value("${dem.http.keep-alive-ms:30000}")   // Tempo que uma conexão ociosa é mantida, se o servidor não informar outro
+    private long keepAliveMs;
+
+    @Value("${dem.http.idle-eviction-ms:10000}")   // Intervalo de remoção das conexões ociosas ou expiradas
+    private long idleEvictionMs;
+
+    @Value("${dem.http.validate-after-inactivity-ms:2000}")   // Conexões ociosas há mais tempo são verificadas antes do uso
+    private long validateAfterInactivityMs;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "dem.http.http2-enabled", havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+        for (String entry : maxPerHost.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Limite por host inválido em dem.http.max-per-host: " + entry.trim());
+            }
+            HttpRoute route = routeOf(entry.substring(0, separator).trim());
+            int max = Integer.parseInt(entry.substring(separator + 1).trim());
+            connectionManager.setMaxPerRoute(route, max);
+            logger.info("Limite de {} conexões para {}", max, route.getTargetHost());
+        }
+        return connectionManager;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "dem.http.http2-enabled", havingValue = "false", matchIfMissing = true)
+    public ClientHttpRequestFactory pooledClientHttpRequestFactory(PoolingHttpClientConnectionManager connectionManager) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+                .evictExpiredConnections()
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient); // Fecha o cliente ao encerrar a aplicação
+    }
+
+    // Métricas do pool (httpcomponents.httpclient.pool.*) expostas pelo Actuator
+    @Bean
+    @ConditionalOnProperty(name = "dem.http.http2-enabled", havingValue = "false", matchIfMissing = true)
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "dem");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "dem.http.http2-enabled", havingValue = "true")
+    public ClientHttpRequestFactory http2ClientHttpRequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return requestFactory;
+    }
+
+    // Rota do pool para o host informado (esquema://host[:porta]), com a porta padrão do esquema quando omitida
+    private static HttpRoute routeOf(String uri) {
+        HttpHost host;
+        try {
+            host = HttpHost.create(uri);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Host inválido em dem.http.max-per-host: " + uri, e);
+        }
+        boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+        if (host.getPort() < 0) {
+            host = new HttpHost(host.getSchemeName(), host.getHostName(), secure ? 443 : 80);
+        }
+        return new HttpRoute(host, null, secure);
+    }
+}
@@ -3,17 +3,27 @@ package com.es2.dem.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.es2.dem.dto.IngestionChunkDTO;
 import com.es2.dem.dto.IngestionDTO;
+import com.es2.dem.dto.IngestionFilterDTO;
 import com.es2.dem.dto.IngestionRequestDTO;
+import com.es2.dem.service.IngestionEventStream;
 import com.es2.dem.service.IngestionService;
 
 import jakarta.validation.Valid;
@@ -27,16 +37,22 @@ public class IngestionController {
 // Ele utiliza o IngestionService para realizar as operações de negócios relacionadas à ingestão de dados.
 // As operações são realizadas através de requisições HTTP, onde cada método corresponde a um endpoint específico.
 
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TOTAL_PAGES_HEADER = "X-Total-Pages";
+
     private final IngestionService ingestionService;
+    private final IngestionEventStream ingestionEventStream;
 
     @Autowired
-    public IngestionController(IngestionService ingestionService) {
+    public IngestionController(IngestionService ingestionService, IngestionEventStream ingestionEventStream) {
         this.ingestionService = ingestionService;
+        this.ingestionEventStream = ingestionEventStream;
     }
 
     /**
      * Solicita uma nova ingestão de dados.
      * Body: IngestionRequestDTO
+     * Retorna 503 Service Unavailable (com Retry-After) quando a fila de ingestão está cheia.
      */
     @PostMapping
     public ResponseEntity<IngestionDTO> requestIngestion(@Valid @RequestBody IngestionRequestDTO requestDTO) {
@@ -45,6 +61,15 @@ public class IngestionController {
         return new ResponseEntity<>(createdIngestionJob, HttpStatus.ACCEPTED);
     }
 
+    /**
+     * Fluxo de eventos (Server-Sent Events) com as atualizações de todos os trabalhos de ingestão, à medida que ocorrem.
+     * Cada evento "ingestion" traz o IngestionDTO atualizado; ao reconectar com Last-Event-ID, os eventos perdidos são reenviados.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamIngestionEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return ingestionEventStream.subscribe(lastEventId);
+    }
+
     /**
      * MDM consulta o status de um trabalho de ingestão específico.
      */
@@ -55,11 +80,38 @@ public class IngestionController {
     }
 
     /**
-     * MDM lista todos os trabalhos de ingestão.
+     * Lista o status de envio de cada lote (chunk) de um trabalho de ingestão.
+     */
+    @GetMapping("/{id}/chunks")
+    public ResponseEntity<List<IngestionChunkDTO>> getIngestionChunks(@PathVariable Integer id) {
+        List<IngestionChunkDTO> chunks = ingestionService.getIngestionChunks(id);
+        return ResponseEntity.ok(chunks);
+    }
+
+    /**
+     * Retoma o envio ao MDM de um trabalho de ingestão que falhou, reenviando apenas os lotes não confirmados.
+     * Retorna 409 Conflict se o trabalho não estiver em um estado que permita a retomada.
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<IngestionDTO> resumeDelivery(@PathVariable Integer id) {
+        IngestionDTO ingestionJob = ingestionService.resumeDelivery(id);
+        return new ResponseEntity<>(ingestionJob, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * MDM lista os trabalhos de ingestão de forma paginada, dos mais recentes aos mais antigos.
+     * Parâmetros opcionais: page, size e sort (ex.: sort=createdAt,asc); o tamanho da página é limitado por
+     * spring.data.web.pageable.max-page-size.
+     * Filtros opcionais (IngestionFilterDTO): status, mdmProviderId, createdFrom e createdTo.
+     * A mensagem de status não é incluída (consulte GET /{id}). Cabeçalhos: X-Total-Count e X-Total-Pages.
      */
     @GetMapping
-    public ResponseEntity<List<IngestionDTO>> getAllIngestions() {
-        List<IngestionDTO> ingestionJobs = ingestionService.getAllIngestions();
-        return ResponseEntity.ok(ingestionJobs);
+    public ResponseEntity<List<IngestionDTO>> getAllIngestions(IngestionFilterDTO filter,
+            @PageableDefault(size = 50, sort = {"createdAt", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        Page<IngestionDTO> page = ingestionService.getIngestions(filter, pageable);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()))
+                .header(TOTAL_PAGES_HEADER, String.valueOf(page.getTotalPages()))
+                .body(page.getContent());
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.es2.dem.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.es2.dem.service.MdmProviderClient;
+
+@RestController
+@RequestMapping("/dem/api/providers")
+public class ProviderCacheController {
+
+// Controlador REST para invalidar o cache de detalhes de provedores mantido pelo DEM.
+// É chamado pelo MDM quando um provedor é alterado ou excluído, para que a próxima ingestão use os dados atualizados.
+
+    private final MdmProviderClient mdmProviderClient;
+
+    @Autowired
+    public ProviderCacheController(MdmProviderClient mdmProviderClient) {
+        this.mdmProviderClient = mdmProviderClient;
+    }
+
+    /**
+     * Invalida o cache de um provedor.
+     */
+    @DeleteMapping("/{id}/cache")
+    public ResponseEntity<Void> invalidateProvider(@PathVariable Integer id) {
+        mdmProviderClient.invalidate(id);
+        return ResponseEntity.noContent().build(); // HTTP 204 No Content
+    }
+
+    /**
+     * Invalida o cache de todos os provedores.
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> invalidateAllProviders() {
+        mdmProviderClient.invalidateAll();
+        return ResponseEntity.noContent().build(); // HTTP 204 No Content
+    }
+}
@@ -0,0 +1,74 @@
+package com.es2.dem.dto;
+
+public class IngestionChunkDTO {
+
+// DTO para representar o status de envio de um lote (chunk) de dados transformados de uma ingestão.
+// Ele inclui o índice do lote, a quantidade de registros, o status, o número de tentativas e o último erro.
+
+    private Integer chunkIndex;
+    private Integer recordCount;
+    private String status;
+    private Integer attempts;
+    private String lastError;
+    private String updatedAt;
+
+    public IngestionChunkDTO() {
+    }
+
+    public IngestionChunkDTO(Integer chunkIndex, Integer recordCount, String status, Integer attempts, String lastError, String updatedAt) {
+        this.chunkIndex = chunkIndex;
+        this.recordCount = recordCount;
+        this.status = status;
+        this.attempts = attempts;
+        this.lastError = lastError;
+        this.updatedAt = updatedAt;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Integer getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(Integer recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
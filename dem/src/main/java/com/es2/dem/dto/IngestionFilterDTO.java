@@ -0,0 +1,56 @@
+package com.es2.dem.dto;
+
+import java.time.LocalDateTime;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+public class IngestionFilterDTO {
+
+// DTO com os filtros da listagem de ingestões (GET /dem/api/ingestion), preenchido a partir dos parâmetros da requisição.
+// Todos os filtros são opcionais e combinados com "E"; o período de criação inclui os limites.
+// status não diferencia maiúsculas de minúsculas; as datas usam o formato ISO (ex.: 2025-06-01T00:00:00).
+
+    private String status;
+    private Integer mdmProviderId;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+
+    public IngestionFilterDTO() {
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getMdmProviderId() {
+        return mdmProviderId;
+    }
+
+    public void setMdmProviderId(Integer mdmProviderId) {
+        this.mdmProviderId = mdmProviderId;
+    }
+
+    public LocalDateTime getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public void setCreatedFrom(LocalDateTime createdFrom) {
+        this.createdFrom = createdFrom;
+    }
+
+    public LocalDateTime getCreatedTo() {
+        return createdTo;
+    }
+
+    public void setCreatedTo(LocalDateTime createdTo) {
+        this.createdTo = createdTo;
+    }
+}
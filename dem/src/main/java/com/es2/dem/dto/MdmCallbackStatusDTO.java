@@ -0,0 +1,37 @@
+package com.es2.dem.dto;
+
+//Campos do CallbackBatchDTO do MDM que o DEM precisa.
+public class MdmCallbackStatusDTO {
+
+    // DTO com o status do processamento de um lote no MDM (GET /countries/callback/{processingId}).
+    // O DEM só considera o lote confirmado quando o MDM termina de aplicá-lo sem falhas.
+
+    private Long processingId;
+    private String status; // QUEUED, PROCESSING, COMPLETED, COMPLETED_WITH_ERRORS ou FAILED
+    private Integer totalRecords;
+    private Integer appliedRecords;
+    private Integer failedRecords;
+    private String lastError;
+
+    public MdmCallbackStatusDTO() {
+
+    }
+
+    // Status final do processamento no MDM
+    public boolean isTerminal() {
+        return "COMPLETED".equals(status) || "COMPLETED_WITH_ERRORS".equals(status) || "FAILED".equals(status);
+    }
+
+    public Long getProcessingId() { return processingId; }
+    public void setProcessingId(Long processingId) { this.processingId = processingId; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public Integer getTotalRecords() { return totalRecords; }
+    public void setTotalRecords(Integer totalRecords) { this.totalRecords = totalRecords; }
+    public Integer getAppliedRecords() { return appliedRecords; }
+    public void setAppliedRecords(Integer appliedRecords) { this.appliedRecords = appliedRecords; }
+    public Integer getFailedRecords() { return failedRecords; }
+    public void setFailedRecords(Integer failedRecords) { this.failedRecords = failedRecords; }
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+}
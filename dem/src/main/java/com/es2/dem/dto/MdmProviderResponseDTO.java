@@ -1,15 +1,18 @@
 package com.es2.dem.dto;
 
+import java.util.Map;
+
 //Campos do ProviderDTO que o DEM precisa.
 public class MdmProviderResponseDTO {
 
     // DTO para representar um provedor MDM no DEM.
-    // Ele inclui informações como ID, nome e URL da API do provedor.
+    // Ele inclui informações como ID, nome, URL da API do provedor e o mapeamento de campos usado na transformação.
     // Ele é usado para transferir dados entre a camada de apresentação e a camada de serviço.
 
     private Integer id;
     private String name;
     private String apiUrl;
+    private Map<String, String> fieldMappings; // Campo de destino -> JSON Pointer (vazio: mapeamento padrão)
 
     public MdmProviderResponseDTO() {
 
@@ -22,4 +25,6 @@ public class MdmProviderResponseDTO {
     public void setName(String name) { this.name = name; }
     public String getApiUrl() { return apiUrl; }
     public void setApiUrl(String apiUrl) { this.apiUrl = apiUrl; }
+    public Map<String, String> getFieldMappings() { return fieldMappings; }
+    public void setFieldMappings(Map<String, String> fieldMappings) { this.fieldMappings = fieldMappings; }
 }
\ No newline at end of file
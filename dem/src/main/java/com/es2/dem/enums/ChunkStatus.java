@@ -0,0 +1,11 @@
+package com.es2.dem.enums;
+
+public enum ChunkStatus {
+
+// Enumeração que representa os estados de um lote (chunk) de dados transformados enviado ao MDM.
+
+    SENDING,        //Lote em envio ao MDM (incluindo novas tentativas)
+    APPLYING,       //Lote aceito pelo MDM (202), aguardando o fim da aplicação
+    ACKNOWLEDGED,   //Lote aplicado pelo MDM sem falhas
+    FAILED;         //Lote não confirmado após todas as tentativas ou com falhas na aplicação no MDM
+}
@@ -0,0 +1,11 @@
+package com.es2.dem.enums;
+
+public enum IngestionOutcome {
+
+// Enumeração que representa o resultado de uma ingestão concluída (status COMPLETED) no DEM.
+// Indica se houve envio de dados ao MDM ou por que a ingestão foi concluída sem envio.
+
+    SYNCED,         //Dados novos, alterados ou removidos foram enviados ao MDM
+    NO_DELTA,       //Dados do provedor foram transformados, mas nenhum país mudou desde a última ingestão concluída
+    UNCHANGED;      //Provedor retornou 304 Not Modified ou o mesmo conteúdo bruto: sem transformação nem envio
+}
@@ -0,0 +1,20 @@
+package com.es2.dem.enums;
+
+public enum StorageCompression {
+
+// Enumeração que representa os formatos de compressão disponíveis para os arquivos de ingestão do DEM.
+// Cada formato define o sufixo acrescentado ao nome do arquivo, que identifica a compressão usada na leitura.
+
+    NONE(""),       //Arquivos sem compressão
+    GZIP(".gz");    //Arquivos comprimidos com GZIP (java.util.zip)
+
+    private final String fileSuffix;
+
+    StorageCompression(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+}
@@ -0,0 +1,10 @@
+package com.es2.dem.enums;
+
+public enum SyncOperation {
+
+// Enumeração que representa a operação aplicada pelo MDM aos países de um lote enviado pelo DEM.
+// Enviada no cabeçalho X-Sync-Operation de cada lote.
+
+    UPSERT,     //Países novos ou alterados: cria ou atualiza no MDM
+    DELETE;     //Países que deixaram de existir no provedor: apenas a chave (código numérico ou nome) é enviada
+}
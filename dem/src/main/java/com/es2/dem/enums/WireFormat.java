@@ -0,0 +1,21 @@
+package com.es2.dem.enums;
+
+public enum WireFormat {
+
+// Enumeração que representa os formatos usados no corpo dos lotes enviados ao callback do MDM.
+// Cada formato define o Content-Type da requisição; SMILE é a codificação binária do Jackson, mais compacta e mais
+// rápida de gerar e interpretar que o JSON textual, com o mesmo modelo de dados.
+
+    JSON("application/json"),               //JSON textual, aceito por qualquer versão do MDM
+    SMILE("application/x-jackson-smile");   //Jackson Smile (binário)
+
+    private final String contentType;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
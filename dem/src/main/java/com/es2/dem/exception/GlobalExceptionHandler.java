@@ -1,5 +1,6 @@
 package com.es2.dem.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -20,4 +21,27 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    // Parâmetro inválido (ex.: status desconhecido no filtro da listagem de ingestões)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Object> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
+
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // Operação inválida para o status atual da ingestão (ex.: retomar uma ingestão que não falhou)
+    @ExceptionHandler(IngestionStateConflictException.class)
+    public ResponseEntity<Object> handleIngestionStateConflictException(IngestionStateConflictException ex, WebRequest request) {
+
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // Fila de ingestão cheia: retorna 503 com o cabeçalho Retry-After para que o cliente tente novamente depois.
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<Object> handleIngestionQueueFullException(IngestionQueueFullException ex, WebRequest request) {
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
 }
@@ -0,0 +1,20 @@
+package com.es2.dem.exception;
+
+// Exceção lançada quando a fila de trabalhos de ingestão do DEM atingiu sua capacidade máxima.
+// É convertida em uma resposta 503 Service Unavailable pelo GlobalExceptionHandler,
+// indicando ao MDM que a solicitação deve ser repetida mais tarde.
+public class IngestionQueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    public IngestionQueueFullException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,13 @@
+package com.es2.dem.exception;
+
+// Exceção lançada quando a operação solicitada não é válida para o status atual da ingestão
+// (ex.: retomar o envio de uma ingestão que não falhou ou que já está sendo retomada).
+// É convertida em uma resposta 409 Conflict pelo GlobalExceptionHandler.
+public class IngestionStateConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IngestionStateConflictException(String message) {
+        super(message);
+    }
+}
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.es2.dem.enums.IngestionOutcome;
 import com.es2.dem.enums.IngestionStatus;
 
 import jakarta.persistence.Column;
@@ -14,11 +15,17 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "ingestion") 
+@Table(name = "ingestion", indexes = {
+        // Filtros da listagem de ingestões (status, provedor e período), ordenada por data de criação
+        @Index(name = "idx_ingestion_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_ingestion_provider_created_at", columnList = "mdm_provider_id, created_at"),
+        @Index(name = "idx_ingestion_created_at", columnList = "created_at")
+})
 public class Ingestion {
 
 // Classe que representa uma solicitação de ingestão de dados no DEM.
@@ -38,15 +45,66 @@ public class Ingestion {
     @Column(nullable = false)
     private IngestionStatus status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "outcome") // Resultado da ingestão concluída (envio ao MDM ou motivo para não enviar)
+    private IngestionOutcome outcome;
+
     @Column(name = "raw_data_path")
     private String rawDataPath; 
 
+    @Column(name = "raw_data_bytes") // Bytes transferidos no download dos dados brutos
+    private Long rawDataBytes;
+
+    // URL e validadores da resposta do provedor, registrados no estado do provedor quando a ingestão é concluída
+    @Column(name = "source_url")
+    private String sourceUrl;
+
+    @Column(name = "raw_content_hash", length = 64)
+    private String rawContentHash;
+
+    @Column(name = "source_etag")
+    private String sourceEtag;
+
+    @Column(name = "source_last_modified")
+    private String sourceLastModified;
+
+    @Column(name = "mapping_hash", length = 64) // Hash do mapeamento de campos usado na transformação
+    private String mappingHash;
+
     @Column(name = "transformed_data_path")
     private String transformedDataPath; 
 
+    @Column(name = "delta_data_path") // Registros novos, alterados e removidos desde a última ingestão concluída
+    private String deltaDataPath;
+
     @Column(name = "mdm_sync_url") 
     private String mdmSyncUrl;
 
+    @Column(name = "chunk_size") // Tamanho dos lotes usados no envio ao MDM
+    private Integer chunkSize;
+
+    @Column(name = "total_chunks")
+    private Integer totalChunks;
+
+    @Column(name = "acknowledged_chunks")
+    private Integer acknowledgedChunks;
+
+    @Column(name = "last_acknowledged_chunk") // Último lote confirmado em sequência (ponto de retomada)
+    private Integer lastAcknowledgedChunk;
+
+    // Contagens do delta em relação à última ingestão concluída do mesmo provedor
+    @Column(name = "new_records")
+    private Integer newRecords;
+
+    @Column(name = "changed_records")
+    private Integer changedRecords;
+
+    @Column(name = "unchanged_records")
+    private Integer unchangedRecords;
+
+    @Column(name = "deleted_records")
+    private Integer deletedRecords;
+
     @Lob //mensagens longass
     @Column(name = "status_message")
     private String statusMessage; 
@@ -68,6 +126,35 @@ public class Ingestion {
         this.mdmSyncUrl = mdmSyncUrl;
     }
 
+    // Cópia do estado de uma ingestão (usada pelo IngestionStateTracker para manter um retrato imutável do trabalho em execução)
+    public Ingestion(Ingestion other) {
+        this.id = other.id;
+        this.mdmProviderId = other.mdmProviderId;
+        this.status = other.status;
+        this.outcome = other.outcome;
+        this.rawDataPath = other.rawDataPath;
+        this.rawDataBytes = other.rawDataBytes;
+        this.sourceUrl = other.sourceUrl;
+        this.rawContentHash = other.rawContentHash;
+        this.sourceEtag = other.sourceEtag;
+        this.sourceLastModified = other.sourceLastModified;
+        this.mappingHash = other.mappingHash;
+        this.transformedDataPath = other.transformedDataPath;
+        this.deltaDataPath = other.deltaDataPath;
+        this.mdmSyncUrl = other.mdmSyncUrl;
+        this.chunkSize = other.chunkSize;
+        this.totalChunks = other.totalChunks;
+        this.acknowledgedChunks = other.acknowledgedChunks;
+        this.lastAcknowledgedChunk = other.lastAcknowledgedChunk;
+        this.newRecords = other.newRecords;
+        this.changedRecords = other.changedRecords;
+        this.unchangedRecords = other.unchangedRecords;
+        this.deletedRecords = other.deletedRecords;
+        this.statusMessage = other.statusMessage;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     public Integer getId() {
         return id;
     }
@@ -92,6 +179,14 @@ public class Ingestion {
         this.status = status;
     }
 
+    public IngestionOutcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(IngestionOutcome outcome) {
+        this.outcome = outcome;
+    }
+
     public String getRawDataPath() {
         return rawDataPath;
     }
@@ -100,6 +195,54 @@ public class Ingestion {
         this.rawDataPath = rawDataPath;
     }
 
+    public Long getRawDataBytes() {
+        return rawDataBytes;
+    }
+
+    public void setRawDataBytes(Long rawDataBytes) {
+        this.rawDataBytes = rawDataBytes;
+    }
+
+    public String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    public void setSourceUrl(String sourceUrl) {
+        this.sourceUrl = sourceUrl;
+    }
+
+    public String getRawContentHash() {
+        return rawContentHash;
+    }
+
+    public void setRawContentHash(String rawContentHash) {
+        this.rawContentHash = rawContentHash;
+    }
+
+    public String getMappingHash() {
+        return mappingHash;
+    }
+
+    public void setMappingHash(String mappingHash) {
+        this.mappingHash = mappingHash;
+    }
+
+    public String getSourceEtag() {
+        return sourceEtag;
+    }
+
+    public void setSourceEtag(String sourceEtag) {
+        this.sourceEtag = sourceEtag;
+    }
+
+    public String getSourceLastModified() {
+        return sourceLastModified;
+    }
+
+    public void setSourceLastModified(String sourceLastModified) {
+        this.sourceLastModified = sourceLastModified;
+    }
+
     public String getTransformedDataPath() {
         return transformedDataPath;
     }
@@ -108,6 +251,14 @@ public class Ingestion {
         this.transformedDataPath = transformedDataPath;
     }
 
+    public String getDeltaDataPath() {
+        return deltaDataPath;
+    }
+
+    public void setDeltaDataPath(String deltaDataPath) {
+        this.deltaDataPath = deltaDataPath;
+    }
+
     public String getMdmSyncUrl() {
         return mdmSyncUrl;
     }
@@ -116,6 +267,70 @@ public class Ingestion {
         this.mdmSyncUrl = mdmSyncUrl;
     }
 
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public Integer getTotalChunks() {
+        return totalChunks;
+    }
+
+    public void setTotalChunks(Integer totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+    public Integer getAcknowledgedChunks() {
+        return acknowledgedChunks;
+    }
+
+    public void setAcknowledgedChunks(Integer acknowledgedChunks) {
+        this.acknowledgedChunks = acknowledgedChunks;
+    }
+
+    public Integer getLastAcknowledgedChunk() {
+        return lastAcknowledgedChunk;
+    }
+
+    public void setLastAcknowledgedChunk(Integer lastAcknowledgedChunk) {
+        this.lastAcknowledgedChunk = lastAcknowledgedChunk;
+    }
+
+    public Integer getNewRecords() {
+        return newRecords;
+    }
+
+    public void setNewRecords(Integer newRecords) {
+        this.newRecords = newRecords;
+    }
+
+    public Integer getChangedRecords() {
+        return changedRecords;
+    }
+
+    public void setChangedRecords(Integer changedRecords) {
+        this.changedRecords = changedRecords;
+    }
+
+    public Integer getUnchangedRecords() {
+        return unchangedRecords;
+    }
+
+    public void setUnchangedRecords(Integer unchangedRecords) {
+        this.unchangedRecords = unchangedRecords;
+    }
+
+    public Integer getDeletedRecords() {
+        return deletedRecords;
+    }
+
+    public void setDeletedRecords(Integer deletedRecords) {
+        this.deletedRecords = deletedRecords;
+    }
+
     public String getStatusMessage() {
         return statusMessage;
     }
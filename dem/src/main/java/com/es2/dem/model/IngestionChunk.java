@@ -0,0 +1,139 @@
+package com.es2.dem.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.es2.dem.enums.ChunkStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+@Entity
+@Table(name = "ingestion_chunk",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"ingestion_id", "chunk_index"}))
+public class IngestionChunk {
+
+// Classe que representa um lote (chunk) de dados transformados enviado ao MDM por uma ingestão.
+// Cada lote guarda seu índice dentro do arquivo transformado, a quantidade de registros, o status de envio
+// e o número de tentativas, permitindo retomar o envio apenas dos lotes ainda não confirmados.
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "ingestion_id", nullable = false)
+    private Integer ingestionId;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "record_count", nullable = false)
+    private Integer recordCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ChunkStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey; // Cabeçalho Idempotency-Key, gerado no primeiro envio e mantido nas tentativas e retomadas
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public IngestionChunk() {
+    }
+
+    public IngestionChunk(Integer ingestionId, Integer chunkIndex, Integer recordCount, ChunkStatus status) {
+        this.ingestionId = ingestionId;
+        this.chunkIndex = chunkIndex;
+        this.recordCount = recordCount;
+        this.status = status;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getIngestionId() {
+        return ingestionId;
+    }
+
+    public void setIngestionId(Integer ingestionId) {
+        this.ingestionId = ingestionId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Integer getRecordCount() {
+        return recordCount;
+    }
+
+    public void setRecordCount(Integer recordCount) {
+        this.recordCount = recordCount;
+    }
+
+    public ChunkStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ChunkStatus status) {
+        this.status = status;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,128 @@
+package com.es2.dem.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "provider_fetch_state")
+public class ProviderFetchState {
+
+// Classe que representa o estado da última busca concluída dos dados de um provedor externo.
+// Guarda os validadores HTTP (ETag e Last-Modified) e o hash do conteúdo bruto da última ingestão COMPLETED,
+// usados na busca condicional (If-None-Match / If-Modified-Since) e na detecção de conteúdo inalterado.
+// O hash do mapeamento de campos também é guardado: se o mapeamento do provedor mudar, os dados são transformados novamente.
+
+    @Id
+    @Column(name = "mdm_provider_id")
+    private Integer mdmProviderId;
+
+    @Column(name = "api_url") // URL consultada; os validadores só valem para a mesma URL
+    private String apiUrl;
+
+    @Column(name = "etag")
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "content_hash", length = 64) // SHA-256 (hexadecimal) dos dados brutos
+    private String contentHash;
+
+    @Column(name = "mapping_hash", length = 64) // Hash do mapeamento de campos usado na última ingestão concluída
+    private String mappingHash;
+
+    @Column(name = "raw_data_path")
+    private String rawDataPath;
+
+    @Column(name = "last_ingestion_id")
+    private Integer lastIngestionId;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ProviderFetchState() {
+    }
+
+    public ProviderFetchState(Integer mdmProviderId) {
+        this.mdmProviderId = mdmProviderId;
+    }
+
+    public Integer getMdmProviderId() {
+        return mdmProviderId;
+    }
+
+    public void setMdmProviderId(Integer mdmProviderId) {
+        this.mdmProviderId = mdmProviderId;
+    }
+
+    public String getApiUrl() {
+        return apiUrl;
+    }
+
+    public void setApiUrl(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getMappingHash() {
+        return mappingHash;
+    }
+
+    public void setMappingHash(String mappingHash) {
+        this.mappingHash = mappingHash;
+    }
+
+    public String getRawDataPath() {
+        return rawDataPath;
+    }
+
+    public void setRawDataPath(String rawDataPath) {
+        this.rawDataPath = rawDataPath;
+    }
+
+    public Integer getLastIngestionId() {
+        return lastIngestionId;
+    }
+
+    public void setLastIngestionId(Integer lastIngestionId) {
+        this.lastIngestionId = lastIngestionId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.es2.dem.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.es2.dem.model.IngestionChunk;
+
+// Interface que estende JpaRepository para fornecer operações CRUD para os lotes (chunks) enviados por uma ingestão.
+@Repository
+public interface IngestionChunkRepository extends JpaRepository<IngestionChunk, Integer> {
+    List<IngestionChunk> findByIngestionIdOrderByChunkIndexAsc(Integer ingestionId);
+}
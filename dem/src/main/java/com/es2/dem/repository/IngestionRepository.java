@@ -1,12 +1,29 @@
 package com.es2.dem.repository;
 
+import java.time.LocalDateTime;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.es2.dem.enums.IngestionStatus;
 import com.es2.dem.model.Ingestion;
 
 // Interface que estende JpaRepository para fornecer operações CRUD para a entidade Ingestion. 
+// A listagem paginada e filtrada vem de IngestionRepositoryCustom.
 @Repository
-public interface IngestionRepository extends JpaRepository<Ingestion, Integer>{
-    
+public interface IngestionRepository extends JpaRepository<Ingestion, Integer>, IngestionRepositoryCustom {
+
+    // Altera o status somente se a ingestão ainda estiver no status esperado, em um único UPDATE.
+    // Retorna 1 se a alteração foi feita e 0 se o status já era outro (ex.: outra requisição fez a mesma transição antes).
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Ingestion i set i.status = :newStatus, i.statusMessage = :statusMessage, i.updatedAt = :updatedAt "
+            + "where i.id = :id and i.status = :expectedStatus")
+    int updateStatusIf(@Param("id") Integer id, @Param("expectedStatus") IngestionStatus expectedStatus,
+                       @Param("newStatus") IngestionStatus newStatus, @Param("statusMessage") String statusMessage,
+                       @Param("updatedAt") LocalDateTime updatedAt);
 }
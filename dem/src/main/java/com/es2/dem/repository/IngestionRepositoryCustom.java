@@ -0,0 +1,16 @@
+package com.es2.dem.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.es2.dem.enums.IngestionStatus;
+
+// Consultas do IngestionRepository implementadas manualmente (IngestionRepositoryCustomImpl).
+public interface IngestionRepositoryCustom {
+
+    // Página de ingestões (sem a mensagem de status) que atendem aos filtros informados; filtros nulos são ignorados.
+    Page<IngestionSummary> findSummaries(IngestionStatus status, Integer mdmProviderId,
+                                         LocalDateTime createdFrom, LocalDateTime createdTo, Pageable pageable);
+}
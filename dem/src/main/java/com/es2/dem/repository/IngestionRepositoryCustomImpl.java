@@ -0,0 +1,84 @@
+package com.es2.dem.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.es2.dem.enums.IngestionStatus;
+import com.es2.dem.model.Ingestion;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+// Implementação das consultas de IngestionRepositoryCustom com a Criteria API.
+// A cláusula where contém apenas os filtros informados (em vez de "parâmetro nulo ou coluna = parâmetro"),
+// para que o banco possa usar os índices de status, provedor e data de criação.
+public class IngestionRepositoryCustomImpl implements IngestionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<IngestionSummary> findSummaries(IngestionStatus status, Integer mdmProviderId,
+                                                LocalDateTime createdFrom, LocalDateTime createdTo, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<IngestionSummary> query = cb.createQuery(IngestionSummary.class);
+        Root<Ingestion> ingestion = query.from(Ingestion.class);
+        query.select(cb.construct(IngestionSummary.class,
+                        ingestion.get("id"), ingestion.get("mdmProviderId"), ingestion.get("status"), ingestion.get("outcome"),
+                        ingestion.get("rawDataPath"), ingestion.get("rawDataBytes"), ingestion.get("transformedDataPath"),
+                        ingestion.get("deltaDataPath"), ingestion.get("totalChunks"), ingestion.get("acknowledgedChunks"),
+                        ingestion.get("lastAcknowledgedChunk"), ingestion.get("newRecords"), ingestion.get("changedRecords"),
+                        ingestion.get("unchangedRecords"), ingestion.get("deletedRecords"),
+                        ingestion.get("createdAt"), ingestion.get("updatedAt")))
+                .where(filters(cb, ingestion, status, mdmProviderId, createdFrom, createdTo))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), ingestion, cb));
+
+        TypedQuery<IngestionSummary> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<IngestionSummary> content = typedQuery.getResultList();
+        // O total só é consultado quando não pode ser deduzido da própria página
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> count(status, mdmProviderId, createdFrom, createdTo));
+    }
+
+    private long count(IngestionStatus status, Integer mdmProviderId, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Ingestion> ingestion = query.from(Ingestion.class);
+        query.select(cb.count(ingestion))
+                .where(filters(cb, ingestion, status, mdmProviderId, createdFrom, createdTo));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private Predicate[] filters(CriteriaBuilder cb, Root<Ingestion> ingestion, IngestionStatus status,
+                                Integer mdmProviderId, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (status != null) {
+            predicates.add(cb.equal(ingestion.get("status"), status));
+        }
+        if (mdmProviderId != null) {
+            predicates.add(cb.equal(ingestion.get("mdmProviderId"), mdmProviderId));
+        }
+        if (createdFrom != null) {
+            predicates.add(cb.greaterThanOrEqualTo(ingestion.get("createdAt"), createdFrom));
+        }
+        if (createdTo != null) {
+            predicates.add(cb.lessThanOrEqualTo(ingestion.get("createdAt"), createdTo));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
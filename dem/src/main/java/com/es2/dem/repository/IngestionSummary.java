@@ -0,0 +1,15 @@
+package com.es2.dem.repository;
+
+import java.time.LocalDateTime;
+
+import com.es2.dem.enums.IngestionOutcome;
+import com.es2.dem.enums.IngestionStatus;
+
+// Projeção de uma ingestão usada na listagem: todas as colunas exibidas, exceto status_message (LOB),
+// que só é lida na consulta de uma ingestão específica.
+public record IngestionSummary(Integer id, Integer mdmProviderId, IngestionStatus status, IngestionOutcome outcome,
+                               String rawDataPath, Long rawDataBytes, String transformedDataPath, String deltaDataPath,
+                               Integer totalChunks, Integer acknowledgedChunks, Integer lastAcknowledgedChunk,
+                               Integer newRecords, Integer changedRecords, Integer unchangedRecords, Integer deletedRecords,
+                               LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
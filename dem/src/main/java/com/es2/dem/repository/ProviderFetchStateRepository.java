@@ -0,0 +1,11 @@
+package com.es2.dem.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.es2.dem.model.ProviderFetchState;
+
+// Interface que estende JpaRepository para fornecer operações CRUD para o estado da última busca de cada provedor.
+@Repository
+public interface ProviderFetchStateRepository extends JpaRepository<ProviderFetchState, Integer> {
+}
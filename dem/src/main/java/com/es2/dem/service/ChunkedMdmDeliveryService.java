@@ -0,0 +1,396 @@
+package com.es2.dem.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.es2.dem.dto.CountryDTO;
+import com.es2.dem.dto.MdmCallbackStatusDTO;
+import com.es2.dem.enums.ChunkStatus;
+import com.es2.dem.enums.SyncOperation;
+import com.es2.dem.enums.WireFormat;
+import com.es2.dem.model.IngestionChunk;
+import com.es2.dem.repository.IngestionChunkRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+@Component
+public class ChunkedMdmDeliveryService {
+
+// Componente responsável por enviar os dados transformados ao callback do MDM em lotes (chunks).
+// O arquivo transformado (NDJSON, com descompressão transparente pelo IngestionFileStore) é lido em streaming
+// e dividido em lotes de tamanho configurável;
+// vários lotes são enviados em paralelo (limitado por dem.delivery.max-in-flight) e cada lote é registrado
+// na tabela ingestion_chunk com seu status. Lotes já confirmados pelo MDM são ignorados em uma retomada,
+// de modo que uma falha pontual não obriga o reenvio de todo o conjunto de dados.
+// Os lotes são codificados em dem.delivery.wire-format (SMILE por padrão). Se o MDM não aceitar o formato binário
+// (415 Unsupported Media Type), o lote é reenviado em JSON e os próximos lotes para a mesma URL já seguem em JSON.
+// Cada lote leva o cabeçalho Idempotency-Key (ingestão, índice do lote e um sufixo aleatório gravado com o lote), o mesmo
+// em todas as tentativas e retomadas: o MDM reconhece um lote que já recebeu (ex.: resposta perdida por timeout) e não
+// o aplica de novo. O sufixo evita que lotes de outra instância do DEM, ou de um banco recriado, cujos IDs de ingestão
+// se repetem, sejam tomados por reenvios.
+// O MDM responde 202 e aplica o lote em segundo plano: o lote só é confirmado (ACKNOWLEDGED) depois que o status
+// indicado no cabeçalho Location (GET /countries/callback/{processingId}) chega a COMPLETED. Um lote aplicado com
+// falhas (COMPLETED_WITH_ERRORS ou FAILED) é reenviado como uma nova tentativa e, se continuar falhando, fica FAILED:
+// a ingestão não é concluída e o índice de fingerprints não é promovido, para que o próximo delta inclua esses países.
+// Os lotes DELETE só são enviados depois que todos os lotes UPSERT da ingestão foram aplicados: uma remoção nunca chega
+// ao MDM antes da atualização de um país cuja chave mudou. O cabeçalho X-Provider-Id identifica o provedor, e o MDM só
+// remove países sincronizados por ele.
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedMdmDeliveryService.class);
+
+    // Cabeçalhos que identificam o lote enviado ao MDM
+    public static final String INGESTION_ID_HEADER = "X-Ingestion-Id";
+    public static final String CHUNK_INDEX_HEADER = "X-Chunk-Index";
+    public static final String SYNC_OPERATION_HEADER = "X-Sync-Operation";
+    public static final String PROVIDER_ID_HEADER = "X-Provider-Id";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper; // Mesma configuração do objectMapper, com saída em Smile
+    private final IngestionChunkRepository ingestionChunkRepository;
+    private final IngestionFileStore ingestionFileStore;
+
+    @Value("${dem.delivery.chunk-size:500}")    // Quantidade de países por lote
+    private int chunkSize;
+
+    @Value("${dem.delivery.max-in-flight:4}")   // Lotes em envio ou em aplicação no MDM ao mesmo tempo
+    private int maxInFlight;
+
+    @Value("${dem.delivery.max-attempts:3}")    // Tentativas por lote antes de considerá-lo falho
+    private int maxAttempts;
+
+    @Value("${dem.delivery.retry-backoff-ms:1000}")     // Espera base entre tentativas (multiplicada pela tentativa)
+    private long retryBackoffMs;
+
+    @Value("${dem.delivery.status-poll-ms:500}")     // Intervalo entre consultas ao status de aplicação do lote no MDM
+    private long statusPollMs;
+
+    @Value("${dem.delivery.apply-timeout-ms:600000}")     // Tempo máximo de espera pela aplicação de um lote no MDM
+    private long applyTimeoutMs;
+
+    @Value("${dem.delivery.wire-format:SMILE}")     // Formato do corpo dos lotes (JSON ou SMILE)
+    private WireFormat wireFormat;
+
+    private final Set<String> jsonOnlyUrls = ConcurrentHashMap.newKeySet(); // URLs de callback que recusaram o formato binário
+
+    @Autowired
+    public ChunkedMdmDeliveryService(RestTemplate restTemplate, ObjectMapper objectMapper,
+                                     IngestionChunkRepository ingestionChunkRepository, IngestionFileStore ingestionFileStore) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.ingestionChunkRepository = ingestionChunkRepository;
+        this.ingestionFileStore = ingestionFileStore;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Envia o arquivo ao MDM em lotes de chunkSize países.
+    // Os primeiros upsertRecords países do arquivo são enviados como UPSERT e os demais como DELETE (arquivo de delta);
+    // um lote nunca mistura as duas operações. Para enviar o arquivo inteiro como UPSERT, use Integer.MAX_VALUE.
+    // O tamanho do lote deve ser o mesmo de envios anteriores da mesma ingestão para que os índices coincidam na retomada.
+    // Após a primeira falha definitiva de um lote, nenhum novo lote é enviado (os que já estão em envio terminam),
+    // mas o arquivo continua sendo lido para contabilizar o total de lotes.
+    // Antes do primeiro lote DELETE, o envio aguarda o término de todos os lotes em envio; se algum lote UPSERT não foi
+    // confirmado, nenhum lote DELETE é enviado.
+    public DeliveryResult deliver(Integer ingestionId, Integer mdmProviderId, String mdmSyncUrl, Path transformedFile,
+                                  int chunkSize, int upsertRecords) throws IOException, InterruptedException {
+        Map<Integer, IngestionChunk> chunks = new ConcurrentHashMap<>(ingestionChunkRepository
+                .findByIngestionIdOrderByChunkIndexAsc(ingestionId).stream()
+                .collect(Collectors.toMap(IngestionChunk::getChunkIndex, Function.identity())));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        int totalChunks = 0;
+        int recordIndex = 0;
+        boolean upsertsApplied = false;
+
+        try (MappingIterator<CountryDTO> countries = objectMapper.readerFor(CountryDTO.class)
+                .readValues(ingestionFileStore.openInputStream(transformedFile));
+             ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            List<CountryDTO> buffer = new ArrayList<>(chunkSize);
+            while (countries.hasNextValue()) {
+                buffer.add(countries.nextValue());
+                recordIndex++;
+                if (buffer.size() == chunkSize || recordIndex == upsertRecords || !countries.hasNextValue()) {
+                    SyncOperation operation = recordIndex > upsertRecords ? SyncOperation.DELETE : SyncOperation.UPSERT;
+                    if (operation == SyncOperation.DELETE && !upsertsApplied) {
+                        awaitUpserts(ingestionId, totalChunks, chunks, inFlight, aborted);
+                        upsertsApplied = true;
+                    }
+                    dispatch(ingestionId, mdmProviderId, mdmSyncUrl, totalChunks, operation, buffer, chunks, inFlight,
+                            aborted, senders);
+                    buffer = new ArrayList<>(chunkSize);
+                    totalChunks++;
+                }
+            }
+        } // O fechamento do executor aguarda o término dos lotes em envio
+
+        int acknowledged = 0;
+        int failed = 0;
+        int lastAcknowledged = -1;
+        boolean contiguous = true;
+        for (int index = 0; index < totalChunks; index++) {
+            IngestionChunk chunk = chunks.get(index);
+            boolean isAcknowledged = chunk != null && chunk.getStatus() == ChunkStatus.ACKNOWLEDGED;
+            if (isAcknowledged) {
+                acknowledged++;
+                if (contiguous) {
+                    lastAcknowledged = index;
+                }
+            } else {
+                contiguous = false;
+                if (chunk != null && chunk.getStatus() == ChunkStatus.FAILED) {
+                    failed++;
+                }
+            }
+        }
+        logger.info("Ingestion ID {}: {} de {} lotes confirmados pelo MDM ({} com falha).",
+                ingestionId, acknowledged, totalChunks, failed);
+        return new DeliveryResult(totalChunks, acknowledged, failed, lastAcknowledged);
+    }
+
+    // Aguarda o término dos lotes em envio (todas as permissões de inFlight livres) antes do primeiro lote DELETE.
+    // Se algum dos lotes UPSERT anteriores não foi confirmado, os lotes seguintes não são enviados.
+    private void awaitUpserts(Integer ingestionId, int firstDeleteChunk, Map<Integer, IngestionChunk> chunks,
+                              Semaphore inFlight, AtomicBoolean aborted) throws InterruptedException {
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        for (int index = 0; index < firstDeleteChunk; index++) {
+            IngestionChunk chunk = chunks.get(index);
+            if (chunk == null || chunk.getStatus() != ChunkStatus.ACKNOWLEDGED) {
+                if (!aborted.getAndSet(true)) {
+                    logger.warn("Ingestion ID {}: lote {} não confirmado; os lotes de remoção não serão enviados.",
+                            ingestionId, index);
+                }
+                return;
+            }
+        }
+    }
+
+    // Serializa e envia um lote, respeitando o limite de lotes simultâneos. Lotes já confirmados são ignorados.
+    private void dispatch(Integer ingestionId, Integer mdmProviderId, String mdmSyncUrl, int chunkIndex,
+                          SyncOperation operation, List<CountryDTO> countries, Map<Integer, IngestionChunk> chunks,
+                          Semaphore inFlight, AtomicBoolean aborted, ExecutorService senders)
+            throws IOException, InterruptedException {
+        IngestionChunk chunk = chunks.get(chunkIndex);
+        if (aborted.get() || (chunk != null && chunk.getStatus() == ChunkStatus.ACKNOWLEDGED)) {
+            return;
+        }
+        if (chunk == null) {
+            chunk = new IngestionChunk(ingestionId, chunkIndex, countries.size(), ChunkStatus.SENDING);
+            chunks.put(chunkIndex, chunk);
+        }
+
+        WireFormat format = jsonOnlyUrls.contains(mdmSyncUrl) ? WireFormat.JSON : wireFormat;
+        byte[] body = serialize(countries, format);
+        inFlight.acquire();
+        if (aborted.get()) {
+            inFlight.release();
+            return;
+        }
+        IngestionChunk chunkToSend = chunk;
+        senders.execute(() -> {
+            try {
+                send(mdmProviderId, mdmSyncUrl, chunkToSend, operation, countries, format, body, aborted);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    // Envia um lote ao MDM, com novas tentativas para falhas transitórias, e registra o resultado no lote.
+    // Se o MDM recusar o formato binário, o lote é serializado novamente em JSON e reenviado sem contar como tentativa.
+    private void send(Integer mdmProviderId, String mdmSyncUrl, IngestionChunk chunk, SyncOperation operation,
+                      List<CountryDTO> countries, WireFormat format, byte[] body, AtomicBoolean aborted) {
+        HttpEntity<byte[]> request = request(mdmProviderId, chunk, operation, format, body);
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            chunk.setStatus(ChunkStatus.SENDING);
+            chunk.setAttempts(chunk.getAttempts() + 1);
+            ingestionChunkRepository.save(chunk);
+            try {
+                ResponseEntity<String> response = restTemplate.exchange(mdmSyncUrl, HttpMethod.POST, request, String.class);
+                if (response.getStatusCode().is2xxSuccessful()) {
+                    URI statusUri = response.getHeaders().getLocation();
+                    if (statusUri == null || awaitApplied(chunk, URI.create(mdmSyncUrl).resolve(statusUri))) {
+                        // Sem Location, o MDM aplicou o lote na própria requisição
+                        chunk.setStatus(ChunkStatus.ACKNOWLEDGED);
+                        chunk.setLastError(null);
+                        ingestionChunkRepository.save(chunk);
+                        logger.debug("Ingestion ID {}: lote {} aplicado pelo MDM.", chunk.getIngestionId(), chunk.getChunkIndex());
+                        return;
+                    }
+                } else {
+                    chunk.setLastError("Resposta do MDM: " + response.getStatusCode() + " - " + response.getBody());
+                }
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() == HttpStatus.UNSUPPORTED_MEDIA_TYPE && format != WireFormat.JSON) {
+                    if (jsonOnlyUrls.add(mdmSyncUrl)) {
+                        logger.info("MDM em {} não aceita {}; os lotes passam a ser enviados em JSON.", mdmSyncUrl, format);
+                    }
+                    format = WireFormat.JSON;
+                    byte[] jsonBody = serializeQuietly(countries, format);
+                    if (jsonBody != null) {
+                        request = request(mdmProviderId, chunk, operation, format, jsonBody);
+                        attempt--;
+                        continue;
+                    }
+                }
+                chunk.setLastError(truncate("Resposta do MDM: " + e.getStatusCode() + " - " + e.getResponseBodyAsString()));
+                if (!isRetryable(e)) {
+                    break;
+                }
+            } catch (RestClientException e) {
+                chunk.setLastError(truncate("Erro de comunicação com o MDM: " + e.getMessage()));
+            }
+
+            logger.warn("Ingestion ID {}: falha no envio do lote {} (tentativa {}/{}): {}",
+                    chunk.getIngestionId(), chunk.getChunkIndex(), attempt, maxAttempts, chunk.getLastError());
+            if (attempt < maxAttempts && !sleepBeforeRetry(attempt)) {
+                break;
+            }
+        }
+
+        chunk.setStatus(ChunkStatus.FAILED);
+        ingestionChunkRepository.save(chunk);
+        aborted.set(true);
+    }
+
+    // Consulta o status do lote no MDM até a aplicação terminar. Retorna true se todos os registros foram aplicados;
+    // caso contrário, registra o motivo em lastError e retorna false.
+    // Falhas de comunicação durante a espera são toleradas até o tempo máximo (dem.delivery.apply-timeout-ms).
+    private boolean awaitApplied(IngestionChunk chunk, URI statusUri) {
+        chunk.setStatus(ChunkStatus.APPLYING);
+        ingestionChunkRepository.save(chunk);
+        long deadline = System.currentTimeMillis() + applyTimeoutMs;
+        String lastFailure = null;
+        while (true) {
+            try {
+                MdmCallbackStatusDTO status = restTemplate.getForObject(statusUri, MdmCallbackStatusDTO.class);
+                if (status != null && status.isTerminal()) {
+                    if ("COMPLETED".equals(status.getStatus())) {
+                        return true;
+                    }
+                    chunk.setLastError(truncate("Lote " + status.getProcessingId() + " " + status.getStatus() + " no MDM: "
+                            + status.getAppliedRecords() + " de " + status.getTotalRecords() + " registros aplicados, "
+                            + status.getFailedRecords() + " com falha. Último erro: " + status.getLastError()));
+                    return false;
+                }
+            } catch (HttpClientErrorException.NotFound e) {
+                chunk.setLastError("Lote não encontrado no MDM: " + statusUri);
+                return false;
+            } catch (RestClientException e) {
+                lastFailure = e.getMessage();
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                chunk.setLastError(truncate("Tempo esgotado aguardando a aplicação do lote no MDM (" + statusUri + ")"
+                        + (lastFailure != null ? ": " + lastFailure : ".")));
+                return false;
+            }
+            try {
+                Thread.sleep(statusPollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                chunk.setLastError("Espera pela aplicação do lote no MDM interrompida.");
+                return false;
+            }
+        }
+    }
+
+    private HttpEntity<byte[]> request(Integer mdmProviderId, IngestionChunk chunk, SyncOperation operation,
+                                       WireFormat format, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+        headers.set(PROVIDER_ID_HEADER, String.valueOf(mdmProviderId));
+        headers.set(INGESTION_ID_HEADER, String.valueOf(chunk.getIngestionId()));
+        headers.set(CHUNK_INDEX_HEADER, String.valueOf(chunk.getChunkIndex()));
+        headers.set(SYNC_OPERATION_HEADER, operation.name());
+        headers.set(IDEMPOTENCY_KEY_HEADER, idempotencyKey(chunk));
+        return new HttpEntity<>(body, headers);
+    }
+
+    // Chave de idempotência do lote: o conteúdo de um lote de uma ingestão não muda entre tentativas e retomadas.
+    // Gerada no primeiro envio; o lote é gravado (com a chave) antes de cada tentativa.
+    private static String idempotencyKey(IngestionChunk chunk) {
+        if (chunk.getIdempotencyKey() == null) {
+            chunk.setIdempotencyKey("dem-ingestion-" + chunk.getIngestionId() + "-chunk-" + chunk.getChunkIndex()
+                    + "-" + UUID.randomUUID());
+        }
+        return chunk.getIdempotencyKey();
+    }
+
+    private byte[] serialize(List<CountryDTO> countries, WireFormat format) throws IOException {
+        return (format == WireFormat.SMILE ? smileMapper : objectMapper).writeValueAsBytes(countries);
+    }
+
+    // Usado na troca de formato dentro da thread de envio; retorna null se a serialização falhar
+    private byte[] serializeQuietly(List<CountryDTO> countries, WireFormat format) {
+        try {
+            return serialize(countries, format);
+        } catch (IOException e) {
+            logger.error("Falha ao serializar o lote em {}: {}", format, e.getMessage());
+            return null;
+        }
+    }
+
+    // Erros 4xx indicam lote inválido, exceto timeout da requisição e excesso de requisições
+    private boolean isRetryable(HttpClientErrorException e) {
+        return e.getStatusCode() == HttpStatus.REQUEST_TIMEOUT || e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    private boolean sleepBeforeRetry(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    // Resultado do envio: total de lotes do arquivo, lotes confirmados, lotes com falha
+    // e o índice do último lote confirmado em sequência a partir do início (-1 se nenhum).
+    public record DeliveryResult(int totalChunks, int acknowledgedChunks, int failedChunks, int lastAcknowledgedChunk) {
+
+        public boolean isComplete() {
+            return acknowledgedChunks == totalChunks;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.es2.dem.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.es2.dem.dto.CountryDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+@Component
+public class CountryFingerprintIndex {
+
+// Componente responsável pelo índice de fingerprints de cada provedor (chave do país -> hash SHA-256 do conteúdo).
+// O índice representa os países da última ingestão COMPLETED do provedor e é usado para calcular o delta de uma nova
+// ingestão: apenas países novos, alterados ou removidos precisam ser enviados ao MDM.
+// O índice calculado para uma ingestão é gravado como pendente e só substitui o índice atual quando a ingestão
+// é concluída (promote); assim, uma ingestão com falha não faz o próximo delta omitir registros que o MDM não recebeu.
+// O índice guarda o hash do mapeamento de campos usado: com outro mapeamento as chaves não são comparáveis, e o índice
+// é reconstruído (todos os países são enviados como novos e nenhum é removido).
+// Um país cuja chave mudou (ex.: o provedor deixou de informar o código numérico) continua presente com o mesmo nome
+// ou código e não é enviado como removido; a remoção pela chave antiga apagaria o registro recém-atualizado no MDM.
+
+    private static final Logger logger = LoggerFactory.getLogger(CountryFingerprintIndex.class);
+
+    private static final String INDEX_FILE_NAME = "index.json";
+    private static final String PENDING_FILE_PREFIX = "pending_ingestion_";
+    private static final String NUMERIC_CODE_KEY_PREFIX = "numericCode:";
+    private static final String COUNTRY_NAME_KEY_PREFIX = "countryName:";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter hashWriter;       // JSON compacto usado como entrada do hash
+    private final ObjectWriter deltaWriter;      // NDJSON do arquivo de delta
+    private final IngestionFileStore ingestionFileStore;
+
+    @Autowired
+    public CountryFingerprintIndex(ObjectMapper objectMapper, IngestionFileStore ingestionFileStore) {
+        this.objectMapper = objectMapper;
+        this.ingestionFileStore = ingestionFileStore;
+        this.hashWriter = objectMapper.writerFor(CountryDTO.class)
+                .without(SerializationFeature.INDENT_OUTPUT);
+        this.deltaWriter = objectMapper.writerFor(CountryDTO.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+    }
+
+    // Compara o arquivo transformado com o índice da última ingestão concluída do provedor e grava o arquivo de delta:
+    // primeiro os países novos e alterados (completos) e, em seguida, os removidos (apenas a chave: código numérico ou nome).
+    // O novo índice é gravado como pendente da ingestão informada.
+    // Se o índice da última ingestão concluída foi calculado com outro mapeamento de campos (mappingHash), ele é ignorado.
+    public DeltaResult computeDelta(Integer mdmProviderId, Integer ingestionId, String mappingHash, Path transformedFile,
+                                    Path deltaFile) throws IOException {
+        Map<String, Fingerprint> previous = loadIndex(mdmProviderId, mappingHash);
+        Map<String, Fingerprint> current = new LinkedHashMap<>();
+        Set<Integer> currentNumericCodes = new HashSet<>();
+        Set<String> currentNames = new HashSet<>();
+        MessageDigest digest = newDigest();
+        HexFormat hex = HexFormat.of();
+        int newRecords = 0;
+        int changedRecords = 0;
+        int unchangedRecords = 0;
+        int deletedRecords = 0;
+
+        try (MappingIterator<CountryDTO> countries = objectMapper.readerFor(CountryDTO.class)
+                .readValues(ingestionFileStore.openInputStream(transformedFile));
+             SequenceWriter delta = deltaWriter.writeValues(ingestionFileStore.openOutputStream(deltaFile))) {
+
+            while (countries.hasNextValue()) {
+                CountryDTO country = countries.nextValue();
+                String key = keyOf(country);
+                String hash = hex.formatHex(digest.digest(hashWriter.writeValueAsBytes(country)));
+                current.put(key, new Fingerprint(hash, country.getNumericCode(), country.getCountryName()));
+                if (country.getNumericCode() != null) {
+                    currentNumericCodes.add(country.getNumericCode());
+                }
+                currentNames.add(country.getCountryName());
+
+                // Remove do índice anterior: ao final, restam apenas as chaves que não vieram nesta ingestão
+                Fingerprint previousFingerprint = previous.remove(key);
+                if (previousFingerprint == null) {
+                    newRecords++;
+                    delta.write(country);
+                } else if (!previousFingerprint.hash().equals(hash)) {
+                    changedRecords++;
+                    delta.write(country);
+                } else {
+                    unchangedRecords++;
+                }
+            }
+
+            for (Map.Entry<String, Fingerprint> removed : previous.entrySet()) {
+                Fingerprint fingerprint = removed.getValue();
+                if ((fingerprint.numericCode() != null && currentNumericCodes.contains(fingerprint.numericCode()))
+                        || currentNames.contains(fingerprint.countryName())) {
+                    logger.info("Ingestion ID {}: chave '{}' substituída por outra chave do mesmo país; não será removido.",
+                            ingestionId, removed.getKey());
+                    continue;
+                }
+                delta.write(keyOnlyCountry(removed.getKey()));
+                deletedRecords++;
+            }
+        }
+
+        Path pendingIndex = ingestionFileStore.fingerprintDirectory(mdmProviderId)
+                .resolve(PENDING_FILE_PREFIX + ingestionId + ".json");
+        try (OutputStream out = Files.newOutputStream(pendingIndex)) {
+            objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(out, new IndexFile(mappingHash, current));
+        }
+
+        logger.info("Delta da Ingestion ID {} (provedor {}): {} novos, {} alterados, {} inalterados, {} removidos.",
+                ingestionId, mdmProviderId, newRecords, changedRecords, unchangedRecords, deletedRecords);
+        return new DeltaResult(newRecords, changedRecords, unchangedRecords, deletedRecords);
+    }
+
+    // Torna o índice pendente da ingestão o índice atual do provedor e descarta índices pendentes de ingestões anteriores.
+    public void promote(Integer mdmProviderId, Integer ingestionId) throws IOException {
+        Path directory = ingestionFileStore.fingerprintDirectory(mdmProviderId);
+        Path pendingIndex = directory.resolve(PENDING_FILE_PREFIX + ingestionId + ".json");
+        if (!Files.exists(pendingIndex)) {
+            logger.warn("Índice de fingerprints pendente não encontrado para Ingestion ID {}.", ingestionId);
+            return;
+        }
+        Files.move(pendingIndex, directory.resolve(INDEX_FILE_NAME),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        try (DirectoryStream<Path> stalePending = Files.newDirectoryStream(directory, PENDING_FILE_PREFIX + "*")) {
+            for (Path stale : stalePending) {
+                Files.deleteIfExists(stale);
+            }
+        }
+    }
+
+    // Índice atual do provedor, ou um índice vazio se não houver um índice calculado com o mesmo mapeamento de campos
+    // (inclusive índices gravados em um formato anterior).
+    private Map<String, Fingerprint> loadIndex(Integer mdmProviderId, String mappingHash) throws IOException {
+        Path index = ingestionFileStore.fingerprintDirectory(mdmProviderId).resolve(INDEX_FILE_NAME);
+        if (!Files.exists(index)) {
+            return new HashMap<>();
+        }
+        IndexFile indexFile;
+        try (InputStream in = Files.newInputStream(index)) {
+            indexFile = objectMapper.readValue(in, IndexFile.class);
+        } catch (JsonProcessingException e) {
+            indexFile = null;
+        }
+        if (indexFile == null || indexFile.countries() == null || !Objects.equals(indexFile.mappingHash(), mappingHash)) {
+            logger.info("Índice de fingerprints do provedor {} calculado com outro mapeamento de campos; será reconstruído.",
+                    mdmProviderId);
+            return new HashMap<>();
+        }
+        return new HashMap<>(indexFile.countries());
+    }
+
+    // Chave do país: o código numérico (mesmo critério usado pelo MDM) ou, na falta dele, o nome.
+    private String keyOf(CountryDTO country) {
+        if (country.getNumericCode() != null) {
+            return NUMERIC_CODE_KEY_PREFIX + country.getNumericCode();
+        }
+        return COUNTRY_NAME_KEY_PREFIX + country.getCountryName();
+    }
+
+    private CountryDTO keyOnlyCountry(String key) {
+        CountryDTO country = new CountryDTO();
+        country.setCurrencies(null);
+        if (key.startsWith(NUMERIC_CODE_KEY_PREFIX)) {
+            country.setNumericCode(Integer.valueOf(key.substring(NUMERIC_CODE_KEY_PREFIX.length())));
+        } else {
+            country.setCountryName(key.substring(COUNTRY_NAME_KEY_PREFIX.length()));
+        }
+        return country;
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+
+    // Conteúdo do arquivo de índice: hash do mapeamento de campos e fingerprint de cada país (hash, código numérico e nome)
+    private record IndexFile(String mappingHash, Map<String, Fingerprint> countries) {
+    }
+
+    private record Fingerprint(String hash, Integer numericCode, String countryName) {
+    }
+
+    // Contagens do delta de uma ingestão em relação à última ingestão concluída do provedor.
+    public record DeltaResult(int newRecords, int changedRecords, int unchangedRecords, int deletedRecords) {
+
+        // Quantidade de registros enviados como UPSERT (aparecem primeiro no arquivo de delta)
+        public int upsertRecords() {
+            return newRecords + changedRecords;
+        }
+
+        public boolean isEmpty() {
+            return newRecords == 0 && changedRecords == 0 && deletedRecords == 0;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.es2.dem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CountryMappingRegistry {
+
+// Componente que mantém, por provedor, o mapeamento de campos já compilado (JsonPointerCountryMapper).
+// O mapeamento declarado no MDM só é compilado novamente quando muda; as demais ingestões reutilizam o conversor do cache.
+// Provedores sem mapeamento declarado usam DEFAULT_MAPPINGS, que corresponde ao formato da RestCountries.
+
+    private static final Logger logger = LoggerFactory.getLogger(CountryMappingRegistry.class);
+
+    public static final Map<String, String> DEFAULT_MAPPINGS = Map.of(
+            JsonPointerCountryMapper.COUNTRY_NAME, "/name/common",
+            JsonPointerCountryMapper.NUMERIC_CODE, "/ccn3",
+            JsonPointerCountryMapper.CAPITAL_CITY, "/capital/0",
+            JsonPointerCountryMapper.POPULATION, "/population",
+            JsonPointerCountryMapper.AREA, "/area",
+            JsonPointerCountryMapper.CURRENCIES, "/currencies",
+            JsonPointerCountryMapper.CURRENCY_CODE, JsonPointerCountryMapper.KEY_EXPRESSION,
+            JsonPointerCountryMapper.CURRENCY_NAME, "/name",
+            JsonPointerCountryMapper.CURRENCY_SYMBOL, "/symbol");
+
+    private static final CompiledMapping DEFAULT_MAPPING = compile(DEFAULT_MAPPINGS);
+
+    private final Map<Integer, CompiledMapping> mappingsByProvider = new ConcurrentHashMap<>();
+
+    // Retorna o mapeamento compilado do provedor para o mapeamento declarado (nulo ou vazio: mapeamento padrão).
+    // Lança IllegalArgumentException se o mapeamento for inválido.
+    public CompiledMapping getMapping(Integer mdmProviderId, Map<String, String> fieldMappings) {
+        if (fieldMappings == null || fieldMappings.isEmpty()) {
+            mappingsByProvider.remove(mdmProviderId);
+            return DEFAULT_MAPPING;
+        }
+        CompiledMapping cached = mappingsByProvider.get(mdmProviderId);
+        if (cached != null && cached.sourceMappings().equals(fieldMappings)) {
+            return cached;
+        }
+        CompiledMapping compiled = compile(fieldMappings);
+        mappingsByProvider.put(mdmProviderId, compiled);
+        logger.info("Mapeamento de campos do provedor {} compilado ({} campos).", mdmProviderId, fieldMappings.size());
+        return compiled;
+    }
+
+    private static CompiledMapping compile(Map<String, String> fieldMappings) {
+        Map<String, String> sourceMappings = Map.copyOf(fieldMappings);
+        return new CompiledMapping(sourceMappings, JsonPointerCountryMapper.compile(sourceMappings), hashOf(sourceMappings));
+    }
+
+    // SHA-256 (hexadecimal) do mapeamento em ordem de campo, usado para detectar mudanças de mapeamento entre ingestões
+    private static String hashOf(Map<String, String> mappings) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            new TreeMap<>(mappings).forEach((target, expression) ->
+                    digest.update((target + "=" + expression + "\n").getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+
+    // Mapeamento declarado, conversor compilado a partir dele e hash do mapeamento
+    public record CompiledMapping(Map<String, String> sourceMappings, CountryRecordMapper mapper, String hash) {
+    }
+}
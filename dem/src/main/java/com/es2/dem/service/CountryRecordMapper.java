@@ -0,0 +1,12 @@
+package com.es2.dem.service;
+
+import com.es2.dem.dto.CountryDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+
+// Contrato de conversão de um registro bruto de um provedor (um objeto do array JSON) em um CountryDTO.
+// Implementações devem ser imutáveis e seguras para uso simultâneo, pois são reutilizadas por todas as ingestões do provedor.
+// A implementação padrão é o JsonPointerCountryMapper, obtido pelo CountryMappingRegistry.
+public interface CountryRecordMapper {
+
+    CountryDTO map(JsonNode rawRecord);
+}
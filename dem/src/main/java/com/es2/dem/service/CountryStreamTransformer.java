@@ -0,0 +1,70 @@
+package com.es2.dem.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.es2.dem.dto.CountryDTO;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+@Component
+public class CountryStreamTransformer {
+
+// Componente responsável por transformar os dados brutos de um provedor em CountryDTOs de forma incremental.
+// Em vez de carregar o arquivo inteiro em memória, percorre o array JSON de nível superior com um JsonParser,
+// lendo um país (objeto) por vez, convertendo-o em CountryDTO (pelo CountryRecordMapper do provedor) e escrevendo-o imediatamente no arquivo transformado
+// como uma linha de JSON compacto (NDJSON). Assim, o uso de memória é constante, independentemente do tamanho do arquivo bruto.
+// Os arquivos são abertos pelo IngestionFileStore, que aplica a compressão configurada.
+
+    private static final Logger logger = LoggerFactory.getLogger(CountryStreamTransformer.class);
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter countryWriter; // Writer reutilizável: JSON compacto, um país por linha, sem flush a cada registro
+    private final IngestionFileStore ingestionFileStore;
+
+    @Autowired
+    public CountryStreamTransformer(ObjectMapper objectMapper, IngestionFileStore ingestionFileStore) {
+        this.objectMapper = objectMapper;
+        this.ingestionFileStore = ingestionFileStore;
+        this.countryWriter = objectMapper.writerFor(CountryDTO.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+    }
+
+    // Lê o arquivo bruto (array JSON de países) e escreve os CountryDTOs convertidos pelo mapper no arquivo de destino, um por linha.
+    // Retorna a quantidade de países transformados.
+    // Lança IOException se o arquivo não puder ser lido/escrito ou se o conteúdo não for um array JSON.
+    public int transform(Path rawFile, Path transformedFile, CountryRecordMapper mapper) throws IOException {
+        int count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(ingestionFileStore.openInputStream(rawFile));
+             SequenceWriter output = countryWriter.writeValues(ingestionFileStore.openOutputStream(transformedFile))) {
+
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Formato inesperado nos dados brutos: esperado um array JSON de países.");
+            }
+
+            // Lê um objeto por vez; o restante do array permanece no disco
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode rawCountryNode = objectMapper.readTree(parser);
+                output.write(mapper.map(rawCountryNode));
+                count++;
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Formato inesperado nos dados brutos: elemento do array não é um objeto JSON.");
+            }
+        }
+        logger.debug("{} países transformados de {} para {}", count, rawFile, transformedFile);
+        return count;
+    }
+}
@@ -0,0 +1,143 @@
+package com.es2.dem.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.es2.dem.dto.IngestionDTO;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class IngestionEventStream {
+
+// Fluxo de eventos (Server-Sent Events) com as atualizações dos trabalhos de ingestão (GET /dem/api/ingestion/events).
+// Cada atualização é enviada a todos os clientes conectados como um evento "ingestion" com o IngestionDTO em JSON,
+// numerado em sequência (id do evento). Os últimos eventos (dem.events.replay-size) ficam guardados: um cliente que
+// reconecta com o cabeçalho Last-Event-ID recebe os que perdeu.
+// Os envios são feitos por uma única thread, em ordem, para que um cliente lento não atrase os workers de ingestão.
+// Um comentário é enviado periodicamente (dem.events.heartbeat-ms) para manter as conexões abertas.
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionEventStream.class);
+    private static final String EVENT_NAME = "ingestion";
+
+    @Value("${dem.events.emitter-timeout-ms:1800000}")   // Duração máxima de uma conexão; o cliente reconecta em seguida
+    private long emitterTimeoutMs;
+
+    @Value("${dem.events.replay-size:256}")   // Eventos guardados para clientes que reconectam
+    private int replaySize;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Deque<StreamEvent> recentEvents = new ArrayDeque<>(); // Acessado apenas pela thread de envio
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("dem-ingestion-events").daemon().factory());
+    // Acessado apenas pela thread de envio. Começa no horário de início, para que os IDs continuem crescendo após um reinício
+    private long lastEventId = System.currentTimeMillis();
+
+    private record StreamEvent(long id, IngestionDTO ingestion) {
+    }
+
+    // Conecta um novo cliente. Com lastEventId, os eventos posteriores a ele ainda guardados são reenviados antes dos novos.
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        submit(() -> {
+            try {
+                emitter.send(SseEmitter.event().comment("connected")); // Envia os cabeçalhos da resposta imediatamente
+            } catch (IOException | IllegalStateException e) {
+                return;
+            }
+            if (lastEventId != null) {
+                for (StreamEvent event : recentEvents) {
+                    if (event.id() > lastEventId && !send(emitter, event)) {
+                        return;
+                    }
+                }
+            }
+            emitters.add(emitter);
+        });
+        return emitter;
+    }
+
+    // Envia a atualização a todos os clientes conectados
+    public void publish(IngestionDTO ingestion) {
+        submit(() -> {
+            StreamEvent event = new StreamEvent(++lastEventId, ingestion);
+            recentEvents.addLast(event);
+            if (recentEvents.size() > replaySize) {
+                recentEvents.removeFirst();
+            }
+            for (SseEmitter emitter : emitters) {
+                send(emitter, event);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${dem.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        submit(() -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    disconnect(emitter);
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+
+    // Tarefas recebidas após o encerramento são descartadas, sem afetar quem publicou a atualização
+    private void submit(Runnable task) {
+        try {
+            sender.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Fluxo de eventos de ingestão encerrado; evento descartado.");
+        }
+    }
+
+    // Retorna false se o cliente foi desconectado por falha no envio
+    private boolean send(SseEmitter emitter, StreamEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.id()))
+                    .name(EVENT_NAME)
+                    .data(event.ingestion(), MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            disconnect(emitter);
+            return false;
+        }
+    }
+
+    // Após uma falha no envio a conexão já foi encerrada pelo servidor; o cliente apenas deixa a lista
+    private void disconnect(SseEmitter emitter) {
+        if (emitters.remove(emitter)) {
+            logger.debug("Cliente do fluxo de eventos de ingestão desconectado.");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.es2.dem.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.es2.dem.enums.StorageCompression;
+
+@Component
+public class IngestionFileStore {
+
+// Componente responsável pelos arquivos de ingestão armazenados em dem.storage.base-path.
+// Define os nomes e diretórios dos arquivos brutos e transformados e aplica o codec de armazenamento configurado:
+// os dados transformados são gravados como JSON delimitado por linhas (NDJSON, um país por linha, sem pretty print)
+// e ambos os arquivos podem ser comprimidos com GZIP (dem.storage.compression).
+// A leitura detecta a compressão pelo conteúdo do arquivo, de modo que arquivos antigos (JSON sem compressão)
+// continuam legíveis pelas etapas de transformação e envio.
+
+    private static final DateTimeFormatter fileTimestampFormatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");  // Formato de data e hora para nomes de arquivos
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1f;
+    private static final int GZIP_MAGIC_SECOND_BYTE = 0x8b;
+
+    @Value("${dem.storage.base-path}")   // Caminho base para armazenamento de dados no DEM
+    private String demStorageBasePath;
+
+    @Value("${dem.storage.compression:GZIP}")    // Compressão dos arquivos gravados (NONE ou GZIP)
+    private StorageCompression compression;
+
+    @Value("${dem.storage.io-buffer-size:65536}")   // Tamanho do buffer de leitura/escrita (bytes)
+    private int ioBufferSize;
+
+    // Cria (se necessário) o diretório de dados brutos do provedor e retorna o caminho do novo arquivo bruto.
+    public Path newRawFile(String providerNameForPath, Integer ingestionId) throws IOException {
+        return newFile("raw", providerNameForPath, "raw_ingestion_" + ingestionId, ".json");
+    }
+
+    // Cria (se necessário) o diretório de dados transformados do provedor e retorna o caminho do novo arquivo NDJSON.
+    public Path newTransformedFile(String providerNameForPath, Integer ingestionId) throws IOException {
+        return newFile("transformed", providerNameForPath, "transformed_ingestion_" + ingestionId, ".ndjson");
+    }
+
+    // Cria (se necessário) o diretório de deltas do provedor e retorna o caminho do novo arquivo NDJSON de delta.
+    public Path newDeltaFile(String providerNameForPath, Integer ingestionId) throws IOException {
+        return newFile("delta", providerNameForPath, "delta_ingestion_" + ingestionId, ".ndjson");
+    }
+
+    // Diretório com os índices de fingerprints do provedor (identificado pelo ID no MDM, que não muda com o nome).
+    public Path fingerprintDirectory(Integer mdmProviderId) throws IOException {
+        Path directory = Paths.get(demStorageBasePath, "fingerprints", "provider_" + mdmProviderId);
+        Files.createDirectories(directory);
+        return directory;
+    }
+
+    // Abre um canal de escrita para o arquivo; comprime com GZIP se o nome do arquivo terminar com o sufixo do GZIP.
+    public WritableByteChannel openChannel(Path file) throws IOException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        if (!isGzipFile(file)) {
+            return fileChannel;
+        }
+        return Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(fileChannel), ioBufferSize));
+    }
+
+    // Abre um fluxo de escrita com buffer para o arquivo, com a mesma regra de compressão de openChannel.
+    public OutputStream openOutputStream(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (isGzipFile(file)) {
+            return new GZIPOutputStream(out, ioBufferSize);
+        }
+        return new BufferedOutputStream(out, ioBufferSize);
+    }
+
+    // Abre um fluxo de leitura com buffer, descomprimindo de forma transparente arquivos GZIP (detectados pelo conteúdo).
+    public InputStream openInputStream(Path file) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file), ioBufferSize);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == GZIP_MAGIC_FIRST_BYTE && second == GZIP_MAGIC_SECOND_BYTE) {
+            return new GZIPInputStream(in, ioBufferSize);
+        }
+        return in;
+    }
+
+    private Path newFile(String stage, String providerNameForPath, String prefix, String extension) throws IOException {
+        Path directory = Paths.get(demStorageBasePath, stage, providerNameForPath);
+        Files.createDirectories(directory);
+        String timestamp = LocalDateTime.now().format(fileTimestampFormatter);
+        return directory.resolve(prefix + "_" + timestamp + extension + compression.getFileSuffix());
+    }
+
+    private boolean isGzipFile(Path file) {
+        return file.getFileName().toString().endsWith(StorageCompression.GZIP.getFileSuffix());
+    }
+}
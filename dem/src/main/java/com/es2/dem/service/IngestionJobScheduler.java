@@ -0,0 +1,150 @@
+package com.es2.dem.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.es2.dem.exception.IngestionQueueFullException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class IngestionJobScheduler {
+
+// Agendador dos trabalhos de ingestão do DEM.
+// Mantém uma fila limitada de trabalhos aguardando execução e um conjunto fixo de workers (threads virtuais por padrão)
+// que executam o fluxo de extração, transformação e envio fora da thread da requisição HTTP.
+// Cada provedor possui um limite próprio de trabalhos simultâneos: trabalhos excedentes aguardam na fila do provedor
+// sem ocupar um worker, evitando que um provedor lento bloqueie os demais.
+// Quando a fila atinge a capacidade máxima, novas submissões são rejeitadas com IngestionQueueFullException.
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionJobScheduler.class);
+
+    @Value("${dem.ingestion.workers:4}")    // Número de trabalhos executados em paralelo
+    private int workerCount;
+
+    @Value("${dem.ingestion.queue-capacity:100}")   // Máximo de trabalhos aguardando execução
+    private int queueCapacity;
+
+    @Value("${dem.ingestion.per-provider-limit:1}")     // Máximo de trabalhos simultâneos por provedor
+    private int perProviderLimit;
+
+    @Value("${dem.ingestion.virtual-threads:true}")     // Usa threads virtuais para os workers
+    private boolean useVirtualThreads;
+
+    @Value("${dem.ingestion.retry-after-seconds:30}")   // Valor do cabeçalho Retry-After quando a fila está cheia
+    private int retryAfterSeconds;
+
+    private ExecutorService workers;
+
+    // Estado da fila, protegido pelo monitor deste objeto
+    private final Map<Integer, ProviderLane> lanes = new HashMap<>();
+    private int queuedJobs = 0;
+    private int runningJobs = 0;
+
+    @PostConstruct
+    void start() {
+        ThreadFactory threadFactory = useVirtualThreads
+                ? Thread.ofVirtual().name("dem-ingestion-", 0).factory()
+                : Thread.ofPlatform().name("dem-ingestion-", 0).factory();
+        // A fila do executor não precisa de limite: a admissão é controlada em submit()
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        logger.info("Agendador de ingestão iniciado: {} workers, capacidade da fila {}, limite por provedor {}",
+                workerCount, queueCapacity, perProviderLimit);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Trabalhos de ingestão ainda em execução no encerramento; interrompendo.");
+            workers.shutdownNow();
+        }
+    }
+
+    // Submete um trabalho de ingestão para execução.
+    // Se o provedor ainda não atingiu seu limite de concorrência, o trabalho é enviado aos workers;
+    // caso contrário, aguarda na fila do provedor até que um trabalho do mesmo provedor termine.
+    // Lança IngestionQueueFullException se a fila estiver cheia.
+    public synchronized void submit(Integer ingestionId, Integer providerId, Runnable job) {
+        if (queuedJobs >= queueCapacity) {
+            logger.warn("Fila de ingestão cheia ({} trabalhos). Rejeitando Ingestion ID {}.", queuedJobs, ingestionId);
+            throw new IngestionQueueFullException(
+                    "Fila de ingestão cheia. Tente novamente em " + retryAfterSeconds + " segundos.", retryAfterSeconds);
+        }
+
+        ProviderLane lane = lanes.computeIfAbsent(providerId, id -> new ProviderLane());
+        QueuedJob queuedJob = new QueuedJob(ingestionId, providerId, job);
+        queuedJobs++;
+        if (lane.running < perProviderLimit) {
+            lane.running++;
+            dispatch(queuedJob);
+        } else {
+            lane.waiting.addLast(queuedJob);
+            logger.info("Ingestion ID {} aguardando: provedor {} já possui {} trabalho(s) em execução.",
+                    ingestionId, providerId, lane.running);
+        }
+    }
+
+    public synchronized int getQueuedJobs() {
+        return queuedJobs;
+    }
+
+    public synchronized int getRunningJobs() {
+        return runningJobs;
+    }
+
+    private void dispatch(QueuedJob queuedJob) {
+        workers.execute(() -> run(queuedJob));
+    }
+
+    private void run(QueuedJob queuedJob) {
+        synchronized (this) {
+            queuedJobs--;
+            runningJobs++;
+        }
+        try {
+            queuedJob.job().run();
+        } catch (Exception e) {
+            logger.error("Erro não tratado no trabalho de ingestão {}: ", queuedJob.ingestionId(), e);
+        } finally {
+            release(queuedJob.providerId());
+        }
+    }
+
+    // Libera a vaga do provedor e, se houver trabalhos aguardando para o mesmo provedor, envia o próximo aos workers.
+    private synchronized void release(Integer providerId) {
+        runningJobs--;
+        ProviderLane lane = lanes.get(providerId);
+        QueuedJob next = lane.waiting.pollFirst();
+        if (next != null) {
+            dispatch(next);
+        } else {
+            lane.running--;
+            if (lane.running == 0) {
+                lanes.remove(providerId);
+            }
+        }
+    }
+
+    private static class ProviderLane {
+        private int running = 0;
+        private final Deque<QueuedJob> waiting = new ArrayDeque<>();
+    }
+
+    private record QueuedJob(Integer ingestionId, Integer providerId, Runnable job) {
+    }
+}
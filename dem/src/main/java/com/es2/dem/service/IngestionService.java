@@ -6,34 +6,43 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
-import com.es2.dem.dto.CountryDTO;
-import com.es2.dem.dto.CurrencyDTO;
+import com.es2.dem.dto.IngestionChunkDTO;
 import com.es2.dem.dto.IngestionDTO;
+import com.es2.dem.dto.IngestionFilterDTO;
 import com.es2.dem.dto.IngestionRequestDTO;
 import com.es2.dem.dto.MdmProviderResponseDTO;
+import com.es2.dem.enums.IngestionOutcome;
 import com.es2.dem.enums.IngestionStatus;
+import com.es2.dem.exception.IngestionQueueFullException;
+import com.es2.dem.exception.IngestionStateConflictException;
 import com.es2.dem.model.Ingestion;
+import com.es2.dem.model.IngestionChunk;
+import com.es2.dem.model.ProviderFetchState;
+import com.es2.dem.repository.IngestionChunkRepository;
 import com.es2.dem.repository.IngestionRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.es2.dem.repository.IngestionSummary;
+import com.es2.dem.repository.ProviderFetchStateRepository;
+import com.es2.dem.service.ChunkedMdmDeliveryService.DeliveryResult;
+import com.es2.dem.service.CountryFingerprintIndex.DeltaResult;
+import com.es2.dem.service.CountryMappingRegistry.CompiledMapping;
+import com.es2.dem.service.ProviderDataDownloader.DownloadResult;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -44,36 +53,65 @@ public class IngestionService {
 // Ela lida com a criação de novas solicitações de ingestão, inicia o processo de extração de dados de provedores externos,
 // transforma os dados brutos em um formato adequado e salva os resultados em arquivos.
 // A classe também se comunica com o MDM para obter detalhes do provedor e enviar dados transformados.
-// Ela utiliza o IngestionRepository para acessar o banco de dados e o RestTemplate para fazer chamadas HTTP para APIs externas.
+// Ela utiliza o IngestionRepository para acessar o banco de dados e o MdmProviderClient (com cache) para obter os detalhes do provedor no MDM.
 // A classe é anotada com @Service para indicar que é um componente de serviço Spring.
 
     private static final Logger logger = LoggerFactory.getLogger(IngestionService.class);           // Logger para registrar informações e erros
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;             // Formato de data e hora para timestamps
-    private static final DateTimeFormatter fileTimestampFormatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");  // Formato de data e hora para nomes de arquivos
+    // Campos aceitos na ordenação da listagem paginada
+    private static final Set<String> SORT_FIELDS = Set.of("id", "createdAt", "updatedAt", "status", "mdmProviderId");
 
     private final IngestionRepository ingestionRepository;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper; // ObjectMapper para manipulação de JSON
-
-    @Value("${mdm.api.base-url}")   //URL base da API do MDM, injetada a partir do application.properties
-    private String mdmApiBaseUrl;
-
-    @Value("${dem.storage.base-path}")   // Caminho base para armazenamento de dados no DEM, injetado a partir do application.properties
-    private String demStorageBasePath; 
+    private final IngestionStateTracker ingestionStateTracker; // Estado em memória dos trabalhos em execução
+    private final MdmProviderClient mdmProviderClient; // Detalhes dos provedores no MDM (com cache)
+    private final IngestionJobScheduler jobScheduler; // Agendador que executa os trabalhos de ingestão
+    private final CountryStreamTransformer countryStreamTransformer; // Transformação em streaming dos dados brutos
+    private final ProviderDataDownloader providerDataDownloader; // Download dos dados brutos direto para o disco
+    private final ChunkedMdmDeliveryService chunkedMdmDeliveryService; // Envio em lotes dos dados transformados ao MDM
+    private final IngestionChunkRepository ingestionChunkRepository;
+    private final IngestionFileStore ingestionFileStore; // Arquivos brutos e transformados (nomes e compressão)
+    private final CountryFingerprintIndex countryFingerprintIndex; // Delta em relação à última ingestão concluída do provedor
+    private final ProviderFetchStateRepository providerFetchStateRepository; // Validadores da última busca concluída de cada provedor
+    private final CountryMappingRegistry countryMappingRegistry; // Mapeamentos de campos compilados por provedor
+    private final IngestionEventStream ingestionEventStream; // Fluxo de eventos (SSE) com as atualizações das ingestões
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${dem.delivery.delta-enabled:true}")    // Envia ao MDM apenas o delta (false: envia todos os países)
+    private boolean deltaEnabled;
 
     @Autowired
-    public IngestionService(IngestionRepository ingestionRepository, RestTemplate restTemplate, ObjectMapper objectMapper) { 
+    public IngestionService(IngestionRepository ingestionRepository, IngestionStateTracker ingestionStateTracker,
+                            MdmProviderClient mdmProviderClient, IngestionJobScheduler jobScheduler,
+                            CountryStreamTransformer countryStreamTransformer,
+                            ProviderDataDownloader providerDataDownloader, ChunkedMdmDeliveryService chunkedMdmDeliveryService,
+                            IngestionChunkRepository ingestionChunkRepository, IngestionFileStore ingestionFileStore,
+                            CountryFingerprintIndex countryFingerprintIndex,
+                            ProviderFetchStateRepository providerFetchStateRepository,
+                            CountryMappingRegistry countryMappingRegistry,
+                            IngestionEventStream ingestionEventStream, ApplicationEventPublisher eventPublisher) { 
         this.ingestionRepository = ingestionRepository;
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
+        this.ingestionStateTracker = ingestionStateTracker;
+        this.mdmProviderClient = mdmProviderClient;
+        this.jobScheduler = jobScheduler;
+        this.countryStreamTransformer = countryStreamTransformer;
+        this.providerDataDownloader = providerDataDownloader;
+        this.chunkedMdmDeliveryService = chunkedMdmDeliveryService;
+        this.ingestionChunkRepository = ingestionChunkRepository;
+        this.ingestionFileStore = ingestionFileStore;
+        this.countryFingerprintIndex = countryFingerprintIndex;
+        this.providerFetchStateRepository = providerFetchStateRepository;
+        this.countryMappingRegistry = countryMappingRegistry;
+        this.ingestionEventStream = ingestionEventStream;
+        this.eventPublisher = eventPublisher;
     }
 
 
     // Método para criar uma nova solicitação de ingestão de dados.
     // Ele recebe um IngestionRequestDTO, valida os dados e inicia o processo de extração.
-    // Ele salva a solicitação no banco de dados e inicia o processo de extração de forma assíncrona.
+    // Ele salva a solicitação no banco de dados e submete o processo de extração ao IngestionJobScheduler.
+    // O registro é gravado antes da submissão (sem transação envolvente) para que o worker já o encontre no banco.
+    // Se a fila estiver cheia, o registro é marcado como FAILED e a IngestionQueueFullException é propagada.
     // Retorna um IngestionDTO representando a solicitação criada.
-    @Transactional
     public IngestionDTO createIngestionRequest(IngestionRequestDTO requestDTO) {
         logger.info("Recebida solicitação de ingestão para mdmProviderId: {} e mdmSyncUrl: {}",
                 requestDTO.getMdmProviderId(), requestDTO.getMdmSyncUrl());
@@ -88,21 +126,30 @@ public class IngestionService {
         // Salvar o registro de ingestão no banco de dados
         Ingestion savedIngestion = ingestionRepository.save(newIngestion);
         logger.info("Registro de ingestão criado com ID: {}", savedIngestion.getId());
+        eventPublisher.publishEvent(new IngestionUpdatedEvent(savedIngestion)); // Antes da submissão, para vir antes das atualizações do worker
 
-        // Iniciar o processo de extração de forma assíncrona
-        startExtractionProcess(savedIngestion.getId());
+        // Submete o processo de extração ao agendador de trabalhos (executado fora da thread da requisição)
+        Integer ingestionId = savedIngestion.getId();
+        try {
+            jobScheduler.submit(ingestionId, savedIngestion.getMdmProviderId(), () -> startExtractionProcess(ingestionId));
+        } catch (IngestionQueueFullException e) {
+            savedIngestion.setStatus(IngestionStatus.FAILED);
+            savedIngestion.setStatusMessage("Solicitação rejeitada: " + e.getMessage());
+            ingestionRepository.save(savedIngestion);
+            eventPublisher.publishEvent(new IngestionUpdatedEvent(savedIngestion));
+            throw e;
+        }
 
         return convertToDTO(savedIngestion);
     }
 
-    // Método assíncrono para iniciar o processo de extração de dados.
+    // Método executado por um worker do IngestionJobScheduler para realizar o processo de extração de dados.
     // Ele busca os detalhes do provedor no MDM, extrai dados da fonte externa,
     // salva os dados brutos em um arquivo e chama o método de transformação para processar os dados.
-    // Ele atualiza o status da ingestão conforme o progresso do processo.
-    @Async 
-    // Async para evitar o longo tempo de espera do MDM (pode ocasionar timeouts) e
-    // evitar o bloqueio do thread principal do servidor.
-    public void startExtractionProcess(Integer ingestionId) {
+    // Ele atualiza o status da ingestão conforme o progresso do processo, por meio do IngestionStateTracker
+    // (gravado no banco nas mudanças de status e periodicamente).
+    // Roda fora da thread da requisição, evitando o longo tempo de espera do MDM (pode ocasionar timeouts).
+    void startExtractionProcess(Integer ingestionId) {
         // Verifica se a ID de ingestão é válida
         Ingestion ingestion = ingestionRepository.findById(ingestionId).orElse(null);
         if (ingestion == null) {
@@ -110,159 +157,130 @@ public class IngestionService {
             return;
         }
 
+        ingestion.setStatus(IngestionStatus.PROCESSING);
         ingestion.setStatusMessage("Iniciando processo de extração: buscando detalhes do provedor.");
-        ingestionRepository.save(ingestion);
+        ingestionStateTracker.save(ingestion);
 
         // Variáveis para armazenar a URL da API do provedor e o nome do provedor para o caminho do arquivo
         String providerApiUrl = null;
         String providerNameForPath = "provider_" + ingestion.getMdmProviderId();
 
         try {
-            // Obter Detalhes do Provedor do MDM 
-            String urlToCallMdm = mdmApiBaseUrl + "/providers/" + ingestion.getMdmProviderId();
-            logger.info("Chamando MDM: {}", urlToCallMdm);
-            // Faz a chamada para a API do MDM para obter detalhes do provedor
-            // A resposta deve ser do tipo MdmProviderResponseDTO, que contém a URL da API do provedor
-            ResponseEntity<MdmProviderResponseDTO> mdmResponse = restTemplate.getForEntity(urlToCallMdm, MdmProviderResponseDTO.class);
-
-            if (!mdmResponse.getStatusCode().is2xxSuccessful() || mdmResponse.getBody() == null) {
-                throw new RestClientException("Falha ao obter detalhes do provedor do MDM: " + mdmResponse.getStatusCode());
-            }
-            
+            // Obter Detalhes do Provedor do MDM (do cache do MdmProviderClient, quando válido)
+            // A resposta é um MdmProviderResponseDTO, que contém a URL da API do provedor
+            MdmProviderResponseDTO provider = mdmProviderClient.getProvider(ingestion.getMdmProviderId());
+
             // Extrai a URL da API do provedor e o nome para o caminho do arquivo
-            providerApiUrl = mdmResponse.getBody().getApiUrl();
-            if (mdmResponse.getBody().getName() != null && !mdmResponse.getBody().getName().isBlank()) {
-                providerNameForPath = mdmResponse.getBody().getName().replaceAll("\\s+", "_").toLowerCase();
+            providerApiUrl = provider.getApiUrl();
+            if (provider.getName() != null && !provider.getName().isBlank()) {
+                providerNameForPath = provider.getName().replaceAll("\\s+", "_").toLowerCase();
             }
             if (providerApiUrl == null || providerApiUrl.isBlank()) {
                 throw new RuntimeException("API URL do provedor não fornecida pelo MDM.");
             }
+            // Mapeamento de campos do provedor (compilado uma vez e reutilizado); um mapeamento inválido falha antes do download
+            CompiledMapping mapping = countryMappingRegistry.getMapping(ingestion.getMdmProviderId(), provider.getFieldMappings());
+            ingestion.setMappingHash(mapping.hash());
             // Atualiza o status da ingestão com a mensagem de sucesso
             ingestion.setStatusMessage("Detalhes do provedor obtidos. Buscando dados da fonte externa...");
-            ingestionRepository.save(ingestion);
+            ingestionStateTracker.save(ingestion);
 
-            //Extrair Dados da Fonte Externa:
-            logger.info("Buscando dados de: {}", providerApiUrl);
-            // Faz a chamada para a API externa para obter os dados brutos
-            // A resposta deve ser uma lista de países em formato JSON
-            ResponseEntity<String> externalApiResponse = restTemplate.getForEntity(providerApiUrl + "/all", String.class);
+            // Define o arquivo de dados brutos com base no ID de ingestão e timestamp (cria o diretório, se não existir)
+            Path rawFilePath = ingestionFileStore.newRawFile(providerNameForPath, ingestionId);
+
+            // Estado da última ingestão concluída do provedor; os validadores só são enviados se a URL e o mapeamento
+            // de campos forem os mesmos (com outro mapeamento, os mesmos dados brutos geram outros dados transformados)
+            String sourceUrl = providerApiUrl + "/all";
+            ProviderFetchState fetchState = providerFetchStateRepository.findById(ingestion.getMdmProviderId())
+                    .filter(state -> sourceUrl.equals(state.getApiUrl()) && mapping.hash().equals(state.getMappingHash()))
+                    .orElse(null);
 
-            if (!externalApiResponse.getStatusCode().is2xxSuccessful() || externalApiResponse.getBody() == null) {
-                throw new RestClientException("Falha ao buscar dados da fonte externa: " + externalApiResponse.getStatusCode());
+            //Extrair Dados da Fonte Externa:
+            logger.info("Buscando dados de: {}", sourceUrl);
+            // Faz a chamada (condicional) para a API externa e grava a resposta (lista de países em JSON)
+            // diretamente no arquivo de dados brutos, sem carregá-la em memória
+            DownloadResult download = providerDataDownloader.downloadToFile(sourceUrl, rawFilePath,
+                    fetchState != null ? fetchState.getEtag() : null,
+                    fetchState != null ? fetchState.getLastModified() : null);
+
+            // Conteúdo inalterado desde a última ingestão concluída: conclui sem transformar nem enviar ao MDM
+            if (download.notModified()) {
+                if (fetchState == null) {
+                    throw new RestClientException("Provedor respondeu 304 Not Modified a uma busca não condicional.");
+                }
+                completeUnchanged(ingestion, fetchState, "Provedor respondeu 304 Not Modified");
+                return;
+            }
+            if (fetchState != null && download.contentHash().equals(fetchState.getContentHash())) {
+                Files.deleteIfExists(rawFilePath); // Cópia idêntica do arquivo bruto anterior
+                // Mesmo conteúdo da última ingestão concluída: os novos validadores substituem os anteriores,
+                // permitindo que a próxima busca já receba 304
+                fetchState.setEtag(download.etag());
+                fetchState.setLastModified(download.lastModified());
+                providerFetchStateRepository.save(fetchState);
+                completeUnchanged(ingestion, fetchState, "Conteúdo bruto idêntico ao da última ingestão concluída");
+                return;
             }
+            logger.info("Dados brutos salvos em: {} ({} bytes)", rawFilePath.toString(), download.bytes());
 
-            // Atualiza o status da ingestão com a mensagem de sucesso
-            String rawData = externalApiResponse.getBody();
-            ingestion.setStatusMessage("Dados brutos obtidos. Salvando...");
-            ingestionRepository.save(ingestion);
-
-            // Salvar Dados Brutos em Arquivo:
-            String timestamp = LocalDateTime.now().format(fileTimestampFormatter);
-            // Cria o diretório para armazenar os dados brutos, se não existir
-            Path rawDataDirectory = Paths.get(demStorageBasePath, "raw", providerNameForPath);
-            Files.createDirectories(rawDataDirectory);
-
-            // Define o nome do arquivo com base no ID de ingestão e timestamp
-            String rawFileName = "raw_ingestion_" + ingestionId + "_" + timestamp + ".json";
-            Path rawFilePath = rawDataDirectory.resolve(rawFileName);
-            Files.writeString(rawFilePath, rawData);
-            logger.info("Dados brutos salvos em: {}", rawFilePath.toString());
-
-            // Atualiza o registro de ingestão com o caminho dos dados brutos e mensagem de status
+            // Atualiza o registro de ingestão com o caminho dos dados brutos, os validadores da resposta e mensagem de status
             ingestion.setRawDataPath(rawFilePath.toString());
+            ingestion.setRawDataBytes(download.bytes());
+            ingestion.setSourceUrl(sourceUrl);
+            ingestion.setRawContentHash(download.contentHash());
+            ingestion.setSourceEtag(download.etag());
+            ingestion.setSourceLastModified(download.lastModified());
             ingestion.setStatusMessage("Dados brutos salvos. Iniciando transformação.");
-            ingestionRepository.save(ingestion);
+            ingestionStateTracker.save(ingestion);
 
             // Chama o método para transformar os dados brutos e salvá-los
-            transformAndSaveData(ingestion, providerNameForPath);
+            transformAndSaveData(ingestion, providerNameForPath, mapping.mapper());
 
         } catch (Exception e) { 
             logger.error("Falha no processo de extração para Ingestion ID {}: ", ingestionId, e);
             if (ingestion != null) {
                 ingestion.setStatus(IngestionStatus.FAILED);
                 ingestion.setStatusMessage("Falha na extração: " + e.getMessage());
-                ingestionRepository.save(ingestion);
+                ingestionStateTracker.save(ingestion);
             }
         }
     }
 
 
+    // Conclui a ingestão sem transformação nem envio ao MDM, pois os dados do provedor não mudaram
+    // desde a última ingestão concluída. O arquivo bruto de referência é o da ingestão anterior.
+    private void completeUnchanged(Ingestion ingestion, ProviderFetchState fetchState, String reason) {
+        logger.info("Ingestion ID {}: {}. Nada a transformar ou enviar ao MDM.", ingestion.getId(), reason);
+        ingestion.setRawDataPath(fetchState.getRawDataPath());
+        ingestion.setRawContentHash(fetchState.getContentHash());
+        ingestion.setStatus(IngestionStatus.COMPLETED);
+        ingestion.setOutcome(IngestionOutcome.UNCHANGED);
+        ingestion.setStatusMessage(reason + " (Ingestion ID " + fetchState.getLastIngestionId()
+                + "); nada transformado ou enviado ao MDM.");
+        ingestionStateTracker.save(ingestion);
+    }
+
     // Transforma os dados brutos obtidos da fonte externa em um formato adequado
     // e salva os dados transformados em um arquivo.
+    // A transformação é feita em streaming pelo CountryStreamTransformer (um país por vez, convertido pelo mapper do provedor),
+    // sem manter a lista completa de países em memória.
     // Ele atualiza o status da ingestão para READY após a transformação.
     // O método também lida com erros de I/O e outros erros durante o processo de transformação.
-    private void transformAndSaveData(Ingestion ingestion, String providerNameForPath) {
+    private void transformAndSaveData(Ingestion ingestion, String providerNameForPath, CountryRecordMapper mapper) {
         logger.info("Iniciando transformação para Ingestion ID: {}. Lendo de: {}", ingestion.getId(), ingestion.getRawDataPath());
         ingestion.setStatusMessage("Transformando dados..."); 
-        ingestionRepository.save(ingestion);
+        ingestionStateTracker.save(ingestion);
 
-        List<CountryDTO> transformedCountriesList = new ArrayList<>(); 
+        int transformedCount = 0;
+        Path transformedFilePath = null;
 
         try {   
-            // Usa o ObjectMapper para ler o conteúdo JSON do arquivo
-            String rawJsonContent = Files.readString(Paths.get(ingestion.getRawDataPath()));
-
-            // Converte o conteúdo JSON em uma lista de mapas (cada mapa representa um país)
-            // Usando TypeReference para mapear o JSON para uma lista de mapas
-            // A lista de mapas contém os dados brutos dos países, que serão transformados em CountryDTO
-            List<Map<String, Object>> rawCountriesData = objectMapper.readValue(rawJsonContent,
-                    new TypeReference<List<Map<String, Object>>>() {});
-
-            // Transformar Dados Brutos em CountryDTO
-            for (Map<String, Object> rawCountryMap : rawCountriesData) {
-                JsonNode rawCountryNode = objectMapper.convertValue(rawCountryMap, JsonNode.class);
-                CountryDTO mdmCountryDTO = new CountryDTO(); 
-
-                // Preencher os campos do CountryDTO com os dados do rawCountryNode
-                if (rawCountryNode.hasNonNull("name") && rawCountryNode.get("name").hasNonNull("common")) {
-                    mdmCountryDTO.setCountryName(rawCountryNode.get("name").get("common").asText());
-                }
-                if (rawCountryNode.hasNonNull("ccn3")) {
-                    try {
-                        // Tenta converter o código numérico para Integer
-                        mdmCountryDTO.setNumericCode(Integer.parseInt(rawCountryNode.get("ccn3").asText()));
-                    } catch (NumberFormatException e) {
-                        logger.warn("Skipping numericCode for country '{}': ccn3 '{}' is not a valid integer.",
-                                mdmCountryDTO.getCountryName(), rawCountryNode.get("ccn3").asText());
-                    }
-                }
-                if (rawCountryNode.hasNonNull("capital") && rawCountryNode.get("capital").isArray() && !rawCountryNode.get("capital").isEmpty()) {
-                    mdmCountryDTO.setCapitalCity(rawCountryNode.get("capital").get(0).asText());
-                }
-                if (rawCountryNode.hasNonNull("population")) {
-                    mdmCountryDTO.setPopulation(rawCountryNode.get("population").asInt());
-                }
-                if (rawCountryNode.hasNonNull("area")) {
-                    mdmCountryDTO.setArea(rawCountryNode.get("area").floatValue());
-                }
-            
-                if (rawCountryNode.hasNonNull("currencies") && rawCountryNode.get("currencies").isObject()) {
-                    List<CurrencyDTO> currencyDTOs = new ArrayList<>();
-                    Iterator<Map.Entry<String, JsonNode>> currenciesIterator = rawCountryNode.get("currencies").fields();
-                    while (currenciesIterator.hasNext()) {
-                        Map.Entry<String, JsonNode> entry = currenciesIterator.next();
-                        CurrencyDTO currencyDTO = new CurrencyDTO();
-                        currencyDTO.setCurrencyCode(entry.getKey());
-                        JsonNode currencyDetails = entry.getValue();
-                        if (currencyDetails.hasNonNull("name")) currencyDTO.setCurrencyName(currencyDetails.get("name").asText());
-                        if (currencyDetails.hasNonNull("symbol")) currencyDTO.setCurrencySymbol(currencyDetails.get("symbol").asText());
-                        currencyDTOs.add(currencyDTO);
-                    }
-                    mdmCountryDTO.setCurrencies(currencyDTOs);
-                }
-                transformedCountriesList.add(mdmCountryDTO);
-            }
-            logger.info("{} países transformados para Ingestion ID: {}", transformedCountriesList.size(), ingestion.getId());
+            // Define o arquivo de dados transformados com nome baseado no ID de ingestão e timestamp
+            transformedFilePath = ingestionFileStore.newTransformedFile(providerNameForPath, ingestion.getId());
 
-            // Salvar dados transformados em arquivo com nome baseado no ID de ingestão e timestamp
-            String timestamp = LocalDateTime.now().format(fileTimestampFormatter);
-            Path transformedDataDirectory = Paths.get(demStorageBasePath, "transformed", providerNameForPath);
-            Files.createDirectories(transformedDataDirectory);
-            String transformedFileName = "transformed_ingestion_" + ingestion.getId() + "_" + timestamp + ".json";
-            Path transformedFilePath = transformedDataDirectory.resolve(transformedFileName);
-
-            // Escreve a lista de CountryDTO transformados no arquivo JSON
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(transformedFilePath.toFile(), transformedCountriesList);
+            // Lê os dados brutos e escreve os CountryDTOs transformados incrementalmente no arquivo
+            transformedCount = countryStreamTransformer.transform(Paths.get(ingestion.getRawDataPath()), transformedFilePath, mapper);
+            logger.info("{} países transformados para Ingestion ID: {}", transformedCount, ingestion.getId());
             logger.info("Dados transformados salvos em: {}", transformedFilePath.toString());
 
             // Atualiza o registro de ingestão com o caminho dos dados transformados e status
@@ -279,67 +297,252 @@ public class IngestionService {
             ingestion.setStatus(IngestionStatus.FAILED);
             ingestion.setStatusMessage("Erro inesperado na transformação: " + e.getMessage());
         }
-        ingestionRepository.save(ingestion);
-
-        // Se a transformação foi bem-sucedida, chama o método para enviar os dados ao MDM
-        // O envio só deve ocorrer se a transformação resultou em uma lista não vazia de CountryDTO
-        if (ingestion.getStatus() == IngestionStatus.READY && transformedCountriesList != null && !transformedCountriesList.isEmpty()) {
-            logger.info("Ingestion ID {}: Dados prontos. Tentando enviar para MDM na URL: {}", ingestion.getId(), ingestion.getMdmSyncUrl());
-            ingestion.setStatus(IngestionStatus.PROCESSING); 
-            ingestion.setStatusMessage("Enviando dados para o MDM...");
-            ingestionRepository.save(ingestion);
-
-            try {
-                // Chamada POST para enviar os dados transformados ao MDM
-                // A URL de callback do MDM é obtida do registro de ingestão
-                ResponseEntity<String> mdmResponse = restTemplate.postForEntity(
-                        ingestion.getMdmSyncUrl(),          // A URL de callback do MDM
-                        transformedCountriesList,           // O corpo da requisição
-                        String.class);         // O tipo esperado da resposta do MDM
-
-                // Verifica se a resposta do MDM foi bem-sucedida
-                if (mdmResponse.getStatusCode().is2xxSuccessful()) {
-                    logger.info("MDM processou os dados com sucesso para Ingestion ID: {}. Resposta: {}", ingestion.getId(), mdmResponse.getBody());
-                    ingestion.setStatus(IngestionStatus.COMPLETED);
-                    ingestion.setStatusMessage("Dados enviados e processados com sucesso pelo MDM.");
-                } else {
-                    // Se o MDM retornou um erro, atualiza o status da ingestão para FAILED
-                    logger.error("MDM retornou erro para Ingestion ID: {}. Status: {}, Body: {}",
-                                 ingestion.getId(), mdmResponse.getStatusCode(), mdmResponse.getBody());
-                    ingestion.setStatus(IngestionStatus.FAILED);
-                    ingestion.setStatusMessage("Falha ao sincronizar com MDM: " + mdmResponse.getStatusCode() + " - " + mdmResponse.getBody());
-                }
-            } catch (RestClientException e) { // Erros de comunicação com o MDM
-                logger.error("Erro de comunicação ao enviar dados para MDM (Ingestion ID {}): ", ingestion.getId(), e);
-                ingestion.setStatus(IngestionStatus.FAILED);
-                ingestion.setStatusMessage("Erro de comunicação ao enviar para MDM: " + e.getMessage());
+        ingestionStateTracker.save(ingestion);
+
+        // Se a transformação foi bem-sucedida, calcula o delta e chama o método para enviar os dados ao MDM
+        // O envio só deve ocorrer se a transformação resultou em pelo menos um CountryDTO
+        if (ingestion.getStatus() == IngestionStatus.READY && transformedCount > 0) {
+            ingestion.setChunkSize(chunkedMdmDeliveryService.getChunkSize());
+            if (computeDelta(ingestion, providerNameForPath)) {
+                deliverToMdm(ingestion);
             }
-            ingestionRepository.save(ingestion); // Salva o status final (COMPLETED ou FAILED)
             
         // Se a transformação resultou em uma lista vazia, atualiza o status da ingestão para FAILED
-        } else if (ingestion.getStatus() == IngestionStatus.READY && (transformedCountriesList == null || transformedCountriesList.isEmpty())) {
+        } else if (ingestion.getStatus() == IngestionStatus.READY) {
             logger.warn("Ingestion ID {}: Nenhum dado transformado para enviar ao MDM.", ingestion.getId());
             ingestion.setStatus(IngestionStatus.FAILED); 
             ingestion.setStatusMessage("Transformação resultou em lista vazia, nada a enviar.");
-            ingestionRepository.save(ingestion);
+            ingestionStateTracker.save(ingestion);
+        }
+    }
+
+    // Compara os dados transformados com o índice de fingerprints da última ingestão concluída do provedor,
+    // grava o arquivo de delta e registra as contagens na ingestão.
+    // Retorna true se há dados a enviar ao MDM; se nada mudou, conclui a ingestão sem envio e retorna false.
+    // Com dem.delivery.delta-enabled=false as contagens são registradas, mas o arquivo transformado completo é enviado.
+    private boolean computeDelta(Ingestion ingestion, String providerNameForPath) {
+        try {
+            Path deltaFilePath = ingestionFileStore.newDeltaFile(providerNameForPath, ingestion.getId());
+            DeltaResult delta = countryFingerprintIndex.computeDelta(ingestion.getMdmProviderId(), ingestion.getId(),
+                    ingestion.getMappingHash(), Paths.get(ingestion.getTransformedDataPath()), deltaFilePath);
+            ingestion.setNewRecords(delta.newRecords());
+            ingestion.setChangedRecords(delta.changedRecords());
+            ingestion.setUnchangedRecords(delta.unchangedRecords());
+            ingestion.setDeletedRecords(delta.deletedRecords());
+            if (deltaEnabled) {
+                ingestion.setDeltaDataPath(deltaFilePath.toString());
+            }
+        } catch (IOException e) {
+            logger.error("Erro de I/O ao calcular o delta para Ingestion ID {}: ", ingestion.getId(), e);
+            ingestion.setStatus(IngestionStatus.FAILED);
+            ingestion.setStatusMessage("Erro ao calcular o delta dos dados transformados: " + e.getMessage());
+            ingestionStateTracker.save(ingestion);
+            return false;
+        }
+
+        if (deltaEnabled && ingestion.getNewRecords() == 0 && ingestion.getChangedRecords() == 0
+                && ingestion.getDeletedRecords() == 0) {
+            logger.info("Ingestion ID {}: nenhuma alteração desde a última ingestão concluída. Nada a enviar ao MDM.", ingestion.getId());
+            ingestion.setTotalChunks(0);
+            ingestion.setAcknowledgedChunks(0);
+            ingestion.setStatus(IngestionStatus.COMPLETED);
+            ingestion.setOutcome(IngestionOutcome.NO_DELTA);
+            ingestion.setStatusMessage("Nenhuma alteração desde a última ingestão concluída; nada enviado ao MDM.");
+            recordCompletedState(ingestion);
+            ingestionStateTracker.save(ingestion);
+            return false;
+        }
+        ingestionStateTracker.save(ingestion);
+        return true;
+    }
+
+    // Após uma ingestão concluída, o índice calculado para ela passa a ser a base do próximo delta do provedor
+    // e os validadores da resposta (ETag, Last-Modified e hash do conteúdo) passam a ser usados na próxima busca.
+    // Uma falha no índice não invalida a ingestão: o próximo delta apenas será calculado sobre um índice mais antigo.
+    private void recordCompletedState(Ingestion ingestion) {
+        ProviderFetchState fetchState = providerFetchStateRepository.findById(ingestion.getMdmProviderId())
+                .orElseGet(() -> new ProviderFetchState(ingestion.getMdmProviderId()));
+        fetchState.setApiUrl(ingestion.getSourceUrl());
+        fetchState.setEtag(ingestion.getSourceEtag());
+        fetchState.setLastModified(ingestion.getSourceLastModified());
+        fetchState.setContentHash(ingestion.getRawContentHash());
+        fetchState.setMappingHash(ingestion.getMappingHash());
+        fetchState.setRawDataPath(ingestion.getRawDataPath());
+        fetchState.setLastIngestionId(ingestion.getId());
+        providerFetchStateRepository.save(fetchState);
+
+        try {
+            countryFingerprintIndex.promote(ingestion.getMdmProviderId(), ingestion.getId());
+        } catch (IOException e) {
+            logger.warn("Não foi possível atualizar o índice de fingerprints do provedor {} (Ingestion ID {}): {}",
+                    ingestion.getMdmProviderId(), ingestion.getId(), e.getMessage());
+        }
+    }
+
+    // Envia os dados ao MDM em lotes, por meio do ChunkedMdmDeliveryService.
+    // Se houver arquivo de delta, envia apenas os países novos e alterados (UPSERT) e, em seguida, os removidos (DELETE);
+    // caso contrário, envia o arquivo transformado completo.
+    // Lotes já confirmados em envios anteriores da mesma ingestão não são reenviados.
+    // Atualiza os contadores de lotes da ingestão e o status final (COMPLETED ou FAILED).
+    private void deliverToMdm(Ingestion ingestion) {
+        logger.info("Ingestion ID {}: Dados prontos. Tentando enviar para MDM na URL: {}", ingestion.getId(), ingestion.getMdmSyncUrl());
+        ingestion.setStatus(IngestionStatus.PROCESSING); 
+        ingestion.setStatusMessage("Enviando dados para o MDM em lotes de " + ingestion.getChunkSize() + " países...");
+        ingestionStateTracker.save(ingestion);
+
+        try {
+            DeliveryResult result;
+            if (ingestion.getDeltaDataPath() != null) {
+                result = chunkedMdmDeliveryService.deliver(ingestion.getId(), ingestion.getMdmProviderId(),
+                        ingestion.getMdmSyncUrl(), Paths.get(ingestion.getDeltaDataPath()), ingestion.getChunkSize(),
+                        ingestion.getNewRecords() + ingestion.getChangedRecords());
+            } else {
+                result = chunkedMdmDeliveryService.deliver(ingestion.getId(), ingestion.getMdmProviderId(),
+                        ingestion.getMdmSyncUrl(), Paths.get(ingestion.getTransformedDataPath()), ingestion.getChunkSize(),
+                        Integer.MAX_VALUE);
+            }
+            ingestion.setTotalChunks(result.totalChunks());
+            ingestion.setAcknowledgedChunks(result.acknowledgedChunks());
+            ingestion.setLastAcknowledgedChunk(result.lastAcknowledgedChunk());
+
+            // Verifica se todos os lotes foram aplicados pelo MDM sem falhas; só então os fingerprints são promovidos
+            if (result.isComplete()) {
+                logger.info("MDM aplicou os dados para Ingestion ID: {} ({} lotes).", ingestion.getId(), result.totalChunks());
+                ingestion.setStatus(IngestionStatus.COMPLETED);
+                ingestion.setOutcome(IngestionOutcome.SYNCED);
+                ingestion.setStatusMessage("Dados enviados e aplicados pelo MDM em " + result.totalChunks() + " lote(s).");
+                recordCompletedState(ingestion);
+            } else {
+                // Se algum lote não foi confirmado, a ingestão fica FAILED e pode ser retomada a partir dos lotes pendentes
+                logger.error("Envio incompleto para MDM na Ingestion ID: {}. {} de {} lotes confirmados.",
+                             ingestion.getId(), result.acknowledgedChunks(), result.totalChunks());
+                ingestion.setStatus(IngestionStatus.FAILED);
+                ingestion.setStatusMessage("Falha ao sincronizar com MDM: " + result.acknowledgedChunks() + " de "
+                        + result.totalChunks() + " lote(s) confirmados (" + result.failedChunks()
+                        + " com falha). O envio pode ser retomado a partir dos lotes pendentes.");
+            }
+        } catch (IOException e) { // Erros de I/O ao ler o arquivo transformado
+            logger.error("Erro de I/O ao enviar dados para MDM (Ingestion ID {}): ", ingestion.getId(), e);
+            ingestion.setStatus(IngestionStatus.FAILED);
+            ingestion.setStatusMessage("Erro ao ler arquivo transformado durante envio ao MDM: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ingestion.setStatus(IngestionStatus.FAILED);
+            ingestion.setStatusMessage("Envio ao MDM interrompido.");
         }
+        ingestionStateTracker.save(ingestion); // Salva o status final (COMPLETED ou FAILED)
+    }
+
+    // Retoma o envio ao MDM de uma ingestão que falhou durante a entrega dos lotes.
+    // Apenas ingestões FAILED com dados transformados podem ser retomadas; somente os lotes não confirmados são reenviados.
+    // A transição FAILED -> PENDING é feita por um UPDATE condicional: entre requisições simultâneas, apenas uma a
+    // realiza e agenda a retomada; as demais recebem 409.
+    // O reenvio é executado pelo IngestionJobScheduler, como um novo trabalho.
+    public IngestionDTO resumeDelivery(Integer id) {
+        Ingestion ingestion = ingestionRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Ingestion job not found with id: " + id));
+        if (ingestion.getStatus() != IngestionStatus.FAILED || ingestion.getTransformedDataPath() == null
+                || ingestion.getChunkSize() == null) {
+            throw new IngestionStateConflictException("Ingestion job " + id + " não pode ser retomado: apenas ingestões com falha no envio ao MDM podem ser retomadas.");
+        }
+
+        String statusMessage = "Retomada do envio ao MDM solicitada a partir do lote " + nextChunk(ingestion) + ".";
+        if (ingestionRepository.updateStatusIf(id, IngestionStatus.FAILED, IngestionStatus.PENDING, statusMessage,
+                LocalDateTime.now()) == 0) {
+            throw new IngestionStateConflictException("Ingestion job " + id + " não pode ser retomado: o status foi alterado por outra requisição.");
+        }
+        Ingestion savedIngestion = ingestionRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Ingestion job not found with id: " + id));
+        eventPublisher.publishEvent(new IngestionUpdatedEvent(savedIngestion));
+        try {
+            jobScheduler.submit(id, savedIngestion.getMdmProviderId(), () -> resumeDeliveryJob(id));
+        } catch (IngestionQueueFullException e) {
+            savedIngestion.setStatus(IngestionStatus.FAILED);
+            savedIngestion.setStatusMessage("Retomada rejeitada: " + e.getMessage());
+            ingestionRepository.save(savedIngestion);
+            eventPublisher.publishEvent(new IngestionUpdatedEvent(savedIngestion));
+            throw e;
+        }
+        return convertToDTO(savedIngestion);
+    }
+
+    // Trabalho de retomada executado por um worker do IngestionJobScheduler.
+    void resumeDeliveryJob(Integer ingestionId) {
+        Ingestion ingestion = ingestionRepository.findById(ingestionId).orElse(null);
+        if (ingestion == null) {
+            logger.error("Ingestion ID {} não encontrado para retomar envio.", ingestionId);
+            return;
+        }
+        deliverToMdm(ingestion);
+    }
+
+    private int nextChunk(Ingestion ingestion) {
+        return ingestion.getLastAcknowledgedChunk() != null ? ingestion.getLastAcknowledgedChunk() + 1 : 0;
+    }
+
+    // Lista o status de envio de cada lote de uma ingestão.
+    @Transactional(readOnly = true)
+    public List<IngestionChunkDTO> getIngestionChunks(Integer id) {
+        if (!ingestionRepository.existsById(id)) {
+            throw new EntityNotFoundException("Ingestion job not found with id: " + id);
+        }
+        return ingestionChunkRepository.findByIngestionIdOrderByChunkIndexAsc(id).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
     }
 
     // Métodos padrões para obter informações e conversão de entidades
+    // Ingestões em execução são lidas do IngestionStateTracker, que tem o estado mais recente (inclusive ainda não gravado).
     @Transactional(readOnly = true)
     public IngestionDTO getIngestionById(Integer id) {
-        Ingestion ingestion = ingestionRepository.findById(id)
+        Ingestion ingestion = ingestionStateTracker.getLive(id)
+                .or(() -> ingestionRepository.findById(id))
                 .orElseThrow(() -> new EntityNotFoundException("Ingestion job not found with id: " + id));
         return convertToDTO(ingestion);
     }
 
+    // Página de ingestões que atendem aos filtros, sem a mensagem de status (coluna LOB, lida apenas em getIngestionById).
+    // Os contadores das ingestões em execução vêm do IngestionStateTracker; o status já está gravado (mudanças de status
+    // são gravadas na hora), de modo que o filtro por status é consistente com o que é retornado.
+    // Lança IllegalArgumentException se a ordenação usar um campo não suportado ou se um filtro for inválido.
     @Transactional(readOnly = true)
-    public List<IngestionDTO> getAllIngestions() {
-        return ingestionRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public Page<IngestionDTO> getIngestions(IngestionFilterDTO filter, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORT_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Campo de ordenação não suportado: '" + order.getProperty()
+                        + "'. Campos válidos: " + SORT_FIELDS);
+            }
+        }
+        IngestionStatus status = null;
+        if (filter.getStatus() != null && !filter.getStatus().isBlank()) {
+            try {
+                status = IngestionStatus.valueOf(filter.getStatus().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Status de ingestão inválido: " + filter.getStatus());
+            }
+        }
+        if (filter.getCreatedFrom() != null && filter.getCreatedTo() != null
+                && filter.getCreatedFrom().isAfter(filter.getCreatedTo())) {
+            throw new IllegalArgumentException("createdFrom não pode ser posterior a createdTo.");
+        }
+        return ingestionRepository.findSummaries(status, filter.getMdmProviderId(),
+                        filter.getCreatedFrom(), filter.getCreatedTo(), pageable)
+                .map(summary -> ingestionStateTracker.getLive(summary.id())
+                        .map(this::convertToDTO)
+                        .map(dto -> {
+                            dto.setStatusMessage(null);
+                            return dto;
+                        })
+                        .orElseGet(() -> convertToDTO(summary)));
     }
     
+    // Envia cada atualização de ingestão aos clientes do fluxo de eventos.
+    // Executado na thread que publicou o evento; o envio em si é feito pela thread do IngestionEventStream.
+    @EventListener
+    public void onIngestionUpdated(IngestionUpdatedEvent event) {
+        ingestionEventStream.publish(convertToDTO(event.ingestion()));
+    }
+
     private IngestionDTO convertToDTO(Ingestion ingestion) {
         IngestionDTO dto = new IngestionDTO();
         dto.setId(ingestion.getId());
@@ -347,8 +550,20 @@ public class IngestionService {
         if (ingestion.getStatus() != null) {
             dto.setStatus(ingestion.getStatus().name()); 
         }
+        if (ingestion.getOutcome() != null) {
+            dto.setOutcome(ingestion.getOutcome().name());
+        }
         dto.setRawDataPath(ingestion.getRawDataPath());
+        dto.setRawDataBytes(ingestion.getRawDataBytes());
         dto.setTransformedDataPath(ingestion.getTransformedDataPath());
+        dto.setDeltaDataPath(ingestion.getDeltaDataPath());
+        dto.setTotalChunks(ingestion.getTotalChunks());
+        dto.setAcknowledgedChunks(ingestion.getAcknowledgedChunks());
+        dto.setLastAcknowledgedChunk(ingestion.getLastAcknowledgedChunk());
+        dto.setNewRecords(ingestion.getNewRecords());
+        dto.setChangedRecords(ingestion.getChangedRecords());
+        dto.setUnchangedRecords(ingestion.getUnchangedRecords());
+        dto.setDeletedRecords(ingestion.getDeletedRecords());
         dto.setStatusMessage(ingestion.getStatusMessage());
         if (ingestion.getCreatedAt() != null) {
             dto.setCreatedAt(ingestion.getCreatedAt().format(formatter));
@@ -359,19 +574,48 @@ public class IngestionService {
         return dto;
     }
 
-    private Ingestion convertToEntity(IngestionDTO dto) {
-        Ingestion ingestion = new Ingestion();
-        ingestion.setMdmProviderId(dto.getMdmProviderId());
-        if (dto.getStatus() != null && !dto.getStatus().isBlank()) {
-            try {
-                ingestion.setStatus(IngestionStatus.valueOf(dto.getStatus().toUpperCase()));
-            } catch (IllegalArgumentException e) {
-                logger.warn("Status inválido '{}' no DTO para Ingestion ID {}. Status não será definido pelo DTO.", dto.getStatus(), dto.getId());
-            }
+    private IngestionDTO convertToDTO(IngestionSummary summary) {
+        IngestionDTO dto = new IngestionDTO();
+        dto.setId(summary.id());
+        dto.setMdmProviderId(summary.mdmProviderId());
+        if (summary.status() != null) {
+            dto.setStatus(summary.status().name());
+        }
+        if (summary.outcome() != null) {
+            dto.setOutcome(summary.outcome().name());
+        }
+        dto.setRawDataPath(summary.rawDataPath());
+        dto.setRawDataBytes(summary.rawDataBytes());
+        dto.setTransformedDataPath(summary.transformedDataPath());
+        dto.setDeltaDataPath(summary.deltaDataPath());
+        dto.setTotalChunks(summary.totalChunks());
+        dto.setAcknowledgedChunks(summary.acknowledgedChunks());
+        dto.setLastAcknowledgedChunk(summary.lastAcknowledgedChunk());
+        dto.setNewRecords(summary.newRecords());
+        dto.setChangedRecords(summary.changedRecords());
+        dto.setUnchangedRecords(summary.unchangedRecords());
+        dto.setDeletedRecords(summary.deletedRecords());
+        if (summary.createdAt() != null) {
+            dto.setCreatedAt(summary.createdAt().format(formatter));
+        }
+        if (summary.updatedAt() != null) {
+            dto.setUpdatedAt(summary.updatedAt().format(formatter));
         }
-        ingestion.setRawDataPath(dto.getRawDataPath());
-        ingestion.setTransformedDataPath(dto.getTransformedDataPath());
-        ingestion.setStatusMessage(dto.getStatusMessage());
-        return ingestion;
+        return dto;
+    }
+
+    private IngestionChunkDTO convertToDTO(IngestionChunk chunk) {
+        IngestionChunkDTO dto = new IngestionChunkDTO();
+        dto.setChunkIndex(chunk.getChunkIndex());
+        dto.setRecordCount(chunk.getRecordCount());
+        if (chunk.getStatus() != null) {
+            dto.setStatus(chunk.getStatus().name());
+        }
+        dto.setAttempts(chunk.getAttempts());
+        dto.setLastError(chunk.getLastError());
+        if (chunk.getUpdatedAt() != null) {
+            dto.setUpdatedAt(chunk.getUpdatedAt().format(formatter));
+        }
+        return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.es2.dem.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.es2.dem.enums.IngestionStatus;
+import com.es2.dem.model.Ingestion;
+import com.es2.dem.repository.IngestionRepository;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class IngestionStateTracker {
+
+// Componente que mantém em memória o estado dos trabalhos de ingestão em execução.
+// Os workers registram cada atualização (status, mensagens, contadores) por meio de save(); o estado mais recente
+// fica disponível imediatamente para as consultas de status, mas só é gravado na tabela ingestion quando o status muda
+// (PENDING -> PROCESSING -> READY -> COMPLETED/FAILED) ou periodicamente (dem.ingestion.status-flush-ms),
+// em vez de uma gravação a cada mensagem de progresso.
+// Ao atingir COMPLETED ou FAILED, o trabalho é gravado e deixa de ser acompanhado em memória.
+// Cada atualização registrada é publicada como IngestionUpdatedEvent (fluxo de eventos de ingestão).
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionStateTracker.class);
+
+    private final IngestionRepository ingestionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Integer, LiveJob> liveJobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IngestionStateTracker(IngestionRepository ingestionRepository, ApplicationEventPublisher eventPublisher) {
+        this.ingestionRepository = ingestionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Registra o estado atual da ingestão. Uma cópia é guardada, de modo que o worker pode continuar alterando a entidade.
+    // Mudanças de status são gravadas imediatamente; as demais ficam pendentes até a próxima gravação periódica.
+    public void save(Ingestion ingestion) {
+        Ingestion snapshot = new Ingestion(ingestion);
+        snapshot.setUpdatedAt(LocalDateTime.now());
+        LiveJob job = liveJobs.computeIfAbsent(ingestion.getId(), id -> new LiveJob());
+        boolean finished;
+        synchronized (job) {
+            job.latest = snapshot;
+            job.pendingChanges = true;
+            if (snapshot.getStatus() != job.persistedStatus) {
+                flush(job);
+            }
+            finished = isFinished(snapshot.getStatus()) && !job.pendingChanges;
+        }
+        if (finished) {
+            liveJobs.remove(ingestion.getId(), job);
+        }
+        eventPublisher.publishEvent(new IngestionUpdatedEvent(snapshot));
+    }
+
+    // Estado mais recente de uma ingestão em execução, se estiver sendo acompanhada.
+    public Optional<Ingestion> getLive(Integer ingestionId) {
+        LiveJob job = liveJobs.get(ingestionId);
+        if (job == null) {
+            return Optional.empty();
+        }
+        synchronized (job) {
+            return Optional.ofNullable(job.latest);
+        }
+    }
+
+    public int getLiveJobCount() {
+        return liveJobs.size();
+    }
+
+    // Grava as alterações pendentes de todos os trabalhos em execução.
+    @Scheduled(fixedDelayString = "${dem.ingestion.status-flush-ms:2000}")
+    public void flushPending() {
+        for (LiveJob job : liveJobs.values()) {
+            synchronized (job) {
+                if (job.pendingChanges) {
+                    flush(job);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushPending();
+    }
+
+    // Deve ser chamado com o monitor do trabalho. Em caso de falha, as alterações continuam pendentes.
+    private void flush(LiveJob job) {
+        try {
+            ingestionRepository.save(job.latest);
+            job.persistedStatus = job.latest.getStatus();
+            job.pendingChanges = false;
+        } catch (RuntimeException e) {
+            logger.error("Falha ao gravar o estado da Ingestion ID {}: {}", job.latest.getId(), e.getMessage());
+        }
+    }
+
+    private boolean isFinished(IngestionStatus status) {
+        return status == IngestionStatus.COMPLETED || status == IngestionStatus.FAILED;
+    }
+
+    // Estado de um trabalho em execução, protegido pelo monitor do próprio objeto
+    private static class LiveJob {
+        private Ingestion latest;
+        private IngestionStatus persistedStatus;
+        private boolean pendingChanges = false;
+    }
+}
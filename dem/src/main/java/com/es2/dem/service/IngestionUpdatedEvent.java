@@ -0,0 +1,9 @@
+package com.es2.dem.service;
+
+import com.es2.dem.model.Ingestion;
+
+// Evento publicado a cada atualização de um trabalho de ingestão (criação, mudança de status ou progresso),
+// pelo IngestionStateTracker e pelo IngestionService. A ingestão é uma cópia do estado naquele momento.
+// O IngestionService o converte em IngestionDTO e o envia aos clientes do IngestionEventStream.
+public record IngestionUpdatedEvent(Ingestion ingestion) {
+}
@@ -0,0 +1,163 @@
+package com.es2.dem.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.es2.dem.dto.CountryDTO;
+import com.es2.dem.dto.CurrencyDTO;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+public final class JsonPointerCountryMapper implements CountryRecordMapper {
+
+// Conversor de registros brutos em CountryDTO definido por um mapeamento campo de destino -> expressão JSON Pointer (RFC 6901).
+// As expressões são compiladas uma única vez (compile) em JsonPointers reutilizáveis; a conversão de cada registro
+// se resume a uma navegação por ponteiro para cada campo mapeado.
+// Campos de país: countryName, numericCode, capitalCity, population, area e currencies (objeto ou array de moedas).
+// Campos de moeda, relativos a cada moeda: currencies.currencyCode, currencies.currencyName e currencies.currencySymbol.
+// currencies.currencyCode aceita o valor especial "@key", que usa a chave da moeda quando currencies é um objeto.
+// Campos sem mapeamento ficam nulos.
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonPointerCountryMapper.class);
+
+    public static final String COUNTRY_NAME = "countryName";
+    public static final String NUMERIC_CODE = "numericCode";
+    public static final String CAPITAL_CITY = "capitalCity";
+    public static final String POPULATION = "population";
+    public static final String AREA = "area";
+    public static final String CURRENCIES = "currencies";
+    public static final String CURRENCY_CODE = "currencies.currencyCode";
+    public static final String CURRENCY_NAME = "currencies.currencyName";
+    public static final String CURRENCY_SYMBOL = "currencies.currencySymbol";
+    public static final String KEY_EXPRESSION = "@key"; // Chave do campo no objeto de moedas
+
+    private static final List<String> TARGET_FIELDS = List.of(COUNTRY_NAME, NUMERIC_CODE, CAPITAL_CITY, POPULATION, AREA,
+            CURRENCIES, CURRENCY_CODE, CURRENCY_NAME, CURRENCY_SYMBOL);
+
+    private final JsonPointer countryName;
+    private final JsonPointer numericCode;
+    private final JsonPointer capitalCity;
+    private final JsonPointer population;
+    private final JsonPointer area;
+    private final JsonPointer currencies;
+    private final JsonPointer currencyCode;
+    private final boolean currencyCodeFromKey;
+    private final JsonPointer currencyName;
+    private final JsonPointer currencySymbol;
+
+    private JsonPointerCountryMapper(Map<String, String> mappings) {
+        this.countryName = pointer(mappings, COUNTRY_NAME);
+        this.numericCode = pointer(mappings, NUMERIC_CODE);
+        this.capitalCity = pointer(mappings, CAPITAL_CITY);
+        this.population = pointer(mappings, POPULATION);
+        this.area = pointer(mappings, AREA);
+        this.currencies = pointer(mappings, CURRENCIES);
+        this.currencyCodeFromKey = KEY_EXPRESSION.equals(mappings.get(CURRENCY_CODE));
+        this.currencyCode = currencyCodeFromKey ? null : pointer(mappings, CURRENCY_CODE);
+        this.currencyName = pointer(mappings, CURRENCY_NAME);
+        this.currencySymbol = pointer(mappings, CURRENCY_SYMBOL);
+    }
+
+    // Valida e compila o mapeamento.
+    // Lança IllegalArgumentException se houver um campo de destino desconhecido ou uma expressão JSON Pointer inválida.
+    public static JsonPointerCountryMapper compile(Map<String, String> mappings) {
+        for (String target : mappings.keySet()) {
+            if (!TARGET_FIELDS.contains(target)) {
+                throw new IllegalArgumentException("Campo de destino desconhecido no mapeamento: '" + target
+                        + "'. Campos válidos: " + TARGET_FIELDS);
+            }
+        }
+        return new JsonPointerCountryMapper(mappings);
+    }
+
+    @Override
+    public CountryDTO map(JsonNode rawRecord) {
+        CountryDTO country = new CountryDTO();
+        country.setCountryName(text(rawRecord, countryName));
+        country.setCapitalCity(text(rawRecord, capitalCity));
+
+        String numericCodeText = text(rawRecord, numericCode);
+        if (numericCodeText != null) {
+            try {
+                // Tenta converter o código numérico para Integer
+                country.setNumericCode(Integer.parseInt(numericCodeText));
+            } catch (NumberFormatException e) {
+                logger.warn("Skipping numericCode for country '{}': value '{}' is not a valid integer.",
+                        country.getCountryName(), numericCodeText);
+            }
+        }
+
+        JsonNode populationNode = value(rawRecord, population);
+        if (populationNode != null) {
+            country.setPopulation(populationNode.asInt());
+        }
+        JsonNode areaNode = value(rawRecord, area);
+        if (areaNode != null) {
+            country.setArea(areaNode.isNumber() ? areaNode.floatValue() : (float) areaNode.asDouble());
+        }
+
+        JsonNode currenciesNode = value(rawRecord, currencies);
+        if (currenciesNode != null && currenciesNode.isContainerNode()) {
+            country.setCurrencies(toCurrencies(currenciesNode));
+        }
+        return country;
+    }
+
+    // Converte as moedas do registro: em um objeto, cada campo é uma moeda (a chave pode ser o código);
+    // em um array, cada elemento é uma moeda.
+    private List<CurrencyDTO> toCurrencies(JsonNode currenciesNode) {
+        List<CurrencyDTO> currencyDTOs = new ArrayList<>(currenciesNode.size());
+        if (currenciesNode.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = currenciesNode.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> entry = fields.next();
+                currencyDTOs.add(toCurrency(entry.getKey(), entry.getValue()));
+            }
+        } else {
+            for (JsonNode currencyNode : currenciesNode) {
+                currencyDTOs.add(toCurrency(null, currencyNode));
+            }
+        }
+        return currencyDTOs;
+    }
+
+    private CurrencyDTO toCurrency(String key, JsonNode currencyNode) {
+        CurrencyDTO currency = new CurrencyDTO();
+        currency.setCurrencyCode(currencyCodeFromKey ? key : text(currencyNode, currencyCode));
+        currency.setCurrencyName(text(currencyNode, currencyName));
+        currency.setCurrencySymbol(text(currencyNode, currencySymbol));
+        return currency;
+    }
+
+    // Nó apontado pela expressão, ou null se o campo não estiver mapeado, não existir ou for nulo no registro
+    private static JsonNode value(JsonNode node, JsonPointer pointer) {
+        if (pointer == null) {
+            return null;
+        }
+        JsonNode value = node.at(pointer);
+        return value.isMissingNode() || value.isNull() ? null : value;
+    }
+
+    private static String text(JsonNode node, JsonPointer pointer) {
+        JsonNode value = value(node, pointer);
+        return value != null && value.isValueNode() ? value.asText() : null;
+    }
+
+    private static JsonPointer pointer(Map<String, String> mappings, String target) {
+        String expression = mappings.get(target);
+        if (expression == null) {
+            return null;
+        }
+        try {
+            return JsonPointer.compile(expression);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Expressão JSON Pointer inválida para '" + target + "': '"
+                    + expression + "' (" + e.getMessage() + ")", e);
+        }
+    }
+}
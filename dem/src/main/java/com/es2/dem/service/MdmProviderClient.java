@@ -0,0 +1,178 @@
+package com.es2.dem.service;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.es2.dem.dto.MdmProviderResponseDTO;
+
+@Component
+public class MdmProviderClient {
+
+// Cliente responsável por obter os detalhes de um provedor no MDM (GET {mdm.api.base-url}/providers/{id}).
+// Mantém um cache limitado (dem.provider-cache.max-entries, removendo o menos usado) com validade de
+// dem.provider-cache.ttl-seconds. Chamadas simultâneas para o mesmo provedor compartilham uma única requisição ao MDM,
+// de modo que uma rajada de ingestões do mesmo provedor não sobrecarrega o MDM.
+// Se o MDM estiver indisponível, o valor expirado ainda é usado por até dem.provider-cache.stale-if-error-seconds.
+// O MDM invalida as entradas quando um provedor é alterado ou excluído (ver ProviderCacheController).
+
+    private static final Logger logger = LoggerFactory.getLogger(MdmProviderClient.class);
+
+    private final RestTemplate restTemplate;
+    private final Clock clock;
+
+    @Value("${mdm.api.base-url}")   //URL base da API do MDM, injetada a partir do application.properties
+    private String mdmApiBaseUrl;
+
+    @Value("${dem.provider-cache.ttl-seconds:60}")    // Validade de uma entrada do cache
+    private long ttlSeconds;
+
+    @Value("${dem.provider-cache.stale-if-error-seconds:300}")    // Tempo adicional de uso de uma entrada expirada se o MDM falhar
+    private long staleIfErrorSeconds;
+
+    @Value("${dem.provider-cache.max-entries:256}")     // Máximo de provedores no cache
+    private int maxEntries;
+
+    // Cache em ordem de acesso, protegido pelo monitor do próprio mapa
+    private final Map<Integer, CachedProvider> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long invalidations = 0; // Incrementado a cada invalidação; evita gravar no cache uma busca iniciada antes dela
+
+    // Requisições ao MDM em andamento, por provedor
+    private final Map<Integer, CompletableFuture<MdmProviderResponseDTO>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MdmProviderClient(RestTemplate restTemplate) {
+        this(restTemplate, Clock.systemUTC());
+    }
+
+    // Permite controlar a passagem do tempo nos testes de validade do cache
+    MdmProviderClient(RestTemplate restTemplate, Clock clock) {
+        this.restTemplate = restTemplate;
+        this.clock = clock;
+    }
+
+    // Retorna os detalhes do provedor, do cache quando válido ou do MDM.
+    // Lança HttpClientErrorException.NotFound se o provedor não existir no MDM
+    // e RestClientException em outras falhas sem valor em cache utilizável.
+    public MdmProviderResponseDTO getProvider(Integer providerId) {
+        CachedProvider cached = getCached(providerId);
+        if (cached != null && ageMillis(cached) < ttlSeconds * 1000) {
+            return cached.provider();
+        }
+
+        CompletableFuture<MdmProviderResponseDTO> request = new CompletableFuture<>();
+        CompletableFuture<MdmProviderResponseDTO> existing = inFlight.putIfAbsent(providerId, request);
+        if (existing != null) {
+            return join(existing); // Outra thread já está buscando este provedor
+        }
+
+        long invalidationsAtStart = getInvalidations();
+        try {
+            MdmProviderResponseDTO provider = fetch(providerId);
+            put(providerId, provider, invalidationsAtStart);
+            request.complete(provider);
+            return provider;
+        } catch (HttpClientErrorException.NotFound e) {
+            invalidate(providerId);
+            request.completeExceptionally(e);
+            throw e;
+        } catch (RestClientException e) {
+            if (cached != null && ageMillis(cached) < (ttlSeconds + staleIfErrorSeconds) * 1000) {
+                logger.warn("Falha ao consultar o provedor {} no MDM ({}). Usando dados em cache de {} s atrás.",
+                        providerId, e.getMessage(), ageMillis(cached) / 1000);
+                request.complete(cached.provider());
+                return cached.provider();
+            }
+            request.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            request.completeExceptionally(e); // Libera as threads que aguardam esta busca
+            throw e;
+        } finally {
+            inFlight.remove(providerId, request);
+        }
+    }
+
+    // Remove o provedor do cache; a próxima ingestão buscará os dados atualizados no MDM.
+    public void invalidate(Integer providerId) {
+        synchronized (cache) {
+            cache.remove(providerId);
+            invalidations++;
+        }
+        logger.info("Cache do provedor {} invalidado.", providerId);
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+            invalidations++;
+        }
+        logger.info("Cache de provedores invalidado.");
+    }
+
+    private MdmProviderResponseDTO fetch(Integer providerId) {
+        String urlToCallMdm = mdmApiBaseUrl + "/providers/" + providerId;
+        logger.info("Chamando MDM: {}", urlToCallMdm);
+        ResponseEntity<MdmProviderResponseDTO> mdmResponse = restTemplate.getForEntity(urlToCallMdm, MdmProviderResponseDTO.class);
+        if (!mdmResponse.getStatusCode().is2xxSuccessful() || mdmResponse.getBody() == null) {
+            throw new RestClientException("Falha ao obter detalhes do provedor do MDM: " + mdmResponse.getStatusCode());
+        }
+        return mdmResponse.getBody();
+    }
+
+    private CachedProvider getCached(Integer providerId) {
+        synchronized (cache) {
+            return cache.get(providerId);
+        }
+    }
+
+    private long getInvalidations() {
+        synchronized (cache) {
+            return invalidations;
+        }
+    }
+
+    private void put(Integer providerId, MdmProviderResponseDTO provider, long invalidationsAtStart) {
+        synchronized (cache) {
+            if (invalidations != invalidationsAtStart) {
+                return; // Houve invalidação durante a busca: o valor pode estar desatualizado
+            }
+            cache.put(providerId, new CachedProvider(provider, clock.millis()));
+            if (cache.size() > maxEntries) {
+                Integer eldest = cache.keySet().iterator().next();
+                cache.remove(eldest);
+            }
+        }
+    }
+
+    private MdmProviderResponseDTO join(CompletableFuture<MdmProviderResponseDTO> request) {
+        try {
+            return request.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private long ageMillis(CachedProvider cached) {
+        return clock.millis() - cached.fetchedAtMillis();
+    }
+
+    private record CachedProvider(MdmProviderResponseDTO provider, long fetchedAtMillis) {
+    }
+}
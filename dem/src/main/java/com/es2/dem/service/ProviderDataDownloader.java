@@ -0,0 +1,151 @@
+package com.es2.dem.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+@Component
+public class ProviderDataDownloader {
+
+// Componente responsável por baixar os dados brutos de um provedor externo diretamente para o disco.
+// O corpo da resposta HTTP é lido por um ResponseExtractor e copiado para o canal do arquivo (FileChannel,
+// comprimido ou não conforme o IngestionFileStore) usando um buffer de tamanho fixo,
+// sem nunca materializar o conteúdo completo em memória.
+// A busca pode ser condicional (If-None-Match / If-Modified-Since): se o provedor responder 304 Not Modified,
+// nenhum arquivo é gravado. Durante a cópia é calculado o hash SHA-256 do conteúdo bruto, usado para detectar
+// conteúdo inalterado em provedores que não suportam esses cabeçalhos.
+// Se o download falhar no meio da cópia, o arquivo parcial é removido.
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderDataDownloader.class);
+
+    private final RestTemplate restTemplate;
+    private final IngestionFileStore ingestionFileStore;
+
+    @Value("${dem.storage.download-buffer-size:65536}")  // Tamanho do buffer de cópia (bytes)
+    private int downloadBufferSize;
+
+    @Autowired
+    public ProviderDataDownloader(RestTemplate restTemplate, IngestionFileStore ingestionFileStore) {
+        this.restTemplate = restTemplate;
+        this.ingestionFileStore = ingestionFileStore;
+    }
+
+    // Faz um GET na URL informada e grava o corpo da resposta no arquivo de destino.
+    // ifNoneMatch e ifModifiedSince (opcionais) são os validadores da última busca concluída do provedor.
+    // Retorna o resultado do download: bytes transferidos pela rede (antes de uma eventual compressão), hash do conteúdo
+    // e os validadores da resposta, ou um resultado "não modificado" se o provedor responder 304.
+    // Lança RestClientException em falhas HTTP e IOException em falhas de escrita; em ambos os casos o arquivo parcial é removido.
+    public DownloadResult downloadToFile(String url, Path targetFile, String ifNoneMatch, String ifModifiedSince)
+            throws IOException {
+        try {
+            return download(url, targetFile, ifNoneMatch, ifModifiedSince);
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (Files.deleteIfExists(targetFile)) {
+                    logger.warn("Download de {} interrompido. Arquivo parcial {} removido.", url, targetFile);
+                }
+            } catch (IOException deleteException) {
+                e.addSuppressed(deleteException);
+            }
+            throw e;
+        }
+    }
+
+    private DownloadResult download(String url, Path targetFile, String ifNoneMatch, String ifModifiedSince)
+            throws IOException {
+        RequestCallback conditionalHeaders = request -> {
+            if (ifNoneMatch != null) {
+                request.getHeaders().set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
+            if (ifModifiedSince != null) {
+                request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, ifModifiedSince);
+            }
+        };
+
+        DownloadResult result;
+        try {
+            result = restTemplate.execute(url, HttpMethod.GET, conditionalHeaders, response -> {
+                HttpHeaders headers = response.getHeaders();
+                if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    return DownloadResult.notModified(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+                }
+                MessageDigest digest = newDigest();
+                try (ReadableByteChannel source = Channels.newChannel(response.getBody());
+                     WritableByteChannel target = ingestionFileStore.openChannel(targetFile)) {
+                    long bytes = copy(source, target, digest);
+                    return new DownloadResult(false, bytes, HexFormat.of().formatHex(digest.digest()),
+                            headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED));
+                }
+            });
+        } catch (RestClientException e) {
+            // Falhas de I/O no ResponseExtractor chegam encapsuladas; propaga a causa original
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+
+        if (result == null) {
+            throw new RestClientException("Resposta vazia ao buscar dados de: " + url);
+        }
+        if (result.notModified()) {
+            logger.info("Provedor respondeu 304 Not Modified para {}", url);
+        } else {
+            logger.info("{} bytes baixados de {} para {}", result.bytes(), url, targetFile);
+        }
+        return result;
+    }
+
+    // Copia o conteúdo do canal de origem para o arquivo usando um buffer direto de tamanho fixo,
+    // atualizando o hash com os bytes copiados.
+    private long copy(ReadableByteChannel source, WritableByteChannel target, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(downloadBufferSize);
+        long total = 0;
+        while (source.read(buffer) != -1) {
+            buffer.flip();
+            total += buffer.remaining();
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            buffer.clear();
+        }
+        return total;
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+    }
+
+    // Resultado de um download: se o provedor respondeu 304, bytes transferidos, hash SHA-256 (hexadecimal)
+    // do conteúdo bruto e os validadores ETag / Last-Modified da resposta (podem ser nulos).
+    public record DownloadResult(boolean notModified, long bytes, String contentHash, String etag, String lastModified) {
+
+        static DownloadResult notModified(String etag, String lastModified) {
+            return new DownloadResult(true, 0, null, etag, lastModified);
+        }
+    }
+}
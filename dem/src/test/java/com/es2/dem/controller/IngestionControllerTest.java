@@ -0,0 +1,101 @@
+package com.es2.dem.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.es2.dem.dto.IngestionDTO;
+import com.es2.dem.dto.IngestionFilterDTO;
+import com.es2.dem.exception.GlobalExceptionHandler;
+import com.es2.dem.service.IngestionEventStream;
+import com.es2.dem.service.IngestionService;
+
+// Listagem paginada de ingestões (GET /dem/api/ingestion): filtros e paginação recebidos pelos parâmetros,
+// totais nos cabeçalhos e 400 para filtros inválidos.
+class IngestionControllerTest {
+
+    private IngestionService ingestionService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ingestionService = mock(IngestionService.class);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new IngestionController(ingestionService, mock(IngestionEventStream.class)))
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void filtersAndPageAreForwardedAndTotalsReturnedInHeaders() throws Exception {
+        IngestionDTO ingestion = new IngestionDTO();
+        ingestion.setId(7);
+        ingestion.setStatus("COMPLETED");
+        when(ingestionService.getIngestions(any(), any()))
+                .thenReturn(new PageImpl<>(List.of(ingestion), PageRequest.of(1, 20), 41));
+
+        mockMvc.perform(get("/dem/api/ingestion")
+                        .param("status", "completed")
+                        .param("mdmProviderId", "3")
+                        .param("createdFrom", "2025-01-01T00:00:00")
+                        .param("createdTo", "2025-01-31T23:59:59")
+                        .param("page", "1")
+                        .param("size", "20")
+                        .param("sort", "updatedAt,asc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "41"))
+                .andExpect(header().string("X-Total-Pages", "3"))
+                .andExpect(jsonPath("$[0].id").value(7));
+
+        ArgumentCaptor<IngestionFilterDTO> filter = ArgumentCaptor.forClass(IngestionFilterDTO.class);
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(ingestionService).getIngestions(filter.capture(), pageable.capture());
+        assertThat(filter.getValue().getStatus()).isEqualTo("completed");
+        assertThat(filter.getValue().getMdmProviderId()).isEqualTo(3);
+        assertThat(filter.getValue().getCreatedFrom()).isEqualTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+        assertThat(filter.getValue().getCreatedTo()).isEqualTo(LocalDateTime.of(2025, 1, 31, 23, 59, 59));
+        assertThat(pageable.getValue()).isEqualTo(PageRequest.of(1, 20, Sort.by("updatedAt")));
+    }
+
+    @Test
+    void defaultPageListsTheNewestIngestionsFirst() throws Exception {
+        when(ingestionService.getIngestions(any(), any())).thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get("/dem/api/ingestion")).andExpect(status().isOk());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(ingestionService).getIngestions(any(), pageable.capture());
+        assertThat(pageable.getValue())
+                .isEqualTo(PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "createdAt", "id")));
+    }
+
+    @Test
+    void invalidFilterIsRejectedWithBadRequest() throws Exception {
+        when(ingestionService.getIngestions(any(), any()))
+                .thenThrow(new IllegalArgumentException("Status de ingestão inválido: desconhecido"));
+
+        mockMvc.perform(get("/dem/api/ingestion").param("status", "desconhecido"))
+                .andExpect(status().isBadRequest());
+    }
+}
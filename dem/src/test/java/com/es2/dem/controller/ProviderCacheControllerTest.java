@@ -0,0 +1,81 @@
+package com.es2.dem.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestTemplate;
+
+import com.es2.dem.dto.MdmProviderResponseDTO;
+import com.es2.dem.service.MdmProviderClient;
+
+// Invalidação do cache de provedores pelo MDM através de DELETE /dem/api/providers/{id}/cache.
+class ProviderCacheControllerTest {
+
+    private static final String PROVIDER_URL = "http://mdm.test/api/providers/1";
+
+    private RestTemplate restTemplate;
+    private MdmProviderClient client;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        client = new MdmProviderClient(restTemplate);
+        ReflectionTestUtils.setField(client, "mdmApiBaseUrl", "http://mdm.test/api");
+        ReflectionTestUtils.setField(client, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(client, "staleIfErrorSeconds", 300L);
+        ReflectionTestUtils.setField(client, "maxEntries", 16);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProviderCacheController(client)).build();
+
+        when(restTemplate.getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A")))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A alterado")));
+    }
+
+    @Test
+    void deletingTheProviderCacheForcesANewFetch() throws Exception {
+        client.getProvider(1);
+
+        mockMvc.perform(delete("/dem/api/providers/1/cache")).andExpect(status().isNoContent());
+
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A alterado");
+        verify(restTemplate, times(2)).getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class);
+    }
+
+    @Test
+    void deletingAnotherProviderCacheKeepsTheCachedValue() throws Exception {
+        client.getProvider(1);
+
+        mockMvc.perform(delete("/dem/api/providers/2/cache")).andExpect(status().isNoContent());
+
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A");
+        verify(restTemplate, times(1)).getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class);
+    }
+
+    @Test
+    void deletingAllCachesForcesANewFetch() throws Exception {
+        client.getProvider(1);
+
+        mockMvc.perform(delete("/dem/api/providers/cache")).andExpect(status().isNoContent());
+
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A alterado");
+    }
+
+    private static MdmProviderResponseDTO provider(String name) {
+        MdmProviderResponseDTO provider = new MdmProviderResponseDTO();
+        provider.setId(1);
+        provider.setName(name);
+        return provider;
+    }
+}
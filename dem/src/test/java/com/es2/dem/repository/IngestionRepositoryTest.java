@@ -0,0 +1,132 @@
+package com.es2.dem.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.es2.dem.enums.IngestionStatus;
+import com.es2.dem.model.Ingestion;
+
+// Transição condicional de status usada na retomada do envio (FAILED -> PENDING) e listagem paginada com filtros.
+// Sem a transação do teste, para que as atualizações concorrentes vejam o registro gravado.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IngestionRepositoryTest {
+
+    @Autowired
+    private IngestionRepository ingestionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        ingestionRepository.deleteAll();
+    }
+
+    @Test
+    void updateStatusIfChangesOnlyFromTheExpectedStatus() {
+        Integer id = ingestionRepository.saveAndFlush(new Ingestion(1, IngestionStatus.FAILED, "http://mdm/callback")).getId();
+
+        assertThat(ingestionRepository.updateStatusIf(id, IngestionStatus.FAILED, IngestionStatus.PENDING,
+                "Retomada", LocalDateTime.now())).isEqualTo(1);
+        assertThat(ingestionRepository.updateStatusIf(id, IngestionStatus.FAILED, IngestionStatus.PENDING,
+                "Retomada", LocalDateTime.now())).isZero();
+
+        Ingestion ingestion = ingestionRepository.findById(id).orElseThrow();
+        assertThat(ingestion.getStatus()).isEqualTo(IngestionStatus.PENDING);
+        assertThat(ingestion.getStatusMessage()).isEqualTo("Retomada");
+    }
+
+    @Test
+    void concurrentTransitionsSucceedOnlyOnce() throws Exception {
+        Integer id = ingestionRepository.saveAndFlush(new Ingestion(1, IngestionStatus.FAILED, "http://mdm/callback")).getId();
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(requests)) {
+            for (int i = 0; i < requests; i++) {
+                Callable<Integer> resume = () -> {
+                    start.await();
+                    return ingestionRepository.updateStatusIf(id, IngestionStatus.FAILED, IngestionStatus.PENDING,
+                            "Retomada", LocalDateTime.now());
+                };
+                results.add(executor.submit(resume));
+            }
+            start.countDown();
+            int updated = 0;
+            for (Future<Integer> result : results) {
+                updated += result.get();
+            }
+            assertThat(updated).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void summariesCombineTheGivenFilters() {
+        Integer january = ingestion(1, IngestionStatus.COMPLETED, LocalDateTime.of(2025, 1, 1, 0, 0));
+        ingestion(1, IngestionStatus.FAILED, LocalDateTime.of(2025, 1, 5, 0, 0));
+        ingestion(2, IngestionStatus.COMPLETED, LocalDateTime.of(2025, 1, 10, 0, 0));
+        Integer february = ingestion(1, IngestionStatus.COMPLETED, LocalDateTime.of(2025, 2, 1, 0, 0));
+
+        Page<IngestionSummary> page = ingestionRepository.findSummaries(IngestionStatus.COMPLETED, 1, null, null,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertThat(page.getContent()).extracting(IngestionSummary::id).containsExactly(february, january);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void createdRangeIncludesItsLimits() {
+        Integer first = ingestion(1, IngestionStatus.COMPLETED, LocalDateTime.of(2025, 1, 1, 0, 0));
+        Integer second = ingestion(1, IngestionStatus.FAILED, LocalDateTime.of(2025, 1, 5, 0, 0));
+        Integer third = ingestion(2, IngestionStatus.COMPLETED, LocalDateTime.of(2025, 1, 10, 0, 0));
+        ingestion(1, IngestionStatus.COMPLETED, LocalDateTime.of(2025, 2, 1, 0, 0));
+
+        Page<IngestionSummary> page = ingestionRepository.findSummaries(null, null,
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 10, 0, 0),
+                PageRequest.of(0, 10, Sort.by("createdAt")));
+
+        assertThat(page.getContent()).extracting(IngestionSummary::id).containsExactly(first, second, third);
+    }
+
+    @Test
+    void summariesArePagedWithTheTotal() {
+        for (int day = 1; day <= 5; day++) {
+            ingestion(1, IngestionStatus.COMPLETED, LocalDateTime.of(2025, 1, day, 0, 0));
+        }
+
+        Page<IngestionSummary> page = ingestionRepository.findSummaries(null, 1, null, null,
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertThat(page.getContent()).extracting(IngestionSummary::createdAt)
+                .containsExactly(LocalDateTime.of(2025, 1, 3, 0, 0), LocalDateTime.of(2025, 1, 2, 0, 0));
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+    }
+
+    // Grava uma ingestão com a data de criação informada (o @CreationTimestamp usa o horário atual)
+    private Integer ingestion(Integer mdmProviderId, IngestionStatus status, LocalDateTime createdAt) {
+        Integer id = ingestionRepository.saveAndFlush(new Ingestion(mdmProviderId, status, "http://mdm/callback")).getId();
+        jdbcTemplate.update("UPDATE ingestion SET created_at = ? WHERE id = ?", createdAt, id);
+        return id;
+    }
+}
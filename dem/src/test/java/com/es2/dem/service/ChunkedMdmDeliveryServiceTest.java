@@ -0,0 +1,346 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import com.es2.dem.enums.ChunkStatus;
+import com.es2.dem.enums.WireFormat;
+import com.es2.dem.model.IngestionChunk;
+import com.es2.dem.repository.IngestionChunkRepository;
+import com.es2.dem.service.ChunkedMdmDeliveryService.DeliveryResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Envio em lotes ao callback do MDM contra um servidor simulado (MockRestServiceServer):
+// confirmação somente após a aplicação no MDM, retomada dos lotes pendentes e troca de formato após 415.
+class ChunkedMdmDeliveryServiceTest {
+
+    private static final String CALLBACK_URL = "http://mdm.test/countries/callback";
+    private static final Integer INGESTION_ID = 7;
+    private static final Integer PROVIDER_ID = 3;
+
+    @TempDir
+    Path tempDir;
+
+    private MockRestServiceServer server;
+    private IngestionChunkRepository chunkRepository;
+    private ChunkedMdmDeliveryService deliveryService;
+    private final List<ChunkStatus> savedStatuses = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        chunkRepository = mock(IngestionChunkRepository.class);
+        when(chunkRepository.save(any(IngestionChunk.class))).thenAnswer(invocation -> {
+            IngestionChunk chunk = invocation.getArgument(0);
+            synchronized (savedStatuses) {
+                savedStatuses.add(chunk.getStatus());
+            }
+            return chunk;
+        });
+        when(chunkRepository.findByIngestionIdOrderByChunkIndexAsc(INGESTION_ID)).thenReturn(List.of());
+
+        IngestionFileStore fileStore = new IngestionFileStore();
+        ReflectionTestUtils.setField(fileStore, "ioBufferSize", 8192);
+        deliveryService = new ChunkedMdmDeliveryService(restTemplate, new ObjectMapper(),
+                chunkRepository, fileStore);
+        ReflectionTestUtils.setField(deliveryService, "maxInFlight", 1); // Um lote por vez: ordem previsível das requisições
+        ReflectionTestUtils.setField(deliveryService, "maxAttempts", 2);
+        ReflectionTestUtils.setField(deliveryService, "retryBackoffMs", 0L);
+        ReflectionTestUtils.setField(deliveryService, "statusPollMs", 0L);
+        ReflectionTestUtils.setField(deliveryService, "applyTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(deliveryService, "wireFormat", WireFormat.JSON);
+    }
+
+    @Test
+    void chunkIsAcknowledgedOnlyAfterMdmFinishesApplyingIt() throws Exception {
+        Path file = countriesFile(2);
+        expectAccepted(0, 100);
+        expectStatus(100, "QUEUED");
+        expectStatus(100, "PROCESSING");
+        expectStatus(100, "COMPLETED");
+
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE);
+
+        server.verify();
+        assertThat(result.isComplete()).isTrue();
+        assertThat(savedStatuses).containsSubsequence(ChunkStatus.SENDING, ChunkStatus.APPLYING, ChunkStatus.ACKNOWLEDGED);
+    }
+
+    @Test
+    void chunkAppliedWithErrorsIsRetriedAndThenFails() throws Exception {
+        Path file = countriesFile(2);
+        server.expect(ExpectedCount.times(2), requestTo(CALLBACK_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/100")));
+        server.expect(ExpectedCount.times(2), requestTo(CALLBACK_URL + "/100"))
+                .andRespond(withSuccess(statusJson(100, "COMPLETED_WITH_ERRORS"), MediaType.APPLICATION_JSON));
+
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE);
+
+        server.verify();
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.failedChunks()).isEqualTo(1);
+        assertThat(savedStatuses).doesNotContain(ChunkStatus.ACKNOWLEDGED).endsWith(ChunkStatus.FAILED);
+    }
+
+    @Test
+    void retriesOfAChunkReuseItsNamespacedIdempotencyKey() throws Exception {
+        Path file = countriesFile(2);
+        List<String> keys = new ArrayList<>();
+        server.expect(ExpectedCount.times(2), requestTo(CALLBACK_URL))
+                .andExpect(request -> keys.add(request.getHeaders().getFirst(ChunkedMdmDeliveryService.IDEMPOTENCY_KEY_HEADER)))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/100")));
+        server.expect(ExpectedCount.times(2), requestTo(CALLBACK_URL + "/100"))
+                .andRespond(withSuccess(statusJson(100, "COMPLETED_WITH_ERRORS"), MediaType.APPLICATION_JSON));
+
+        deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE);
+
+        server.verify();
+        assertThat(keys).hasSize(2).allMatch(key -> key.matches("dem-ingestion-7-chunk-0-[0-9a-f-]{36}"));
+        assertThat(keys.get(1)).isEqualTo(keys.get(0)); // O MDM reconhece a repetição e aplica o lote novamente
+    }
+
+    @Test
+    void resumedChunkIsSentWithTheKeyStoredOnTheFirstAttempt() throws Exception {
+        Path file = countriesFile(2);
+        IngestionChunk failed = new IngestionChunk(INGESTION_ID, 0, 2, ChunkStatus.FAILED);
+        failed.setIdempotencyKey("dem-ingestion-7-chunk-0-chave-anterior");
+        when(chunkRepository.findByIngestionIdOrderByChunkIndexAsc(INGESTION_ID)).thenReturn(List.of(failed));
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(header(ChunkedMdmDeliveryService.IDEMPOTENCY_KEY_HEADER, "dem-ingestion-7-chunk-0-chave-anterior"))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/100")));
+        expectStatus(100, "COMPLETED");
+
+        assertThat(deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE).isComplete()).isTrue();
+        server.verify();
+    }
+
+    @Test
+    void responseWithoutLocationIsAcknowledgedImmediately() throws Exception {
+        Path file = countriesFile(2);
+        server.expect(requestTo(CALLBACK_URL)).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("Dados recebidos", MediaType.TEXT_PLAIN));
+
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE);
+
+        server.verify();
+        assertThat(result.isComplete()).isTrue();
+        assertThat(savedStatuses).doesNotContain(ChunkStatus.APPLYING);
+    }
+
+    @Test
+    void fileIsSplitIntoChunksWithIdentifyingHeaders() throws Exception {
+        Path file = countriesFile(5);
+        for (int chunkIndex = 0; chunkIndex < 3; chunkIndex++) {
+            server.expect(requestTo(CALLBACK_URL))
+                    .andExpect(method(HttpMethod.POST))
+                    .andExpect(header(ChunkedMdmDeliveryService.CHUNK_INDEX_HEADER, String.valueOf(chunkIndex)))
+                    .andExpect(header(ChunkedMdmDeliveryService.INGESTION_ID_HEADER, String.valueOf(INGESTION_ID)))
+                    .andExpect(header(ChunkedMdmDeliveryService.SYNC_OPERATION_HEADER, chunkIndex < 2 ? "UPSERT" : "DELETE"))
+                    .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/" + (100 + chunkIndex))));
+            expectStatus(100 + chunkIndex, "COMPLETED");
+        }
+
+        // 4 UPSERT seguidos de 1 DELETE (arquivo de delta), em lotes de 2: o último lote só tem a remoção
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, 4);
+
+        server.verify();
+        assertThat(result.totalChunks()).isEqualTo(3);
+        assertThat(result.acknowledgedChunks()).isEqualTo(3);
+        assertThat(result.lastAcknowledgedChunk()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteChunksAreSentOnlyAfterEveryUpsertChunkIsApplied() throws Exception {
+        ReflectionTestUtils.setField(deliveryService, "maxInFlight", 4);
+        ReflectionTestUtils.setField(deliveryService, "statusPollMs", 20L);
+        Path file = countriesFile(6);
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        for (int chunkIndex = 0; chunkIndex < 2; chunkIndex++) {
+            int processingId = 100 + chunkIndex;
+            server.expect(requestTo(CALLBACK_URL))
+                    .andExpect(header(ChunkedMdmDeliveryService.CHUNK_INDEX_HEADER, String.valueOf(chunkIndex)))
+                    .andExpect(header(ChunkedMdmDeliveryService.PROVIDER_ID_HEADER, String.valueOf(PROVIDER_ID)))
+                    .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/" + processingId)));
+            expectStatus(processingId, "PROCESSING");
+            server.expect(requestTo(CALLBACK_URL + "/" + processingId))
+                    .andExpect(request -> events.add("aplicado " + processingId))
+                    .andRespond(withSuccess(statusJson(processingId, "COMPLETED"), MediaType.APPLICATION_JSON));
+        }
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(header(ChunkedMdmDeliveryService.SYNC_OPERATION_HEADER, "DELETE"))
+                .andExpect(header(ChunkedMdmDeliveryService.PROVIDER_ID_HEADER, String.valueOf(PROVIDER_ID)))
+                .andExpect(request -> events.add("remoção"))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/102")));
+        expectStatus(102, "COMPLETED");
+
+        // 4 UPSERT em dois lotes enviados juntos, seguidos de um lote DELETE com 2 remoções
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, 4);
+
+        server.verify();
+        assertThat(result.isComplete()).isTrue();
+        assertThat(events).hasSize(3).endsWith("remoção");
+    }
+
+    @Test
+    void deleteChunksAreNotSentWhenAnUpsertChunkFails() throws Exception {
+        ReflectionTestUtils.setField(deliveryService, "maxInFlight", 4);
+        Path file = countriesFile(6);
+        expectAccepted(0, 100);
+        expectStatus(100, "COMPLETED");
+        server.expect(ExpectedCount.times(2), requestTo(CALLBACK_URL))
+                .andExpect(header(ChunkedMdmDeliveryService.CHUNK_INDEX_HEADER, "1"))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/101")));
+        server.expect(ExpectedCount.times(2), requestTo(CALLBACK_URL + "/101"))
+                .andRespond(withSuccess(statusJson(101, "COMPLETED_WITH_ERRORS"), MediaType.APPLICATION_JSON));
+
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, 4);
+
+        server.verify(); // Nenhuma requisição para o lote DELETE
+        assertThat(result.totalChunks()).isEqualTo(3);
+        assertThat(result.acknowledgedChunks()).isEqualTo(1);
+        assertThat(result.failedChunks()).isEqualTo(1);
+    }
+
+    @Test
+    void resumeSkipsAcknowledgedChunksAndResendsOnlyPendingOnes() throws Exception {
+        Path file = countriesFile(8);
+        IngestionChunk acknowledged = new IngestionChunk(INGESTION_ID, 0, 2, ChunkStatus.ACKNOWLEDGED);
+        IngestionChunk failed = new IngestionChunk(INGESTION_ID, 1, 2, ChunkStatus.FAILED);
+        failed.setAttempts(3);
+        IngestionChunk alsoAcknowledged = new IngestionChunk(INGESTION_ID, 2, 2, ChunkStatus.ACKNOWLEDGED);
+        when(chunkRepository.findByIngestionIdOrderByChunkIndexAsc(INGESTION_ID))
+                .thenReturn(List.of(acknowledged, failed, alsoAcknowledged)); // O lote 3 não chegou a ser enviado
+        expectAccepted(1, 101);
+        expectStatus(101, "COMPLETED");
+        expectAccepted(3, 103);
+        expectStatus(103, "COMPLETED");
+
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE);
+
+        server.verify(); // Nenhuma requisição para os lotes 0 e 2
+        assertThat(result.totalChunks()).isEqualTo(4);
+        assertThat(result.acknowledgedChunks()).isEqualTo(4);
+        assertThat(result.lastAcknowledgedChunk()).isEqualTo(3);
+        assertThat(failed.getStatus()).isEqualTo(ChunkStatus.ACKNOWLEDGED);
+        assertThat(failed.getAttempts()).isEqualTo(4);
+        assertThat(failed.getLastError()).isNull();
+    }
+
+    @Test
+    void definitiveFailureStopsNewChunksButKeepsCountingThem() throws Exception {
+        Path file = countriesFile(6);
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(header(ChunkedMdmDeliveryService.CHUNK_INDEX_HEADER, "0"))
+                .andRespond(withStatus(HttpStatus.BAD_REQUEST).body("Lote inválido"));
+
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE);
+
+        server.verify(); // 400 não é repetido e os lotes 1 e 2 não são enviados
+        assertThat(result.totalChunks()).isEqualTo(3);
+        assertThat(result.acknowledgedChunks()).isZero();
+        assertThat(result.failedChunks()).isEqualTo(1);
+        assertThat(result.lastAcknowledgedChunk()).isEqualTo(-1);
+    }
+
+    @Test
+    void smileRejectedWith415IsResentAsJsonAndRemembered() throws Exception {
+        ReflectionTestUtils.setField(deliveryService, "wireFormat", WireFormat.SMILE);
+        Path file = countriesFile(2);
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(content().contentType(WireFormat.SMILE.getContentType()))
+                .andRespond(withStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[{\"countryName\":\"Country 1\"},{\"countryName\":\"Country 2\"}]"))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/100")));
+        expectStatus(100, "COMPLETED");
+
+        DeliveryResult result = deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE);
+
+        server.verify();
+        assertThat(result.isComplete()).isTrue();
+
+        // Próximo envio para a mesma URL: direto em JSON, sem nova tentativa em Smile
+        server.reset();
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/101")));
+        expectStatus(101, "COMPLETED");
+
+        assertThat(deliveryService.deliver(8, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE).isComplete()).isTrue();
+        server.verify();
+    }
+
+    @Test
+    void smileIsSentWhenMdmAcceptsIt() throws Exception {
+        ReflectionTestUtils.setField(deliveryService, "wireFormat", WireFormat.SMILE);
+        Path file = countriesFile(2);
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(content().contentType(WireFormat.SMILE.getContentType()))
+                .andExpect(request -> assertThat(((MockClientHttpRequest) request).getBodyAsBytes())
+                        .startsWith(':', ')', '\n')) // Cabeçalho do formato Smile
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/100")));
+        expectStatus(100, "COMPLETED");
+
+        assertThat(deliveryService.deliver(INGESTION_ID, PROVIDER_ID, CALLBACK_URL, file, 2, Integer.MAX_VALUE).isComplete()).isTrue();
+        server.verify();
+    }
+
+    // Arquivo NDJSON com a quantidade informada de países (numericCode 1..count)
+    private Path countriesFile(int count) throws IOException {
+        Path file = tempDir.resolve("transformed_" + count + ".ndjson");
+        Files.write(file, IntStream.rangeClosed(1, count)
+                .mapToObj(i -> "{\"countryName\":\"Country " + i + "\",\"numericCode\":" + i + "}")
+                .collect(Collectors.toList()));
+        return file;
+    }
+
+    private void expectAccepted(int chunkIndex, long processingId) {
+        server.expect(requestTo(CALLBACK_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(ChunkedMdmDeliveryService.CHUNK_INDEX_HEADER, String.valueOf(chunkIndex)))
+                .andRespond(withStatus(HttpStatus.ACCEPTED).location(URI.create("/countries/callback/" + processingId)));
+    }
+
+    private void expectStatus(long processingId, String status) {
+        server.expect(requestTo(CALLBACK_URL + "/" + processingId))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(statusJson(processingId, status), MediaType.APPLICATION_JSON));
+    }
+
+    private static String statusJson(long processingId, String status) {
+        return "{\"processingId\":" + processingId + ",\"status\":\"" + status + "\"}";
+    }
+}
@@ -0,0 +1,151 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.es2.dem.dto.CountryDTO;
+import com.es2.dem.enums.StorageCompression;
+import com.es2.dem.service.CountryFingerprintIndex.DeltaResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Cálculo do delta de uma ingestão em relação ao índice de fingerprints da última ingestão concluída do provedor.
+class CountryFingerprintIndexTest {
+
+    private static final Integer PROVIDER_ID = 3;
+    private static final String MAPPING_HASH = "mapeamento-1";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CountryFingerprintIndex fingerprintIndex;
+
+    @BeforeEach
+    void setUp() {
+        IngestionFileStore fileStore = new IngestionFileStore();
+        ReflectionTestUtils.setField(fileStore, "demStorageBasePath", tempDir.resolve("storage").toString());
+        ReflectionTestUtils.setField(fileStore, "compression", StorageCompression.NONE);
+        ReflectionTestUtils.setField(fileStore, "ioBufferSize", 8192);
+        fingerprintIndex = new CountryFingerprintIndex(objectMapper, fileStore);
+    }
+
+    @Test
+    void firstIngestionSendsEveryCountry() throws IOException {
+        DeltaResult result = computeDelta(1, country(1, "Alpha", 10), country(2, "Beta", 20));
+
+        assertThat(result).isEqualTo(new DeltaResult(2, 0, 0, 0));
+        assertThat(deltaOf(1)).extracting(CountryDTO::getCountryName).containsExactly("Alpha", "Beta");
+    }
+
+    @Test
+    void deltaHasNewAndChangedCountriesFollowedByDeletedKeys() throws IOException {
+        computeDelta(1, country(1, "Alpha", 10), country(2, "Beta", 20), country(3, "Gamma", 30), country(null, "Nokey", 40));
+        fingerprintIndex.promote(PROVIDER_ID, 1);
+
+        DeltaResult result = computeDelta(2,
+                country(1, "Alpha", 10),     // inalterado
+                country(2, "Beta", 21),      // alterado
+                country(4, "Delta", 50));    // novo; Gamma e Nokey foram removidos
+
+        assertThat(result).isEqualTo(new DeltaResult(1, 1, 1, 2));
+        assertThat(result.upsertRecords()).isEqualTo(2);
+        List<CountryDTO> delta = deltaOf(2);
+        assertThat(delta).hasSize(4);
+        assertThat(delta.subList(0, 2)).extracting(CountryDTO::getCountryName).containsExactly("Beta", "Delta");
+        assertThat(delta.get(1).getPopulation()).isEqualTo(50);
+        // Removidos: apenas a chave (código numérico ou, na falta dele, o nome)
+        assertThat(delta.subList(2, 4)).extracting(CountryDTO::getNumericCode, CountryDTO::getCountryName)
+                .containsExactlyInAnyOrder(tuple(3, null),
+                        tuple(null, "Nokey"));
+    }
+
+    @Test
+    void indexOfAnIngestionThatDidNotCompleteIsNotUsedAsBase() throws IOException {
+        computeDelta(1, country(1, "Alpha", 10));
+        fingerprintIndex.promote(PROVIDER_ID, 1);
+
+        // Ingestão 2 calcula o delta mas falha no envio: o índice dela fica pendente
+        assertThat(computeDelta(2, country(1, "Alpha", 11))).isEqualTo(new DeltaResult(0, 1, 0, 0));
+
+        // A ingestão seguinte ainda compara com a ingestão 1 e reenvia a alteração
+        assertThat(computeDelta(3, country(1, "Alpha", 11))).isEqualTo(new DeltaResult(0, 1, 0, 0));
+
+        // Depois que a ingestão 3 é concluída, ela passa a ser a base e os índices pendentes antigos são descartados
+        fingerprintIndex.promote(PROVIDER_ID, 3);
+        assertThat(computeDelta(4, country(1, "Alpha", 11))).isEqualTo(new DeltaResult(0, 0, 1, 0));
+        try (var files = Files.list(tempDir.resolve("storage/fingerprints/provider_" + PROVIDER_ID))) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .containsExactlyInAnyOrder("index.json", "pending_ingestion_4.json");
+        }
+    }
+
+    @Test
+    void countryWhoseKeyChangedIsNotSentAsDeleted() throws IOException {
+        computeDelta(1, country(1, "Alpha", 10), country(2, "Beta", 20), country(3, "Gamma", 30));
+        fingerprintIndex.promote(PROVIDER_ID, 1);
+
+        // Alpha perdeu o código numérico (chave passa a ser o nome) e Beta trocou de código: ambos continuam no provedor
+        DeltaResult result = computeDelta(2, country(null, "Alpha", 10), country(22, "Beta", 20), country(3, "Gamma", 30));
+
+        assertThat(result).isEqualTo(new DeltaResult(2, 0, 1, 0));
+        assertThat(deltaOf(2)).extracting(CountryDTO::getCountryName).containsExactly("Alpha", "Beta");
+    }
+
+    @Test
+    void changedMappingRebuildsTheIndexWithoutDeletes() throws IOException {
+        computeDelta(1, country(1, "Alpha", 10), country(2, "Beta", 20));
+        fingerprintIndex.promote(PROVIDER_ID, 1);
+
+        // Com outro mapeamento, as chaves não são comparáveis: tudo é enviado como novo e nada é removido
+        DeltaResult result = computeDelta(2, "mapeamento-2", country(null, "Alpha (novo)", 10));
+
+        assertThat(result).isEqualTo(new DeltaResult(1, 0, 0, 0));
+        assertThat(deltaOf(2)).extracting(CountryDTO::getCountryName).containsExactly("Alpha (novo)");
+
+        // O índice do novo mapeamento passa a ser a base depois que a ingestão é concluída
+        fingerprintIndex.promote(PROVIDER_ID, 2);
+        assertThat(computeDelta(3, "mapeamento-2", country(null, "Alpha (novo)", 10))).isEqualTo(new DeltaResult(0, 0, 1, 0));
+    }
+
+    private DeltaResult computeDelta(Integer ingestionId, CountryDTO... countries) throws IOException {
+        return computeDelta(ingestionId, MAPPING_HASH, countries);
+    }
+
+    private DeltaResult computeDelta(Integer ingestionId, String mappingHash, CountryDTO... countries) throws IOException {
+        Path transformed = tempDir.resolve("transformed_" + ingestionId + ".ndjson");
+        StringBuilder ndjson = new StringBuilder();
+        for (CountryDTO country : countries) {
+            ndjson.append(objectMapper.writeValueAsString(country)).append('\n');
+        }
+        Files.writeString(transformed, ndjson);
+        return fingerprintIndex.computeDelta(PROVIDER_ID, ingestionId, mappingHash, transformed, deltaFile(ingestionId));
+    }
+
+    private List<CountryDTO> deltaOf(Integer ingestionId) throws IOException {
+        try (var countries = objectMapper.readerFor(CountryDTO.class).<CountryDTO>readValues(deltaFile(ingestionId).toFile())) {
+            return countries.readAll();
+        }
+    }
+
+    private Path deltaFile(Integer ingestionId) {
+        return tempDir.resolve("delta_" + ingestionId + ".ndjson");
+    }
+
+    private static CountryDTO country(Integer numericCode, String name, Integer population) {
+        CountryDTO country = new CountryDTO();
+        country.setNumericCode(numericCode);
+        country.setCountryName(name);
+        country.setPopulation(population);
+        return country;
+    }
+}
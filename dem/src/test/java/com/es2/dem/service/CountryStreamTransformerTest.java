@@ -0,0 +1,94 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.es2.dem.dto.CountryDTO;
+import com.es2.dem.enums.StorageCompression;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Transformação em streaming do array JSON bruto de um provedor em um arquivo NDJSON de CountryDTOs.
+class CountryStreamTransformerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CountryRecordMapper mapper = new CountryMappingRegistry().getMapping(1, null).mapper();
+    private CountryStreamTransformer transformer;
+
+    @BeforeEach
+    void setUp() {
+        IngestionFileStore fileStore = new IngestionFileStore();
+        ReflectionTestUtils.setField(fileStore, "demStorageBasePath", tempDir.toString());
+        ReflectionTestUtils.setField(fileStore, "compression", StorageCompression.NONE);
+        ReflectionTestUtils.setField(fileStore, "ioBufferSize", 8192);
+        transformer = new CountryStreamTransformer(objectMapper, fileStore);
+    }
+
+    @Test
+    void arrayIsTransformedIntoOneCountryPerLine() throws IOException {
+        Path rawFile = write("raw.json", """
+                [
+                  {"name": {"common": "Portugal"}, "ccn3": "620", "capital": ["Lisboa"], "population": 10300000,
+                   "area": 92090.0, "currencies": {"EUR": {"name": "Euro", "symbol": "€"}}},
+                  {"name": {"common": "Brasil"}, "ccn3": "076", "capital": ["Brasília"], "population": 212000000,
+                   "area": 8515767.0, "currencies": {"BRL": {"name": "Real", "symbol": "R$"}}}
+                ]
+                """);
+        Path transformedFile = tempDir.resolve("transformed.ndjson");
+
+        int count = transformer.transform(rawFile, transformedFile, mapper);
+
+        assertThat(count).isEqualTo(2);
+        List<String> lines = Files.readAllLines(transformedFile, StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        CountryDTO portugal = objectMapper.readValue(lines.get(0), CountryDTO.class);
+        assertThat(portugal.getCountryName()).isEqualTo("Portugal");
+        assertThat(portugal.getNumericCode()).isEqualTo(620);
+        assertThat(portugal.getCapitalCity()).isEqualTo("Lisboa");
+        assertThat(portugal.getCurrencies()).hasSize(1);
+        assertThat(objectMapper.readValue(lines.get(1), CountryDTO.class).getCountryName()).isEqualTo("Brasil");
+    }
+
+    @Test
+    void emptyArrayProducesAnEmptyFile() throws IOException {
+        Path transformedFile = tempDir.resolve("transformed.ndjson");
+
+        assertThat(transformer.transform(write("raw.json", "[]"), transformedFile, mapper)).isZero();
+        assertThat(Files.size(transformedFile)).isZero();
+    }
+
+    @Test
+    void contentThatIsNotAnArrayIsRejected() throws IOException {
+        Path rawFile = write("raw.json", "{\"name\": {\"common\": \"Portugal\"}}");
+
+        assertThatThrownBy(() -> transformer.transform(rawFile, tempDir.resolve("transformed.ndjson"), mapper))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("array JSON");
+    }
+
+    @Test
+    void arrayElementThatIsNotAnObjectIsRejected() throws IOException {
+        Path rawFile = write("raw.json", "[{\"name\": {\"common\": \"Portugal\"}}, 42]");
+
+        assertThatThrownBy(() -> transformer.transform(rawFile, tempDir.resolve("transformed.ndjson"), mapper))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("não é um objeto");
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
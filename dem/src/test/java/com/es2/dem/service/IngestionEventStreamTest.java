@@ -0,0 +1,123 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.es2.dem.controller.IngestionController;
+import com.es2.dem.dto.IngestionDTO;
+
+// Fluxo de eventos de ingestão (GET /dem/api/ingestion/events): um cliente que reconecta com Last-Event-ID
+// recebe, em ordem, os eventos guardados posteriores a esse ID e depois os novos.
+class IngestionEventStreamTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Pattern EVENT = Pattern.compile("id:(\\d+)\\nevent:ingestion\\ndata:\\{\"id\":(\\d+),");
+
+    private IngestionEventStream eventStream;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        eventStream = new IngestionEventStream();
+        ReflectionTestUtils.setField(eventStream, "emitterTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(eventStream, "replaySize", 3);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new IngestionController(mock(IngestionService.class), eventStream))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStream.stop();
+    }
+
+    @Test
+    void reconnectingClientReceivesTheEventsAfterLastEventIdInOrder() throws Exception {
+        for (int ingestionId = 1; ingestionId <= 3; ingestionId++) {
+            eventStream.publish(ingestion(ingestionId));
+        }
+        List<Event> buffered = awaitEvents(connect(0L), 3);
+        assertThat(buffered).extracting(Event::ingestionId).containsExactly(1, 2, 3);
+
+        MockHttpServletResponse reconnected = connect(buffered.get(0).id());
+        assertThat(awaitEvents(reconnected, 2)).extracting(Event::ingestionId).containsExactly(2, 3);
+
+        eventStream.publish(ingestion(4));
+        List<Event> received = awaitEvents(reconnected, 3);
+        assertThat(received).extracting(Event::ingestionId).containsExactly(2, 3, 4);
+        assertThat(received).extracting(Event::id).isSorted();
+    }
+
+    @Test
+    void onlyTheMostRecentEventsAreReplayed() throws Exception {
+        for (int ingestionId = 1; ingestionId <= 5; ingestionId++) {
+            eventStream.publish(ingestion(ingestionId));
+        }
+
+        assertThat(awaitEvents(connect(0L), 3)).extracting(Event::ingestionId).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void clientWithoutLastEventIdReceivesOnlyNewEvents() throws Exception {
+        eventStream.publish(ingestion(1));
+        MockHttpServletResponse response = connect(null);
+
+        eventStream.publish(ingestion(2));
+
+        assertThat(awaitEvents(response, 1)).extracting(Event::ingestionId).containsExactly(2);
+    }
+
+    private MockHttpServletResponse connect(Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder subscribe = get("/dem/api/ingestion/events");
+        if (lastEventId != null) {
+            subscribe.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(subscribe).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    // Aguarda a resposta conter a quantidade de eventos esperada e retorna os eventos recebidos
+    private static List<Event> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        await().atMost(TIMEOUT).until(() -> parse(response).size() >= count);
+        List<Event> events = parse(response);
+        assertThat(events).hasSize(count);
+        return events;
+    }
+
+    private static List<Event> parse(MockHttpServletResponse response) throws Exception {
+        List<Event> events = new ArrayList<>();
+        Matcher matcher = EVENT.matcher(response.getContentAsString());
+        while (matcher.find()) {
+            events.add(new Event(Long.parseLong(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+        }
+        return events;
+    }
+
+    private static IngestionDTO ingestion(int id) {
+        IngestionDTO ingestion = new IngestionDTO();
+        ingestion.setId(id);
+        ingestion.setMdmProviderId(1);
+        ingestion.setStatus("PROCESSING");
+        return ingestion;
+    }
+
+    private record Event(long id, int ingestionId) {
+    }
+}
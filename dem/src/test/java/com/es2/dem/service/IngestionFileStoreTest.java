@@ -0,0 +1,81 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.es2.dem.enums.StorageCompression;
+
+// Arquivos de ingestão: nomes conforme a compressão configurada, ida e volta com GZIP
+// e leitura transparente de arquivos antigos sem compressão.
+class IngestionFileStoreTest {
+
+    private static final String CONTENT = "{\"countryName\":\"Portugal\"}\n{\"countryName\":\"Brasil\"}\n".repeat(100);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compressedFileIsReadBackUnchanged() throws IOException {
+        IngestionFileStore fileStore = fileStore(StorageCompression.GZIP);
+        Path file = fileStore.newTransformedFile("provedor", 1);
+
+        try (OutputStream out = fileStore.openOutputStream(file)) {
+            out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(file.getFileName().toString()).endsWith(".ndjson.gz");
+        assertThat(Files.size(file)).isLessThan(CONTENT.length());
+        assertThat(read(fileStore, file)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void compressedChannelIsReadBackUnchanged() throws IOException {
+        IngestionFileStore fileStore = fileStore(StorageCompression.GZIP);
+        Path file = fileStore.newRawFile("provedor", 1);
+
+        try (WritableByteChannel channel = fileStore.openChannel(file)) {
+            ByteBuffer buffer = ByteBuffer.wrap(CONTENT.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        assertThat(file.getFileName().toString()).endsWith(".json.gz");
+        assertThat(read(fileStore, file)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void uncompressedFileIsReadWhenCompressionIsEnabled() throws IOException {
+        Path legacyFile = fileStore(StorageCompression.NONE).newTransformedFile("provedor", 1);
+        Files.writeString(legacyFile, CONTENT, StandardCharsets.UTF_8);
+
+        assertThat(legacyFile.getFileName().toString()).endsWith(".ndjson");
+        assertThat(read(fileStore(StorageCompression.GZIP), legacyFile)).isEqualTo(CONTENT);
+    }
+
+    private IngestionFileStore fileStore(StorageCompression compression) {
+        IngestionFileStore fileStore = new IngestionFileStore();
+        ReflectionTestUtils.setField(fileStore, "demStorageBasePath", tempDir.toString());
+        ReflectionTestUtils.setField(fileStore, "compression", compression);
+        ReflectionTestUtils.setField(fileStore, "ioBufferSize", 8192);
+        return fileStore;
+    }
+
+    private static String read(IngestionFileStore fileStore, Path file) throws IOException {
+        try (InputStream in = fileStore.openInputStream(file)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.es2.dem.exception.GlobalExceptionHandler;
+import com.es2.dem.exception.IngestionQueueFullException;
+
+// Agendador dos trabalhos de ingestão: rejeição com 503 e Retry-After quando a fila está cheia,
+// execução de um trabalho por vez para o mesmo provedor e liberação da vaga quando um trabalho falha.
+class IngestionJobSchedulerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private IngestionJobScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void fullQueueIsRejectedWithServiceUnavailableAndRetryAfter() throws InterruptedException {
+        scheduler = scheduler(1, 2, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(1, 1, () -> awaitQuietly(release));
+        await().atMost(TIMEOUT).until(() -> scheduler.getRunningJobs() == 1);
+        // Ocupam a fila aguardando o trabalho em execução do mesmo provedor
+        scheduler.submit(2, 1, () -> { });
+        scheduler.submit(3, 1, () -> { });
+
+        assertThatThrownBy(() -> scheduler.submit(4, 2, () -> { }))
+                .isInstanceOf(IngestionQueueFullException.class)
+                .satisfies(e -> {
+                    ResponseEntity<Object> response = new GlobalExceptionHandler()
+                            .handleIngestionQueueFullException((IngestionQueueFullException) e, null);
+                    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("15");
+                });
+        assertThat(scheduler.getQueuedJobs()).isEqualTo(2);
+
+        release.countDown();
+        await().atMost(TIMEOUT).until(() -> scheduler.getQueuedJobs() == 0 && scheduler.getRunningJobs() == 0);
+    }
+
+    @Test
+    void jobsOfTheSameProviderRunOneAtATime() {
+        scheduler = scheduler(4, 10, 1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        for (int i = 1; i <= 5; i++) {
+            scheduler.submit(i, 7, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleepQuietly(20);
+                running.decrementAndGet();
+                completed.incrementAndGet();
+            });
+        }
+
+        await().atMost(TIMEOUT).until(() -> completed.get() == 5);
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    void otherProvidersAreNotBlockedByABusyProvider() {
+        scheduler = scheduler(2, 10, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherProviderRan = new CountDownLatch(1);
+        scheduler.submit(1, 1, () -> awaitQuietly(release));
+        scheduler.submit(2, 1, () -> { });
+
+        scheduler.submit(3, 2, otherProviderRan::countDown);
+
+        await().atMost(TIMEOUT).until(() -> otherProviderRan.getCount() == 0);
+        release.countDown();
+    }
+
+    @Test
+    void slotIsReleasedWhenAJobThrows() {
+        scheduler = scheduler(1, 1, 1);
+        scheduler.submit(1, 1, () -> {
+            throw new IllegalStateException("falha simulada");
+        });
+        await().atMost(TIMEOUT).until(() -> scheduler.getQueuedJobs() == 0 && scheduler.getRunningJobs() == 0);
+
+        // A fila e a vaga do provedor foram liberadas: o próximo trabalho do mesmo provedor é executado
+        CountDownLatch nextRan = new CountDownLatch(1);
+        scheduler.submit(2, 1, nextRan::countDown);
+
+        await().atMost(TIMEOUT).until(() -> nextRan.getCount() == 0);
+    }
+
+    private static IngestionJobScheduler scheduler(int workers, int queueCapacity, int perProviderLimit) {
+        IngestionJobScheduler scheduler = new IngestionJobScheduler();
+        ReflectionTestUtils.setField(scheduler, "workerCount", workers);
+        ReflectionTestUtils.setField(scheduler, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(scheduler, "perProviderLimit", perProviderLimit);
+        ReflectionTestUtils.setField(scheduler, "useVirtualThreads", true);
+        ReflectionTestUtils.setField(scheduler, "retryAfterSeconds", 15);
+        scheduler.start();
+        return scheduler;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Paths;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.es2.dem.enums.IngestionOutcome;
+import com.es2.dem.enums.IngestionStatus;
+import com.es2.dem.model.Ingestion;
+import com.es2.dem.model.ProviderFetchState;
+import com.es2.dem.repository.IngestionChunkRepository;
+import com.es2.dem.repository.IngestionRepository;
+import com.es2.dem.repository.ProviderFetchStateRepository;
+import com.es2.dem.service.ChunkedMdmDeliveryService.DeliveryResult;
+
+// Conclusão do envio ao MDM: o índice de fingerprints só é promovido quando todos os lotes foram aplicados.
+class IngestionServiceTest {
+
+    private static final Integer INGESTION_ID = 12;
+    private static final Integer PROVIDER_ID = 3;
+
+    private IngestionRepository ingestionRepository;
+    private ChunkedMdmDeliveryService deliveryService;
+    private CountryFingerprintIndex fingerprintIndex;
+    private ProviderFetchStateRepository fetchStateRepository;
+    private IngestionService ingestionService;
+    private Ingestion ingestion;
+
+    @BeforeEach
+    void setUp() {
+        ingestionRepository = mock(IngestionRepository.class);
+        deliveryService = mock(ChunkedMdmDeliveryService.class);
+        fingerprintIndex = mock(CountryFingerprintIndex.class);
+        fetchStateRepository = mock(ProviderFetchStateRepository.class);
+        ingestionService = new IngestionService(ingestionRepository, mock(IngestionStateTracker.class),
+                mock(MdmProviderClient.class), mock(IngestionJobScheduler.class),
+                mock(CountryStreamTransformer.class), mock(ProviderDataDownloader.class), deliveryService,
+                mock(IngestionChunkRepository.class), mock(IngestionFileStore.class), fingerprintIndex,
+                fetchStateRepository, mock(CountryMappingRegistry.class), mock(IngestionEventStream.class),
+                mock(ApplicationEventPublisher.class));
+
+        ingestion = new Ingestion(PROVIDER_ID, IngestionStatus.PENDING, "http://mdm.test/countries/callback");
+        ingestion.setId(INGESTION_ID);
+        ingestion.setTransformedDataPath("transformed.ndjson");
+        ingestion.setDeltaDataPath("delta.ndjson");
+        ingestion.setChunkSize(2);
+        ingestion.setNewRecords(2);
+        ingestion.setChangedRecords(1);
+        ingestion.setUnchangedRecords(5);
+        ingestion.setDeletedRecords(1);
+        when(ingestionRepository.findById(INGESTION_ID)).thenReturn(Optional.of(ingestion));
+        when(fetchStateRepository.findById(PROVIDER_ID)).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void deliveryWithEveryChunkAppliedCompletesAndPromotesFingerprints() throws Exception {
+        when(deliveryService.deliver(eq(INGESTION_ID), eq(PROVIDER_ID), any(), eq(Paths.get("delta.ndjson")), eq(2), eq(3)))
+                .thenReturn(new DeliveryResult(2, 2, 0, 1));
+
+        ingestionService.resumeDeliveryJob(INGESTION_ID);
+
+        assertThat(ingestion.getStatus()).isEqualTo(IngestionStatus.COMPLETED);
+        assertThat(ingestion.getOutcome()).isEqualTo(IngestionOutcome.SYNCED);
+        verify(fingerprintIndex).promote(PROVIDER_ID, INGESTION_ID);
+        verify(fetchStateRepository).save(any(ProviderFetchState.class));
+    }
+
+    @Test
+    void incompleteDeliveryFailsWithoutPromotingFingerprints() throws Exception {
+        when(deliveryService.deliver(eq(INGESTION_ID), eq(PROVIDER_ID), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new DeliveryResult(2, 1, 1, 0));
+
+        ingestionService.resumeDeliveryJob(INGESTION_ID);
+
+        assertThat(ingestion.getStatus()).isEqualTo(IngestionStatus.FAILED);
+        assertThat(ingestion.getLastAcknowledgedChunk()).isZero();
+        verify(fingerprintIndex, never()).promote(any(), any());
+        verify(fetchStateRepository, never()).save(any());
+    }
+}
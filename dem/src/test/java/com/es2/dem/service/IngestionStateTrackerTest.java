@@ -0,0 +1,120 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.es2.dem.enums.IngestionStatus;
+import com.es2.dem.model.Ingestion;
+import com.es2.dem.repository.IngestionRepository;
+
+// Estado em memória dos trabalhos de ingestão: gravação imediata nas mudanças de status, gravação agrupada
+// das mensagens de progresso e remoção dos trabalhos concluídos.
+class IngestionStateTrackerTest {
+
+    private IngestionRepository ingestionRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private IngestionStateTracker tracker;
+    private Ingestion ingestion;
+
+    @BeforeEach
+    void setUp() {
+        ingestionRepository = mock(IngestionRepository.class);
+        when(ingestionRepository.save(any(Ingestion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        tracker = new IngestionStateTracker(ingestionRepository, eventPublisher);
+        ingestion = new Ingestion(1, IngestionStatus.PENDING, "http://mdm.test/countries/callback");
+        ingestion.setId(5);
+    }
+
+    @Test
+    void statusChangesAreWrittenImmediately() {
+        tracker.save(ingestion);
+        ingestion.setStatus(IngestionStatus.PROCESSING);
+        tracker.save(ingestion);
+
+        assertThat(savedStatuses()).containsExactly(IngestionStatus.PENDING, IngestionStatus.PROCESSING);
+        verify(eventPublisher, times(2)).publishEvent(any(IngestionUpdatedEvent.class));
+    }
+
+    @Test
+    void progressUpdatesAreCoalescedUntilTheNextFlush() {
+        ingestion.setStatus(IngestionStatus.PROCESSING);
+        ingestion.setStatusMessage("Baixando dados...");
+        tracker.save(ingestion);
+        for (int i = 1; i <= 3; i++) {
+            ingestion.setStatusMessage("Lote " + i + " enviado");
+            tracker.save(ingestion);
+        }
+
+        verify(ingestionRepository, times(1)).save(any(Ingestion.class)); // Apenas a mudança para PROCESSING
+        assertThat(tracker.getLive(5)).map(Ingestion::getStatusMessage).contains("Lote 3 enviado");
+
+        tracker.flushPending();
+        tracker.flushPending(); // Nada pendente na segunda vez
+
+        assertThat(savedMessages()).containsExactly("Baixando dados...", "Lote 3 enviado");
+    }
+
+    @Test
+    void liveStateIsACopyOfTheWorkerEntity() {
+        ingestion.setStatusMessage("Início");
+        tracker.save(ingestion);
+        ingestion.setStatusMessage("Alterado pelo worker sem save()");
+
+        assertThat(tracker.getLive(5)).map(Ingestion::getStatusMessage).contains("Início");
+    }
+
+    @Test
+    void finishedJobsAreWrittenAndEvicted() {
+        tracker.save(ingestion);
+        assertThat(tracker.getLiveJobCount()).isEqualTo(1);
+
+        ingestion.setStatus(IngestionStatus.COMPLETED);
+        tracker.save(ingestion);
+
+        assertThat(savedStatuses()).endsWith(IngestionStatus.COMPLETED);
+        assertThat(tracker.getLive(5)).isEmpty();
+        assertThat(tracker.getLiveJobCount()).isZero();
+    }
+
+    @Test
+    void failedWriteKeepsTheJobPendingUntilItSucceeds() {
+        ingestion.setStatus(IngestionStatus.FAILED);
+        when(ingestionRepository.save(any(Ingestion.class)))
+                .thenThrow(new IllegalStateException("banco indisponível"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        tracker.save(ingestion);
+        assertThat(tracker.getLive(5)).isPresent(); // Não gravado: continua acompanhado
+
+        tracker.flushPending();
+        verify(ingestionRepository, times(2)).save(any(Ingestion.class));
+        assertThat(savedStatuses()).endsWith(IngestionStatus.FAILED);
+    }
+
+    private List<IngestionStatus> savedStatuses() {
+        return captureSaved().stream().map(Ingestion::getStatus).toList();
+    }
+
+    private List<String> savedMessages() {
+        return captureSaved().stream().map(Ingestion::getStatusMessage).toList();
+    }
+
+    private List<Ingestion> captureSaved() {
+        ArgumentCaptor<Ingestion> saved = ArgumentCaptor.forClass(Ingestion.class);
+        verify(ingestionRepository, atLeastOnce()).save(saved.capture());
+        return saved.getAllValues();
+    }
+}
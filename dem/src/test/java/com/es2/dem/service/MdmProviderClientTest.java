@@ -0,0 +1,148 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.es2.dem.dto.MdmProviderResponseDTO;
+
+// Cache de provedores do DEM: busca única para chamadas simultâneas, validade das entradas,
+// uso do valor expirado quando o MDM falha e invalidação.
+class MdmProviderClientTest {
+
+    private static final String PROVIDER_URL = "http://mdm.test/api/providers/1";
+
+    private RestTemplate restTemplate;
+    private AtomicLong now;
+    private MdmProviderClient client;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        now = new AtomicLong(1_000_000);
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> now.get());
+        client = client(restTemplate, clock);
+    }
+
+    @Test
+    void concurrentCallsForTheSameProviderShareOneRequest() throws Exception {
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch releaseResponse = new CountDownLatch(1);
+        when(restTemplate.getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class)).thenAnswer(invocation -> {
+            requestStarted.countDown();
+            releaseResponse.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(provider("Provedor A"));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MdmProviderResponseDTO>> results = new ArrayList<>();
+            results.add(executor.submit(() -> client.getProvider(1)));
+            assertThat(requestStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> client.getProvider(1)));
+            }
+            Thread.sleep(100); // Dá tempo para as demais chamadas aguardarem a busca em andamento
+            releaseResponse.countDown();
+
+            for (Future<MdmProviderResponseDTO> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Provedor A");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(MdmProviderResponseDTO.class));
+    }
+
+    @Test
+    void cachedProviderIsFetchedAgainAfterItExpires() {
+        when(restTemplate.getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A")))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A alterado")));
+
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A");
+        now.addAndGet(59_000);
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A");
+        now.addAndGet(2_000);
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A alterado");
+
+        verify(restTemplate, times(2)).getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class);
+    }
+
+    @Test
+    void expiredProviderIsUsedWhileTheMdmIsUnavailable() {
+        when(restTemplate.getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A")))
+                .thenThrow(new ResourceAccessException("MDM indisponível"));
+
+        client.getProvider(1);
+        now.addAndGet(120_000); // Expirado, mas dentro do período de stale-if-error
+
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A");
+    }
+
+    @Test
+    void failureIsPropagatedOnceTheStaleIfErrorPeriodEnds() {
+        when(restTemplate.getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A")))
+                .thenThrow(new ResourceAccessException("MDM indisponível"));
+
+        client.getProvider(1);
+        now.addAndGet(361_000); // Validade (60 s) + stale-if-error (300 s) já esgotados
+
+        assertThatThrownBy(() -> client.getProvider(1)).isInstanceOf(ResourceAccessException.class);
+    }
+
+    @Test
+    void invalidatedProviderIsFetchedAgain() {
+        when(restTemplate.getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A")))
+                .thenReturn(ResponseEntity.ok(provider("Provedor A alterado")));
+
+        client.getProvider(1);
+        client.invalidate(1);
+
+        assertThat(client.getProvider(1).getName()).isEqualTo("Provedor A alterado");
+        verify(restTemplate, times(2)).getForEntity(PROVIDER_URL, MdmProviderResponseDTO.class);
+    }
+
+    static MdmProviderClient client(RestTemplate restTemplate, Clock clock) {
+        MdmProviderClient client = new MdmProviderClient(restTemplate, clock);
+        ReflectionTestUtils.setField(client, "mdmApiBaseUrl", "http://mdm.test/api");
+        ReflectionTestUtils.setField(client, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(client, "staleIfErrorSeconds", 300L);
+        ReflectionTestUtils.setField(client, "maxEntries", 16);
+        return client;
+    }
+
+    static MdmProviderResponseDTO provider(String name) {
+        MdmProviderResponseDTO provider = new MdmProviderResponseDTO();
+        provider.setId(1);
+        provider.setName(name);
+        provider.setApiUrl("http://provider.test/countries");
+        return provider;
+    }
+}
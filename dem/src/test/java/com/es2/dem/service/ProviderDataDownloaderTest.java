@@ -0,0 +1,134 @@
+package com.es2.dem.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.es2.dem.enums.StorageCompression;
+import com.es2.dem.service.ProviderDataDownloader.DownloadResult;
+
+// Download dos dados brutos de um provedor direto para o disco: cópia completa com hash do conteúdo,
+// busca condicional com os validadores da última ingestão e remoção do arquivo parcial quando a transferência falha no meio.
+class ProviderDataDownloaderTest {
+
+    private static final String PROVIDER_URL = "http://provider.test/countries";
+    private static final String BODY = "[{\"name\": {\"common\": \"Portugal\"}}, {\"name\": {\"common\": \"Brasil\"}}]";
+
+    @TempDir
+    Path tempDir;
+
+    private MockRestServiceServer providerServer;
+    private ProviderDataDownloader downloader;
+    private Path targetFile;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        providerServer = MockRestServiceServer.bindTo(restTemplate).build();
+        IngestionFileStore fileStore = new IngestionFileStore();
+        ReflectionTestUtils.setField(fileStore, "demStorageBasePath", tempDir.toString());
+        ReflectionTestUtils.setField(fileStore, "compression", StorageCompression.NONE);
+        ReflectionTestUtils.setField(fileStore, "ioBufferSize", 8192);
+        downloader = new ProviderDataDownloader(restTemplate, fileStore);
+        ReflectionTestUtils.setField(downloader, "downloadBufferSize", 16); // Várias iterações de cópia
+        targetFile = tempDir.resolve("raw.json");
+    }
+
+    @Test
+    void responseBodyIsCopiedToTheFileWithItsHash() throws Exception {
+        providerServer.expect(requestTo(PROVIDER_URL)).andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON));
+
+        DownloadResult result = downloader.downloadToFile(PROVIDER_URL, targetFile, null, null);
+
+        byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+        assertThat(result.notModified()).isFalse();
+        assertThat(result.bytes()).isEqualTo(bytes.length);
+        assertThat(result.contentHash())
+                .isEqualTo(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)));
+        assertThat(Files.readString(targetFile)).isEqualTo(BODY);
+    }
+
+    @Test
+    void validatorsOfTheResponseAreReturned() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"v2\"");
+        headers.set(HttpHeaders.LAST_MODIFIED, "Wed, 01 Jan 2025 10:00:00 GMT");
+        providerServer.expect(requestTo(PROVIDER_URL))
+                .andRespond(withSuccess(BODY, MediaType.APPLICATION_JSON).headers(headers));
+
+        DownloadResult result = downloader.downloadToFile(PROVIDER_URL, targetFile, null, null);
+
+        assertThat(result.etag()).isEqualTo("\"v2\"");
+        assertThat(result.lastModified()).isEqualTo("Wed, 01 Jan 2025 10:00:00 GMT");
+    }
+
+    @Test
+    void notModifiedResponseWritesNoFile() throws Exception {
+        providerServer.expect(requestTo(PROVIDER_URL))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andExpect(header(HttpHeaders.IF_MODIFIED_SINCE, "Wed, 01 Jan 2025 10:00:00 GMT"))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        DownloadResult result = downloader.downloadToFile(PROVIDER_URL, targetFile,
+                "\"v1\"", "Wed, 01 Jan 2025 10:00:00 GMT");
+
+        assertThat(result.notModified()).isTrue();
+        assertThat(targetFile).doesNotExist();
+        providerServer.verify();
+    }
+
+    @Test
+    void partialFileIsDeletedWhenTheDownloadFailsHalfway() {
+        // Entrega metade do corpo e então a conexão cai
+        InputStream truncatedBody = new SequenceInputStream(
+                new ByteArrayInputStream(BODY.substring(0, BODY.length() / 2).getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("Conexão encerrada pelo provedor");
+                    }
+                });
+        providerServer.expect(requestTo(PROVIDER_URL))
+                .andRespond(request -> new MockClientHttpResponse(truncatedBody, HttpStatus.OK));
+
+        assertThatThrownBy(() -> downloader.downloadToFile(PROVIDER_URL, targetFile, null, null))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Conexão encerrada");
+        assertThat(targetFile).doesNotExist();
+    }
+
+    @Test
+    void httpErrorLeavesNoFileBehind() {
+        providerServer.expect(requestTo(PROVIDER_URL)).andRespond(withServerError());
+
+        assertThatThrownBy(() -> downloader.downloadToFile(PROVIDER_URL, targetFile, null, null))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThat(targetFile).doesNotExist();
+    }
+}
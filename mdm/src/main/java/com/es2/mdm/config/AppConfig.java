@@ -1,15 +1,19 @@
 package com.es2.mdm.config;
 
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 // Configuração da classe AppConfig para definir beans do Spring 
 //que serão utilizados em toda a aplicação, como o RestTemplate para chamadas HTTP.
 public class AppConfig {
+    // RestTemplate sobre o cliente HTTP com pool de conexões (HttpClientConfig); criado pelo RestTemplateBuilder
+    // para que as chamadas também sejam registradas nas métricas http.client.requests
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory) {
+        return builder.requestFactory(() -> requestFactory).build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.es2.mdm.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+
+@Configuration
+// Configuração do cliente HTTP usado pelo RestTemplate nas chamadas ao DEM.
+// As conexões são mantidas abertas (keep-alive) e reutilizadas a partir de um pool com tamanho limitado,
+// e os tempos máximos de conexão, de leitura e de espera por uma conexão livre são configuráveis (mdm.http.*).
+// Com mdm.http.http2-enabled=true é usado o cliente HTTP do JDK, que negocia HTTP/2 e mantém o seu próprio pool
+// (sem métricas do pool).
+// Como o MDM só chama o DEM, um único host, o limite por host é o próprio mdm.http.max-per-route.
+// Esta classe espelha com.es2.dem.config.HttpClientConfig (que também limita as conexões por provedor externo).
+// DEM e MDM são projetos Maven independentes, implantados separadamente e sem módulo comum, por isso a configuração
+// do pool não é compartilhada; alterações no pool devem ser feitas nas duas classes.
+public class HttpClientConfig {
+
+    @Value("${mdm.http.connect-timeout-ms:5000}")   // Tempo máximo para abrir a conexão
+    private long connectTimeoutMs;
+
+    @Value("${mdm.http.read-timeout-ms:30000}")   // Tempo máximo sem receber dados numa resposta
+    private long readTimeoutMs;
+
+    @Value("${mdm.http.connection-request-timeout-ms:10000}")   // Tempo máximo de espera por uma conexão livre do pool
+    private long connectionRequestTimeoutMs;
+
+    @Value("${mdm.http.max-total:20}")   // Conexões no pool, somando todos os hosts
+    private int maxTotal;
+
+    @Value("${mdm.http.max-per-route:10}")   // Conexões por host (o DEM)
+    private int maxPerRoute;
+
+    @Value("${mdm.http.keep-alive-ms:30000}")   // Tempo que uma conexão ociosa é mantida, se o servidor não informar outro
+    private long keepAliveMs;
+
+    @Value("${mdm.http.idle-eviction-ms:10000}")   // Intervalo de remoção das conexões ociosas ou expiradas
+    private long idleEvictionMs;
+
+    @Value("${mdm.http.validate-after-inactivity-ms:2000}")   // Conexões ociosas há mais tempo são verificadas antes do uso
+    private long validateAfterInactivityMs;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "mdm.http.http2-enabled", havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "mdm.http.http2-enabled", havingValue = "false", matchIfMissing = true)
+    public ClientHttpRequestFactory pooledClientHttpRequestFactory(PoolingHttpClientConnectionManager connectionManager) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMs))
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionMs))
+                .evictExpiredConnections()
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient); // Fecha o cliente ao encerrar a aplicação
+    }
+
+    // Métricas do pool (httpcomponents.httpclient.pool.*) expostas pelo Actuator
+    @Bean
+    @ConditionalOnProperty(name = "mdm.http.http2-enabled", havingValue = "false", matchIfMissing = true)
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "mdm");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "mdm.http.http2-enabled", havingValue = "true")
+    public ClientHttpRequestFactory http2ClientHttpRequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return requestFactory;
+    }
+}
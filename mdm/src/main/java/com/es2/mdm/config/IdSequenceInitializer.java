@@ -0,0 +1,62 @@
+package com.es2.mdm.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.es2.mdm.model.Country;
+import com.es2.mdm.model.Currency;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@Component
+@DependsOn("entityManagerFactory") // O schema (incluindo as sequências) já deve ter sido atualizado pelo Hibernate
+public class IdSequenceInitializer {
+
+// Componente que alinha as sequências de IDs de Country e Currency aos IDs já existentes nas tabelas.
+// Bancos criados quando os IDs eram IDENTITY já possuem registros, mas a sequência criada pelo Hibernate começa em 1;
+// sem o alinhamento, os primeiros INSERTs gerariam IDs repetidos. Executado na inicialização, antes de a aplicação receber requisições.
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdSequenceInitializer(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        align("country_seq", "select coalesce(max(c.id), 0) from Country c", Country.ID_ALLOCATION_SIZE);
+        align("currency_seq", "select coalesce(max(c.currencyId), 0) from Currency c", Currency.ID_ALLOCATION_SIZE);
+    }
+
+    // Reinicia a sequência se o próximo bloco de IDs puder conter IDs já usados (tabela vazia: nada a alinhar).
+    // Com a alocação pooled, o valor obtido da sequência é o maior ID do bloco (o bloco é valor - allocationSize + 1 .. valor).
+    private void align(String sequenceName, String maxIdQuery, int allocationSize) {
+        Integer maxId;
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            maxId = entityManager.createQuery(maxIdQuery, Integer.class).getSingleResult();
+        } finally {
+            entityManager.close();
+        }
+        Long nextValue = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                Long.class, sequenceName.toUpperCase());
+        if (maxId == 0 || nextValue == null || nextValue - allocationSize + 1 > maxId) {
+            return;
+        }
+        long restartWith = (long) maxId + allocationSize;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequenceName + " RESTART WITH " + restartWith);
+        logger.info("Sequência {} reiniciada em {} (maior ID existente: {}).", sequenceName, restartWith, maxId);
+    }
+}
@@ -1,19 +1,26 @@
 package com.es2.mdm.controller;
 
-import java.util.List;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.es2.mdm.dto.DemIngestionFilterDTO;
+import com.es2.mdm.dto.DemIngestionPageDTO;
 import com.es2.mdm.dto.DemIngestionResponseDTO;
+import com.es2.mdm.service.DemIngestionEventRelay;
 import com.es2.mdm.service.DemIntegrationService;
 
 @RestController
@@ -21,11 +28,15 @@ import com.es2.mdm.service.DemIntegrationService;
 public class AdminController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TOTAL_PAGES_HEADER = "X-Total-Pages";
     private final DemIntegrationService demIntegrationService;
+    private final DemIngestionEventRelay demIngestionEventRelay;
     
     @Autowired
-    public AdminController(DemIntegrationService demIntegrationService) {
+    public AdminController(DemIntegrationService demIntegrationService, DemIngestionEventRelay demIngestionEventRelay) {
         this.demIntegrationService = demIntegrationService;
+        this.demIngestionEventRelay = demIngestionEventRelay;
     }
 
      
@@ -79,21 +90,38 @@ public class AdminController {
         }
     }
 
+
+    // Fluxo de eventos (Server-Sent Events) com as atualizações dos trabalhos de ingestão do DEM, repassadas à medida que ocorrem.
+    // Alternativa às consultas periódicas de status: cada evento "ingestion" traz o status atual de um job do DEM.
+    // Ao reconectar com o cabeçalho Last-Event-ID, os eventos perdidos ainda guardados são reenviados.
+    @GetMapping(path = "/ingest/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDemIngestionEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        logger.info("Cliente conectado ao fluxo de eventos de ingestão do DEM");
+        return demIngestionEventRelay.subscribe(lastEventId);
+    }
+
    
-    // Este endpoint é usado para consultar o status de todas ingestões no DEM.
-    // Ele retorna uma lista de objetos DemIngestionResponseDTO, cada um representando o status de um job de ingestão.
+    // Este endpoint é usado para consultar o status das ingestões no DEM, de forma paginada (dos mais recentes aos mais antigos).
+    // Parâmetros opcionais: page, size e sort, e os filtros de DemIngestionFilterDTO (status, mdmProviderId, createdFrom e createdTo),
+    // repassados ao DEM. A mensagem de status não é incluída na listagem (consulte /ingest/status/{demJobId}).
+    // Cabeçalhos: X-Total-Count e X-Total-Pages.
     @GetMapping("/ingest/status/all")
-    public ResponseEntity<?> getAllDemIngestionStatuses() {
-        logger.info("Recebida solicitação administrativa para verificar status de todos os jobs no DEM");
+    public ResponseEntity<?> getAllDemIngestionStatuses(DemIngestionFilterDTO filter,
+            @PageableDefault(size = 50, sort = {"createdAt", "id"}, direction = Sort.Direction.DESC) Pageable pageable) {
+        logger.info("Recebida solicitação administrativa para verificar status dos jobs no DEM (página {})", pageable.getPageNumber());
         try {
-            List<DemIngestionResponseDTO> demResponses = demIntegrationService.getAllDemIngestionJobs();
+            DemIngestionPageDTO demResponses = demIntegrationService.getDemIngestionJobs(filter, pageable);
             // A lista pode estar vazia se não houver jobs ou se houver um erro tratado no serviço que retorna lista vazia.
-            // Se demIntegrationService puder lançar exceções, o GlobalExceptionHandler do MDM pode pegá-las.
-            return ResponseEntity.ok(demResponses);
+            return ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(demResponses.totalCount()))
+                    .header(TOTAL_PAGES_HEADER, String.valueOf(demResponses.totalPages()))
+                    .body(demResponses.jobs());
+        } catch (IllegalArgumentException e) { // Filtro, página ou ordenação rejeitados pelo DEM
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) { // Captura exceções que podem vir do DemIntegrationService (se ele as lançar)
-            logger.error("Erro ao tentar verificar status de todos os jobs no DEM: ", e);
+            logger.error("Erro ao tentar verificar status dos jobs no DEM: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                 .body("Erro interno no MDM ao tentar consultar todos os status no DEM: " + e.getMessage());
+                                 .body("Erro interno no MDM ao tentar consultar os status no DEM: " + e.getMessage());
         }
     }
 }
@@ -1,9 +1,17 @@
 package com.es2.mdm.controller;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,10 +19,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.es2.mdm.dto.CallbackBatchDTO;
 import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.dto.CountryFilterDTO;
+import com.es2.mdm.dto.CountrySearchResultDTO;
+import com.es2.mdm.enums.SyncOperation;
+import com.es2.mdm.service.CallbackProcessingService;
+import com.es2.mdm.service.CallbackReceipt;
+import com.es2.mdm.service.CountryReadModel.Versioned;
 import com.es2.mdm.service.CountryService;
 
 import jakarta.validation.Valid;
@@ -27,12 +46,30 @@ public class CountryController {
 // Ele fornece endpoints para criar, listar, obter, atualizar e excluir países.
 // Ele utiliza o CountryService para realizar as operações de negócios relacionadas aos países.
 // As operações são realizadas através de requisições HTTP, onde cada método corresponde a um endpoint específico.
+// As consultas retornam um ETag com a versão dos dados de países; com If-None-Match igual à versão atual, a resposta é
+// 304 Not Modified, sem montar nem serializar os países.
+
+    private static final String SYNC_OPERATION_HEADER = "X-Sync-Operation";
+    private static final String PROVIDER_ID_HEADER = "X-Provider-Id";
+    private static final String INGESTION_ID_HEADER = "X-Ingestion-Id";
+    private static final String CHUNK_INDEX_HEADER = "X-Chunk-Index";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed"; // Presente quando o lote já havia sido recebido
+    // Cabeçalhos de paginação da listagem de países
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TOTAL_PAGES_HEADER = "X-Total-Pages";
+    private static final String NEXT_AFTER_ID_HEADER = "X-Next-After-Id";
+    private static final String DATA_VERSION_HEADER = "X-Data-Version"; // Versão do CountryReadModel usada na resposta
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_BUFFER_SIZE = 65536; // Buffer da compressão gzip da exportação
 
     private final CountryService countryService;
+    private final CallbackProcessingService callbackProcessingService;
 
     @Autowired
-    public CountryController(CountryService countryService) {
+    public CountryController(CountryService countryService, CallbackProcessingService callbackProcessingService) {
         this.countryService = countryService;
+        this.callbackProcessingService = callbackProcessingService;
     }
 
     /**
@@ -46,21 +83,118 @@ public class CountryController {
     }
 
     /**
-     * Lista todos os países. Endpoint: GET /countries
+     * Lista os países de forma paginada. Endpoint: GET /countries
+     * Parâmetros opcionais: page, size e sort (ex.: sort=countryName,asc), ou afterId para paginação por chave
+     * (países com ID maior que afterId, em ordem de ID; page e sort são ignorados).
+     * Filtros opcionais (CountryFilterDTO): currencyCode, minPopulation, maxPopulation, minArea, maxArea e namePrefix.
+     * O tamanho da página é limitado por spring.data.web.pageable.max-page-size.
+     * Cabeçalhos: X-Total-Count e X-Total-Pages (por página) ou X-Next-After-Id (por chave, se houver mais países),
+     * e X-Data-Version (versão dos dados de países usada na resposta). Suporta GET condicional (If-None-Match).
      */
     @GetMapping
-    public ResponseEntity<List<CountryDTO>> getAllCountries() {
-        List<CountryDTO> countries = countryService.getAllCountries();
-        return ResponseEntity.ok(countries);
+    public ResponseEntity<List<CountryDTO>> getAllCountries(CountryFilterDTO filter, Pageable pageable,
+            @RequestParam(required = false) Integer afterId, WebRequest request) {
+        if (request.checkNotModified(etagOf(countryService.getDataVersion()))) {
+            return null; // 304 Not Modified
+        }
+        if (afterId != null) {
+            // Busca um país a mais para saber se existe uma próxima página
+            Versioned<List<CountryDTO>> result = countryService.getCountriesAfter(filter, afterId,
+                    pageable.getPageSize() + 1);
+            List<CountryDTO> countries = result.value();
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(etagOf(result.version()));
+            headers.set(DATA_VERSION_HEADER, String.valueOf(result.version()));
+            if (countries.size() > pageable.getPageSize()) {
+                countries = countries.subList(0, pageable.getPageSize());
+                headers.set(NEXT_AFTER_ID_HEADER, String.valueOf(countries.get(countries.size() - 1).getId()));
+            }
+            return ResponseEntity.ok().headers(headers).body(countries);
+        }
+
+        Versioned<Page<CountryDTO>> result = countryService.getCountries(filter, pageable);
+        Page<CountryDTO> page = result.value();
+        return ResponseEntity.ok()
+                .eTag(etagOf(result.version()))
+                .header(DATA_VERSION_HEADER, String.valueOf(result.version()))
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.getTotalElements()))
+                .header(TOTAL_PAGES_HEADER, String.valueOf(page.getTotalPages()))
+                .body(page.getContent());
+    }
+
+    /**
+     * Exporta todos os países em NDJSON (um CountryDTO por linha). Endpoint: GET /countries/export
+     * A resposta é escrita em streaming, à medida que os países são lidos do banco, sem montar a lista em memória.
+     * Com Accept-Encoding: gzip, a resposta é comprimida (Content-Encoding: gzip).
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCountries(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE);
+                countryService.exportCountries(gzipOutputStream);
+                gzipOutputStream.finish();
+            } else {
+                countryService.exportCountries(outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Busca países pelo nome. Endpoint: GET /countries/search?name=...&limit=10
+     * Ignora acentos, maiúsculas e pontuação; aceita prefixos (do nome ou de qualquer palavra) e nomes aproximados.
+     * Retorna os países do mais ao menos relevante, com o tipo de correspondência e a pontuação (0 a 1).
+     * Suporta GET condicional (If-None-Match).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<CountrySearchResultDTO>> searchCountries(@RequestParam String name,
+            @RequestParam(defaultValue = "10") int limit, WebRequest request) {
+        if (request.checkNotModified(etagOf(countryService.getDataVersion()))) {
+            return null; // 304 Not Modified
+        }
+        Versioned<List<CountrySearchResultDTO>> result = countryService.searchCountriesByName(name, limit);
+        return ResponseEntity.ok()
+                .eTag(etagOf(result.version()))
+                .header(DATA_VERSION_HEADER, String.valueOf(result.version()))
+                .body(result.value());
+    }
+
+    /**
+     * Versão atual dos dados de países. Endpoint: GET /countries/version
+     * Permite que consumidores verifiquem se houve alterações sem baixar os países.
+     */
+    @GetMapping("/version")
+    public ResponseEntity<Map<String, Object>> getDataVersion() {
+        Versioned<Integer> result = countryService.getCountryCount();
+        return ResponseEntity.ok()
+                .header(DATA_VERSION_HEADER, String.valueOf(result.version()))
+                .body(Map.of("version", result.version(), "totalCountries", result.value()));
     }
 
     /**
      * Obtém um país pelo ID. Endpoint: GET /countries/{id}
+     * Suporta GET condicional (If-None-Match).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CountryDTO> getCountryById(@PathVariable Integer id) {
-        CountryDTO countryDTO = countryService.getCountryById(id); 
-        return ResponseEntity.ok(countryDTO);
+    public ResponseEntity<CountryDTO> getCountryById(@PathVariable Integer id, WebRequest request) {
+        if (request.checkNotModified(etagOf(countryService.getDataVersion()))) {
+            return null; // 304 Not Modified
+        }
+        Versioned<CountryDTO> result = countryService.getCountryById(id); 
+        return ResponseEntity.ok()
+                .eTag(etagOf(result.version()))
+                .header(DATA_VERSION_HEADER, String.valueOf(result.version()))
+                .body(result.value());
     }
 
     /**
@@ -84,17 +218,68 @@ public class CountryController {
     /**
      * Recebe uma lista de países processados pelo DEM. Endpoint: POST /countries/callback
      * Body: List<CountryDTO>
+     * Header opcional X-Sync-Operation: UPSERT (padrão) cria/atualiza os países; DELETE remove os países informados
+     * (identificados pelo código numérico ou pelo nome), que deixaram de existir no provedor.
+     * Header X-Provider-Id: provedor dos países do lote, obrigatório com DELETE; apenas os países sincronizados por ele
+     * são removidos.
+     * Headers opcionais X-Ingestion-Id e X-Chunk-Index identificam o lote.
+     * Header opcional Idempotency-Key: um reenvio com a mesma chave e o mesmo conteúdo não é aplicado de novo e recebe
+     * a resposta do lote original (com o cabeçalho Idempotent-Replayed: true); se o lote original terminou com falhas,
+     * ele é recolocado na fila e aplicado novamente. Com outro conteúdo, 409 Conflict.
+     * O lote é gravado e aplicado em segundo plano: a resposta é 202 Accepted com o ID do processamento (processingId)
+     * e o cabeçalho Location apontando para o endpoint de status.
      */
     @PostMapping("/callback")
-    public ResponseEntity<String> receiveCountries(@RequestBody List<CountryDTO> processedCountries) {
+    public ResponseEntity<Object> receiveCountries(@RequestBody List<CountryDTO> processedCountries,
+            @RequestHeader(value = SYNC_OPERATION_HEADER, required = false) String syncOperation,
+            @RequestHeader(value = PROVIDER_ID_HEADER, required = false) Integer providerId,
+            @RequestHeader(value = INGESTION_ID_HEADER, required = false) String ingestionId,
+            @RequestHeader(value = CHUNK_INDEX_HEADER, required = false) Integer chunkIndex,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        SyncOperation operation = SyncOperation.DELETE.name().equalsIgnoreCase(syncOperation)
+                ? SyncOperation.DELETE : SyncOperation.UPSERT;
         try {
-            
-            countryService.processAndSaveCountries(processedCountries);
-            return ResponseEntity.ok("Dados de países recebidos e processados com sucesso.");
+            CallbackReceipt receipt;
+            try {
+                receipt = callbackProcessingService.enqueue(processedCountries, operation, providerId, ingestionId,
+                        chunkIndex, idempotencyKey);
+            } catch (DataIntegrityViolationException e) {
+                if (idempotencyKey == null) {
+                    throw e;
+                }
+                // Outro envio com a mesma chave foi gravado ao mesmo tempo; a nova chamada o encontra
+                receipt = callbackProcessingService.enqueue(processedCountries, operation, providerId, ingestionId,
+                        chunkIndex, idempotencyKey);
+            }
+            CallbackBatchDTO batch = receipt.batch();
+            ResponseEntity.BodyBuilder response = ResponseEntity.accepted()
+                    .location(URI.create("/countries/callback/" + batch.getProcessingId()));
+            if (receipt.duplicate()) {
+                response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+            }
+            return response.body(batch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro ao processar dados dos países: " + e.getMessage());
+                    .body("Erro ao receber dados dos países: " + e.getMessage());
         }
     }
+
+    /**
+     * Status do processamento de um lote recebido no callback. Endpoint: GET /countries/callback/{processingId}
+     * Informa o status (QUEUED, PROCESSING, COMPLETED, COMPLETED_WITH_ERRORS ou FAILED) e os registros aplicados e com falha.
+     */
+    @GetMapping("/callback/{processingId}")
+    public ResponseEntity<CallbackBatchDTO> getCallbackStatus(@PathVariable Long processingId) {
+        return ResponseEntity.ok(callbackProcessingService.getBatch(processingId));
+    }
+
+    // ETag forte a partir da versão dos dados de países
+    private static String etagOf(long dataVersion) {
+        return "\"" + dataVersion + "\"";
+    }
 }
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.es2.mdm.dto.ProviderDTO;
 import com.es2.mdm.service.ProviderService;
@@ -27,6 +28,8 @@ public class ProviderController {
 // Ele fornece endpoints para criar, listar, obter, atualizar e excluir provedores de dados.
 // Ele utiliza o ProviderService para realizar as operações de negócios relacionadas aos provedores.
 // As operações são realizadas através de requisições HTTP, onde cada método corresponde a um endpoint específico.
+// As consultas retornam um ETag com a versão dos dados de provedores; com If-None-Match igual a ele, a resposta é
+// 304 Not Modified, sem acesso ao banco.
 
     private final ProviderService providerService;
 
@@ -48,20 +51,30 @@ public class ProviderController {
 
     /**
      * Lista todos os provedores. Endpoint: GET /mdm/api/providers
+     * Suporta GET condicional (If-None-Match).
      */
     @GetMapping
-    public ResponseEntity<List<ProviderDTO>> getAllProviders() {
+    public ResponseEntity<List<ProviderDTO>> getAllProviders(WebRequest request) {
+        String etag = etagOf(providerService.getDataVersion()); // Lida antes dos dados: nunca mais nova que eles
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
         List<ProviderDTO> providers = providerService.getAllProviders();
-        return ResponseEntity.ok(providers);
+        return ResponseEntity.ok().eTag(etag).body(providers);
     }
 
     /**
      * Obtém um provedor pelo ID. Endpoint: GET /mdm/api/providers/{id}
+     * Suporta GET condicional (If-None-Match).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProviderDTO> getProviderById(@PathVariable Integer id) {
+    public ResponseEntity<ProviderDTO> getProviderById(@PathVariable Integer id, WebRequest request) {
+        String etag = etagOf(providerService.getDataVersion());
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified
+        }
         ProviderDTO providerDTO = providerService.getProviderById(id);
-        return ResponseEntity.ok(providerDTO);
+        return ResponseEntity.ok().eTag(etag).body(providerDTO);
     }
 
     /**
@@ -82,4 +95,9 @@ public class ProviderController {
         providerService.deleteProvider(id);
         return ResponseEntity.noContent().build();
     }
+
+    // ETag forte a partir da versão dos dados
+    private static String etagOf(long dataVersion) {
+        return "\"" + dataVersion + "\"";
+    }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.es2.mdm.dto;
+
+public class CallbackBatchDTO {
+
+// DTO com o status do processamento de um lote recebido do DEM no callback.
+// Retornado na resposta 202 do callback e pelo endpoint de status (GET /countries/callback/{processingId}).
+
+    private Long processingId;
+    private String ingestionId;
+    private Integer chunkIndex;
+    private String idempotencyKey;
+    private String operation;
+    private String status;
+    private Integer totalRecords;
+    private Integer appliedRecords;
+    private Integer failedRecords;
+    private String lastError;
+    private String receivedAt;
+    private String startedAt;
+    private String completedAt;
+
+    public CallbackBatchDTO() {
+    }
+
+    public Long getProcessingId() {
+        return processingId;
+    }
+
+    public void setProcessingId(Long processingId) {
+        this.processingId = processingId;
+    }
+
+    public String getIngestionId() {
+        return ingestionId;
+    }
+
+    public void setIngestionId(String ingestionId) {
+        this.ingestionId = ingestionId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getTotalRecords() {
+        return totalRecords;
+    }
+
+    public void setTotalRecords(Integer totalRecords) {
+        this.totalRecords = totalRecords;
+    }
+
+    public Integer getAppliedRecords() {
+        return appliedRecords;
+    }
+
+    public void setAppliedRecords(Integer appliedRecords) {
+        this.appliedRecords = appliedRecords;
+    }
+
+    public Integer getFailedRecords() {
+        return failedRecords;
+    }
+
+    public void setFailedRecords(Integer failedRecords) {
+        this.failedRecords = failedRecords;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(String receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(String completedAt) {
+        this.completedAt = completedAt;
+    }
+}
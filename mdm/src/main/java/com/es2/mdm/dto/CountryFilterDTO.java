@@ -0,0 +1,72 @@
+package com.es2.mdm.dto;
+
+public class CountryFilterDTO {
+
+// DTO com os filtros da listagem de países (GET /countries), preenchido a partir dos parâmetros da requisição.
+// Todos os filtros são opcionais e combinados com "E"; os intervalos incluem os limites.
+// currencyCode e namePrefix não diferenciam maiúsculas de minúsculas.
+
+    private String currencyCode;
+    private Integer minPopulation;
+    private Integer maxPopulation;
+    private Float minArea;
+    private Float maxArea;
+    private String namePrefix;
+
+    public CountryFilterDTO() {
+    }
+
+    // Indica se algum filtro foi informado
+    public boolean isEmpty() {
+        return currencyCode == null && minPopulation == null && maxPopulation == null
+                && minArea == null && maxArea == null && namePrefix == null;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public void setCurrencyCode(String currencyCode) {
+        this.currencyCode = currencyCode;
+    }
+
+    public Integer getMinPopulation() {
+        return minPopulation;
+    }
+
+    public void setMinPopulation(Integer minPopulation) {
+        this.minPopulation = minPopulation;
+    }
+
+    public Integer getMaxPopulation() {
+        return maxPopulation;
+    }
+
+    public void setMaxPopulation(Integer maxPopulation) {
+        this.maxPopulation = maxPopulation;
+    }
+
+    public Float getMinArea() {
+        return minArea;
+    }
+
+    public void setMinArea(Float minArea) {
+        this.minArea = minArea;
+    }
+
+    public Float getMaxArea() {
+        return maxArea;
+    }
+
+    public void setMaxArea(Float maxArea) {
+        this.maxArea = maxArea;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+}
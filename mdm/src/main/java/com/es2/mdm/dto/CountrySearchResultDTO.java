@@ -0,0 +1,44 @@
+package com.es2.mdm.dto;
+
+public class CountrySearchResultDTO {
+
+// DTO de um resultado da busca de países por nome (GET /countries/search).
+// Inclui o país encontrado, o tipo de correspondência (EXACT, PREFIX, WORD_PREFIX ou FUZZY) e a pontuação, de 0 a 1.
+
+    private CountryDTO country;
+    private String matchType;
+    private double score;
+
+    public CountrySearchResultDTO() {
+    }
+
+    public CountrySearchResultDTO(CountryDTO country, String matchType, double score) {
+        this.country = country;
+        this.matchType = matchType;
+        this.score = score;
+    }
+
+    public CountryDTO getCountry() {
+        return country;
+    }
+
+    public void setCountry(CountryDTO country) {
+        this.country = country;
+    }
+
+    public String getMatchType() {
+        return matchType;
+    }
+
+    public void setMatchType(String matchType) {
+        this.matchType = matchType;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
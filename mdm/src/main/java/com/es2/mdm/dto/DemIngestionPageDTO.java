@@ -0,0 +1,7 @@
+package com.es2.mdm.dto;
+
+import java.util.List;
+
+// Página da listagem de ingestões do DEM, com os totais informados pelo DEM (X-Total-Count e X-Total-Pages).
+public record DemIngestionPageDTO(List<DemIngestionResponseDTO> jobs, long totalCount, int totalPages) {
+}
@@ -11,8 +11,18 @@ public class DemIngestionResponseDTO {
     private Integer id;
     private Integer mdmProviderId;
     private String status;
+    private String outcome;
     private String rawDataPath;
+    private Long rawDataBytes;
     private String transformedDataPath;
+    private String deltaDataPath;
+    private Integer totalChunks;
+    private Integer acknowledgedChunks;
+    private Integer lastAcknowledgedChunk;
+    private Integer newRecords;
+    private Integer changedRecords;
+    private Integer unchangedRecords;
+    private Integer deletedRecords;
     private String statusMessage;
     private String createdAt;
     private String updatedAt;
@@ -34,6 +44,16 @@ public class DemIngestionResponseDTO {
         return mdmProviderId;
     }
 
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
     public void setMdmProviderId(Integer mdmProviderId) {
         this.mdmProviderId = mdmProviderId;
     }
@@ -49,6 +69,16 @@ public class DemIngestionResponseDTO {
     }
 
 
+    public Long getRawDataBytes() {
+        return rawDataBytes;
+    }
+
+
+    public void setRawDataBytes(Long rawDataBytes) {
+        this.rawDataBytes = rawDataBytes;
+    }
+
+
     public String getTransformedDataPath() {
         return transformedDataPath;
     }
@@ -59,6 +89,86 @@ public class DemIngestionResponseDTO {
     }
 
 
+    public String getDeltaDataPath() {
+        return deltaDataPath;
+    }
+
+
+    public void setDeltaDataPath(String deltaDataPath) {
+        this.deltaDataPath = deltaDataPath;
+    }
+
+
+    public Integer getTotalChunks() {
+        return totalChunks;
+    }
+
+
+    public void setTotalChunks(Integer totalChunks) {
+        this.totalChunks = totalChunks;
+    }
+
+
+    public Integer getAcknowledgedChunks() {
+        return acknowledgedChunks;
+    }
+
+
+    public void setAcknowledgedChunks(Integer acknowledgedChunks) {
+        this.acknowledgedChunks = acknowledgedChunks;
+    }
+
+
+    public Integer getLastAcknowledgedChunk() {
+        return lastAcknowledgedChunk;
+    }
+
+
+    public void setLastAcknowledgedChunk(Integer lastAcknowledgedChunk) {
+        this.lastAcknowledgedChunk = lastAcknowledgedChunk;
+    }
+
+
+    public Integer getNewRecords() {
+        return newRecords;
+    }
+
+
+    public void setNewRecords(Integer newRecords) {
+        this.newRecords = newRecords;
+    }
+
+
+    public Integer getChangedRecords() {
+        return changedRecords;
+    }
+
+
+    public void setChangedRecords(Integer changedRecords) {
+        this.changedRecords = changedRecords;
+    }
+
+
+    public Integer getUnchangedRecords() {
+        return unchangedRecords;
+    }
+
+
+    public void setUnchangedRecords(Integer unchangedRecords) {
+        this.unchangedRecords = unchangedRecords;
+    }
+
+
+    public Integer getDeletedRecords() {
+        return deletedRecords;
+    }
+
+
+    public void setDeletedRecords(Integer deletedRecords) {
+        this.deletedRecords = deletedRecords;
+    }
+
+
     public String getStatusMessage() {
         return statusMessage;
     }
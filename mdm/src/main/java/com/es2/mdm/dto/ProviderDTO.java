@@ -1,5 +1,7 @@
 package com.es2.mdm.dto;
 
+import java.util.Map;
+
 import org.hibernate.validator.constraints.URL;
 
 import jakarta.validation.constraints.NotBlank;
@@ -29,6 +31,9 @@ public class ProviderDTO {
 
     private String description;
 
+    // Mapeamento dos dados brutos do provedor para CountryDTO/CurrencyDTO (campo de destino -> JSON Pointer), usado pelo DEM
+    private Map<String, String> fieldMappings;
+
     private String createdAt; 
     private String updatedAt; 
 
@@ -86,6 +91,14 @@ public class ProviderDTO {
         this.description = description;
     }
 
+    public Map<String, String> getFieldMappings() {
+        return fieldMappings;
+    }
+
+    public void setFieldMappings(Map<String, String> fieldMappings) {
+        this.fieldMappings = fieldMappings;
+    }
+
     public String getCreatedAt() {
         return createdAt;
     }
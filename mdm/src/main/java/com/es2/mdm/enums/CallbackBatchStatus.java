@@ -0,0 +1,12 @@
+package com.es2.mdm.enums;
+
+public enum CallbackBatchStatus {
+
+// Enumeração que representa os estados do processamento de um lote recebido do DEM no callback.
+
+    QUEUED,                 //Lote gravado, aguardando o worker
+    PROCESSING,             //Lote sendo aplicado aos países
+    COMPLETED,              //Todos os registros aplicados
+    COMPLETED_WITH_ERRORS,  //Lote processado, mas alguns registros não puderam ser aplicados
+    FAILED;                 //Lote não processado (ex.: conteúdo gravado ilegível)
+}
@@ -0,0 +1,10 @@
+package com.es2.mdm.enums;
+
+public enum SyncOperation {
+
+// Enumeração que representa a operação aplicada aos países de um lote recebido do DEM no callback.
+// Recebida no cabeçalho X-Sync-Operation de cada lote (ausente: UPSERT).
+
+    UPSERT,     //Países novos ou alterados: cria ou atualiza
+    DELETE;     //Países que deixaram de existir no provedor: apenas a chave (código numérico ou nome) é enviada
+}
@@ -10,6 +10,7 @@ import jakarta.persistence.EntityNotFoundException;
 
 // Classe GlobalExceptionHandler para tratar exceções de forma global na aplicação
 // Ela intercepta exceções do tipo EntityNotFoundException e retorna uma resposta HTTP 404 Not Found
+// e exceções do tipo IllegalArgumentException, retornando 400 Bad Request
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -19,4 +20,11 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    // Parâmetro de consulta inválido (ex.: campo de ordenação não suportado)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Object> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
+
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
 }
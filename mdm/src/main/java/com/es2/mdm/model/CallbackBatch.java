@@ -0,0 +1,237 @@
+package com.es2.mdm.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import com.es2.mdm.enums.CallbackBatchStatus;
+import com.es2.mdm.enums.SyncOperation;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+@Entity
+@Table(name = "callback_batch",
+        indexes = @Index(name = "idx_callback_batch_status", columnList = "status"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_callback_batch_idempotency_key", columnNames = "idempotency_key"))
+public class CallbackBatch {
+
+// Classe CallbackBatch representa um lote de países recebido do DEM no callback (POST /countries/callback).
+// O conteúdo do lote fica gravado em um arquivo (payload_file) até ser aplicado por um worker em segundo plano;
+// a entidade guarda a operação, o status e os contadores de registros aplicados e com falha, consultados pelo endpoint
+// de status do callback.
+// Lotes enviados com o cabeçalho Idempotency-Key guardam a chave (única) e o hash do conteúdo, usados para reconhecer
+// reenvios do mesmo lote.
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "ingestion_id", length = 50)
+    private String ingestionId; // Cabeçalho X-Ingestion-Id enviado pelo DEM
+
+    @Column(name = "chunk_index")
+    private Integer chunkIndex; // Cabeçalho X-Chunk-Index enviado pelo DEM
+
+    @Column(name = "provider_id")
+    private Integer providerId; // Cabeçalho X-Provider-Id enviado pelo DEM (provedor dos países do lote)
+
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey; // Cabeçalho Idempotency-Key enviado pelo DEM
+
+    @Column(name = "payload_hash", length = 64)
+    private String payloadHash; // SHA-256 da operação e do conteúdo do lote
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private SyncOperation operation;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private CallbackBatchStatus status;
+
+    @Column(name = "total_records", nullable = false)
+    private Integer totalRecords = 0;
+
+    @Column(name = "applied_records", nullable = false)
+    private Integer appliedRecords = 0;
+
+    @Column(name = "failed_records", nullable = false)
+    private Integer failedRecords = 0;
+
+    @Column(name = "payload_file", length = 500)
+    private String payloadFile; // Removido após o processamento
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public CallbackBatch() {
+    }
+
+    public CallbackBatch(String ingestionId, Integer chunkIndex, SyncOperation operation, Integer totalRecords) {
+        this.ingestionId = ingestionId;
+        this.chunkIndex = chunkIndex;
+        this.operation = operation;
+        this.totalRecords = totalRecords;
+        this.status = CallbackBatchStatus.QUEUED;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getIngestionId() {
+        return ingestionId;
+    }
+
+    public void setIngestionId(String ingestionId) {
+        this.ingestionId = ingestionId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public Integer getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(Integer providerId) {
+        this.providerId = providerId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getPayloadHash() {
+        return payloadHash;
+    }
+
+    public void setPayloadHash(String payloadHash) {
+        this.payloadHash = payloadHash;
+    }
+
+    public SyncOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(SyncOperation operation) {
+        this.operation = operation;
+    }
+
+    public CallbackBatchStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(CallbackBatchStatus status) {
+        this.status = status;
+    }
+
+    public Integer getTotalRecords() {
+        return totalRecords;
+    }
+
+    public void setTotalRecords(Integer totalRecords) {
+        this.totalRecords = totalRecords;
+    }
+
+    public Integer getAppliedRecords() {
+        return appliedRecords;
+    }
+
+    public void setAppliedRecords(Integer appliedRecords) {
+        this.appliedRecords = appliedRecords;
+    }
+
+    public Integer getFailedRecords() {
+        return failedRecords;
+    }
+
+    public void setFailedRecords(Integer failedRecords) {
+        this.failedRecords = failedRecords;
+    }
+
+    public String getPayloadFile() {
+        return payloadFile;
+    }
+
+    public void setPayloadFile(String payloadFile) {
+        this.payloadFile = payloadFile;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(LocalDateTime receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
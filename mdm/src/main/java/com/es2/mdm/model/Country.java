@@ -14,11 +14,18 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
-@Table(name = "country")
+@Table(name = "country", indexes = {
+        // Consultas por faixa de população e de área (CountryName e NumericCode já são indexados pela restrição unique)
+        @Index(name = "idx_country_population", columnList = "Population"),
+        @Index(name = "idx_country_area", columnList = "Area")
+})
 public class Country {
 
 // Classe Country representa um país, incluindo informações como nome, código numérico, capital, população, área e moedas.
@@ -26,8 +33,13 @@ public class Country {
 // A classe também possui relacionamentos com a entidade Currency: um país pode ter várias moedas associadas a ele.
 // As anotações @CreationTimestamp e @UpdateTimestamp são usadas para gerenciar automaticamente os timestamps de criação e atualização.
 
+    public static final int ID_ALLOCATION_SIZE = 50; // IDs reservados por acesso à sequência
+
+    // IDs gerados por sequência com alocação em blocos (pooled), o que permite inserções em lote via JDBC.
+    // Com IDENTITY, o Hibernate precisa executar cada INSERT individualmente para obter o ID gerado.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "country_seq")
+    @SequenceGenerator(name = "country_seq", sequenceName = "country_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "CountryID")
     private Integer id;
 
@@ -46,10 +58,22 @@ public class Country {
     @Column(name = "Area")
     private Float area;
 
+    // Provedor cuja sincronização (callback do DEM) criou ou atualizou o país por último; nulo para países mantidos
+    // apenas pela API. Uma remoção enviada por um provedor só alcança os países sincronizados por ele.
+    @Column(name = "SyncProviderID")
+    private Integer syncProviderId;
+
     // Relacionamento OneToMany com a entidade Currency
     @OneToMany(mappedBy = "country", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Currency> currencies = new ArrayList<>();
 
+    // Controle de concorrência otimista: uma atualização baseada em uma versão já alterada por outra transação falha
+    // (OptimisticLockException) em vez de sobrescrever a alteração. O valor padrão cobre os países já existentes
+    // quando a coluna é adicionada pela atualização do schema.
+    @Version
+    @Column(name = "Version", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "CreatedAt", updatable = false)
     private LocalDateTime createdAt;
@@ -117,6 +141,14 @@ public class Country {
         this.area = area;
     }
 
+    public Integer getSyncProviderId() {
+        return syncProviderId;
+    }
+
+    public void setSyncProviderId(Integer syncProviderId) {
+        this.syncProviderId = syncProviderId;
+    }
+
     public List<Currency> getCurrencies() {
         return currencies;
     }
@@ -146,6 +178,14 @@ public class Country {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
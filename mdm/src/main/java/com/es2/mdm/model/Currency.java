@@ -11,20 +11,28 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 //
 @Entity
-@Table(name = "currency")
+@Table(name = "currency", indexes = {
+        @Index(name = "idx_currency_code", columnList = "CurrencyCode") // Consultas de países por código de moeda
+})
 public class Currency {
 
 // Classe Currency representa uma moeda, incluindo informações como código, nome, símbolo e o país ao qual pertence.
 // Ela inclui anotações JPA para mapear a classe como uma entidade persistente e definir as colunas do banco de dados.
 
+    public static final int ID_ALLOCATION_SIZE = 50; // IDs reservados por acesso à sequência
+
+    // IDs gerados por sequência com alocação em blocos, como em Country, para permitir inserções em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_seq")
+    @SequenceGenerator(name = "currency_seq", sequenceName = "currency_seq", allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "CurrencyID")
     private Integer currencyId;
 
@@ -1,16 +1,23 @@
 package com.es2.mdm.model; 
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Lob;
+import jakarta.persistence.MapKeyColumn;
 import jakarta.persistence.Table;
 
 @Entity
@@ -38,6 +45,14 @@ public class Provider {
     @Column
     private String description;
 
+    // Mapeamento usado pelo DEM para transformar os dados brutos do provedor: campo de destino -> expressão JSON Pointer
+    // (ex.: countryName -> /name/common). Vazio: o DEM usa o mapeamento padrão (formato da RestCountries).
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "provider_field_mapping", joinColumns = @JoinColumn(name = "provider_id"))
+    @MapKeyColumn(name = "target_field", length = 100)
+    @Column(name = "json_pointer", length = 500, nullable = false)
+    private Map<String, String> fieldMappings = new HashMap<>();
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -96,6 +111,14 @@ public class Provider {
         this.description = description;
     }
 
+    public Map<String, String> getFieldMappings() {
+        return fieldMappings;
+    }
+
+    public void setFieldMappings(Map<String, String> fieldMappings) {
+        this.fieldMappings = fieldMappings;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
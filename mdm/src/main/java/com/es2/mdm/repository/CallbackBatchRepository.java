@@ -0,0 +1,40 @@
+package com.es2.mdm.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.es2.mdm.enums.CallbackBatchStatus;
+import com.es2.mdm.model.CallbackBatch;
+
+// Repositório para a entidade CallbackBatch, estendendo JpaRepository para operações CRUD.
+@Repository
+public interface CallbackBatchRepository extends JpaRepository<CallbackBatch, Long> {
+
+    // Lotes nos status informados, na ordem de recebimento (retomada dos lotes pendentes na inicialização)
+    List<CallbackBatch> findByStatusInOrderByIdAsc(Collection<CallbackBatchStatus> statuses);
+
+    // Lotes nos status informados concluídos antes do instante informado (limpeza dos lotes antigos)
+    List<CallbackBatch> findByStatusInAndCompletedAtBefore(Collection<CallbackBatchStatus> statuses, LocalDateTime completedBefore);
+
+    // Lote já recebido com a chave de idempotência informada
+    Optional<CallbackBatch> findByIdempotencyKey(String idempotencyKey);
+
+    // Coloca o lote de volta na fila (QUEUED, contadores zerados) somente se ele ainda estiver em um dos status
+    // informados. Retorna 1 se o lote foi recolocado na fila, ou 0 se o status já havia mudado (ex.: reenvio simultâneo).
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update CallbackBatch b set b.status = com.es2.mdm.enums.CallbackBatchStatus.QUEUED, b.appliedRecords = 0, "
+            + "b.failedRecords = 0, b.lastError = null, b.startedAt = null, b.completedAt = null, "
+            + "b.payloadFile = :payloadFile, b.updatedAt = :updatedAt where b.id = :id and b.status in :statuses")
+    int requeueIf(@Param("id") Long id, @Param("statuses") Collection<CallbackBatchStatus> statuses,
+                  @Param("payloadFile") String payloadFile, @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -1,15 +1,49 @@
 package com.es2.mdm.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.es2.mdm.model.Country;
 
+import jakarta.persistence.QueryHint;
+
 // Repositório para a entidade Country, estendendo JpaRepository para operações CRUD.
 @Repository
 public interface CountryRepository extends JpaRepository<Country, Integer> {
     Optional<Country> findByNumericCode(Integer numericCode);
     Optional<Country> findByCountryName(String countryName); 
+
+    // Busca, em uma única consulta, os países de um lote pelo código numérico ou pelo nome, já com as moedas carregadas
+    @Query("select c from Country c left join fetch c.currencies "
+            + "where c.numericCode in :numericCodes or c.countryName in :countryNames")
+    List<Country> findAllWithCurrenciesByNumericCodeInOrCountryNameIn(@Param("numericCodes") Collection<Integer> numericCodes,
+                                                                     @Param("countryNames") Collection<String> countryNames);
+
+    // Todos os países com as moedas carregadas na mesma consulta (sem uma consulta extra por país)
+    @EntityGraph(attributePaths = "currencies")
+    @Query("select c from Country c order by c.id")
+    List<Country> findAllWithCurrencies();
+
+    // Países com os IDs informados, com as moedas carregadas na mesma consulta
+    @EntityGraph(attributePaths = "currencies")
+    List<Country> findAllWithCurrenciesByIdIn(Collection<Integer> ids);
+
+    // IDs dos países maiores que afterId, em ordem de ID, até o limite informado (paginação por chave da exportação)
+    @Query("select c.id from Country c where c.id > :afterId order by c.id")
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Limit limit);
+
+    // Países com os IDs informados, com as moedas carregadas na mesma consulta, em ordem de ID e somente leitura
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select c from Country c left join fetch c.currencies where c.id in :ids order by c.id")
+    List<Country> findAllWithCurrenciesByIdInOrderById(@Param("ids") Collection<Integer> ids);
 }
@@ -0,0 +1,6 @@
+package com.es2.mdm.service;
+
+// Evento publicado pelo CallbackProcessingService quando um lote do callback é gravado.
+// Após o commit da transação, o lote entra na fila da sua ingestão (ingestionId) e é aplicado aos países por um worker.
+public record CallbackBatchQueuedEvent(Long batchId, String ingestionId) {
+}
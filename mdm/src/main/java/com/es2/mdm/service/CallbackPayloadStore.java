@@ -0,0 +1,104 @@
+package com.es2.mdm.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.enums.SyncOperation;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+@Component
+public class CallbackPayloadStore {
+
+// Componente responsável pelos arquivos com o conteúdo dos lotes recebidos no callback, em mdm.callback.storage-path.
+// Cada lote é gravado como JSON comprimido com GZIP (callback_<id>.json.gz) até ser aplicado pelo worker
+// e removido em seguida.
+// Também calcula o hash do conteúdo de um lote, comparado nos reenvios com a mesma chave de idempotência.
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackPayloadStore.class);
+
+    @Value("${mdm.callback.storage-path:./data/mdm/callbacks}")   // Diretório dos lotes pendentes
+    private String storagePath;
+
+    @Value("${mdm.callback.io-buffer-size:65536}")   // Tamanho do buffer de leitura/escrita (bytes)
+    private int ioBufferSize;
+
+    private final ObjectWriter payloadWriter;
+    private final ObjectReader payloadReader;
+
+    @Autowired
+    public CallbackPayloadStore(ObjectMapper objectMapper) {
+        this.payloadWriter = objectMapper.writerFor(new TypeReference<List<CountryDTO>>() { })
+                .without(SerializationFeature.INDENT_OUTPUT);
+        this.payloadReader = objectMapper.readerFor(new TypeReference<List<CountryDTO>>() { });
+    }
+
+    // Grava o conteúdo do lote e retorna o caminho do arquivo.
+    public Path write(Long batchId, List<CountryDTO> countries) throws IOException {
+        Path file = fileOf(batchId);
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file), ioBufferSize)) {
+            payloadWriter.writeValue(out, countries);
+        }
+        return file;
+    }
+
+    // Caminho do arquivo do lote
+    public Path fileOf(Long batchId) {
+        return Paths.get(storagePath).resolve("callback_" + batchId + ".json.gz");
+    }
+
+    // SHA-256 (hexadecimal) da operação e dos países do lote, serializados em JSON. Depende apenas do conteúdo,
+    // e não do formato em que o lote foi recebido (JSON ou Smile).
+    public String digest(SyncOperation operation, List<CountryDTO> countries) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM.", e);
+        }
+        digest.update(operation.name().getBytes(StandardCharsets.UTF_8));
+        try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            payloadWriter.writeValue(out, countries);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public List<CountryDTO> read(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), ioBufferSize), ioBufferSize)) {
+            return payloadReader.readValue(in);
+        }
+    }
+
+    // Remove o arquivo do lote; uma falha apenas é registrada
+    public void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover o arquivo do lote {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.es2.mdm.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.es2.mdm.dto.CallbackBatchDTO;
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.enums.CallbackBatchStatus;
+import com.es2.mdm.enums.SyncOperation;
+import com.es2.mdm.model.CallbackBatch;
+import com.es2.mdm.repository.CallbackBatchRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+
+@Service
+public class CallbackProcessingService {
+
+// Serviço responsável pelo processamento assíncrono dos lotes recebidos do DEM no callback (POST /countries/callback).
+// O callback apenas grava o lote (CallbackBatch + arquivo com o conteúdo) e responde 202 com o ID do processamento;
+// após o commit, o lote é entregue a um worker em segundo plano, que o aplica aos países em transações de até
+// mdm.callback.apply-batch-size registros (CountryService), sem manter uma transação longa aberta durante todo o lote.
+// Se uma transação falhar, os registros dela são aplicados um a um, para que apenas os registros com erro fiquem de fora.
+// Lotes ainda pendentes quando a aplicação é encerrada são retomados na inicialização seguinte.
+// Aplicação paralela (mdm.callback.parallel-apply): os registros do lote são divididos em partições pela faixa da chave
+// do país (CountryKeyLocks) e as partições são aplicadas ao mesmo tempo, cada transação com os locks das faixas dos
+// seus países. Assim, lotes de provedores diferentes processados ao mesmo tempo só se serializam nos países em comum;
+// conflitos restantes (ex.: o mesmo país identificado pelo código em um lote e pelo nome em outro) são detectados
+// pela versão do país (@Version) e a transação é repetida.
+// Ordem: os lotes de uma mesma ingestão (X-Ingestion-Id; os lotes sem ingestão formam uma fila própria) são aplicados
+// um de cada vez, em ordem de ID (ordem de recebimento), de modo que um lote mais recente nunca é confirmado antes de
+// um anterior da mesma ingestão. Os mdm.callback.workers atendem ingestões diferentes ao mesmo tempo; dentro de um lote,
+// o paralelismo vem das partições. Ingestões diferentes não têm ordem entre si.
+// Idempotência: um lote enviado com o cabeçalho Idempotency-Key (o DEM usa a ingestão e o índice do lote) é gravado com
+// a chave e o hash do conteúdo. Um reenvio com a mesma chave e o mesmo conteúdo (ex.: nova tentativa do DEM após perder
+// a resposta) não é aplicado de novo: retorna o lote original. Se o lote original terminou FAILED ou
+// COMPLETED_WITH_ERRORS, o reenvio o coloca de volta na fila e ele é aplicado novamente (o DEM reenvia com a mesma chave
+// os lotes aplicados com falhas). A mesma chave com outro conteúdo é recusada.
+// Retenção: lotes concluídos há mais de mdm.callback.retention-hours são removidos periodicamente (purgeExpiredBatches).
+// Um reenvio recebido depois disso é gravado como um lote novo; a retenção deve cobrir o tempo em que o DEM ainda pode
+// reenviar um lote (tentativas e retomadas da ingestão).
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackProcessingService.class);
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_APPLY_ATTEMPTS = 3; // Tentativas de uma transação em caso de conflito de versão
+    private static final long PROGRESS_INTERVAL_MS = 1000; // Intervalo de gravação do progresso do lote
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100; // Tamanho da coluna idempotency_key
+    // Status em que um reenvio com a mesma chave aplica o lote novamente
+    private static final List<CallbackBatchStatus> REAPPLIED_STATUSES =
+            List.of(CallbackBatchStatus.FAILED, CallbackBatchStatus.COMPLETED_WITH_ERRORS);
+    private static final List<CallbackBatchStatus> FINISHED_STATUSES = List.of(CallbackBatchStatus.COMPLETED,
+            CallbackBatchStatus.COMPLETED_WITH_ERRORS, CallbackBatchStatus.FAILED);
+
+    @Value("${mdm.callback.apply-batch-size:100}")  // Registros aplicados por transação
+    private int applyBatchSize;
+
+    @Value("${mdm.callback.workers:2}")    // Lotes de ingestões diferentes processados ao mesmo tempo
+    private int workerCount;
+
+    @Value("${mdm.callback.parallel-apply:true}")   // Aplica as partições de um lote em paralelo
+    private boolean parallelApply;
+
+    @Value("${mdm.callback.apply-parallelism:0}")   // Partições aplicadas em paralelo (0: núcleos disponíveis, até 4)
+    private int applyParallelism;
+
+    @Value("${mdm.callback.retention-hours:168}")   // Tempo em que os lotes concluídos são guardados
+    private long retentionHours;
+
+    private final CallbackBatchRepository callbackBatchRepository;
+    private final CallbackPayloadStore callbackPayloadStore;
+    private final CountryService countryService;
+    private final CountryKeyLocks countryKeyLocks;
+    private final ApplicationEventPublisher eventPublisher;
+    private ExecutorService workers; // Coordenam o processamento de cada lote
+    private final Map<String, SortedSet<Long>> queuesByIngestion = new HashMap<>(); // Lotes aguardando, por ingestão
+    private ExecutorService appliers; // Aplicam as partições dos lotes (compartilhados entre os lotes)
+
+    @Autowired
+    public CallbackProcessingService(CallbackBatchRepository callbackBatchRepository, CallbackPayloadStore callbackPayloadStore,
+                                     CountryService countryService, CountryKeyLocks countryKeyLocks,
+                                     ApplicationEventPublisher eventPublisher) {
+        this.callbackBatchRepository = callbackBatchRepository;
+        this.callbackPayloadStore = callbackPayloadStore;
+        this.countryService = countryService;
+        this.countryKeyLocks = countryKeyLocks;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Cada transação de aplicação usa uma conexão do pool (e uma segunda, por instantes, na atualização do modelo
+    // de leitura), por isso o paralelismo automático é limitado a 4.
+    @PostConstruct
+    void start() {
+        if (applyParallelism <= 0) {
+            applyParallelism = Math.min(Runtime.getRuntime().availableProcessors(), 4);
+        }
+        workers = Executors.newFixedThreadPool(workerCount, Thread.ofPlatform().name("mdm-callback-worker-", 0).factory());
+        appliers = Executors.newFixedThreadPool(applyParallelism, Thread.ofPlatform().name("mdm-callback-apply-", 0).factory());
+        logger.info("Processamento do callback iniciado: {} workers, aplicação {} ({} partições).", workerCount,
+                parallelApply ? "paralela" : "sequencial", parallelApply ? applyParallelism : 1);
+    }
+
+    // Grava o lote recebido (status QUEUED) e o agenda para processamento após o commit.
+    // Com idempotencyKey, um lote já recebido com a mesma chave e o mesmo conteúdo é retornado sem ser gravado novamente
+    // (ou recolocado na fila, se tiver terminado com falhas: duplicateOf); se o conteúdo for diferente, lança uma
+    // IllegalStateException. Se o arquivo do lote não puder ser gravado, a transação é desfeita.
+    // Dois reenvios simultâneos da mesma chave: a gravação do segundo falha pela restrição de unicidade da chave
+    // (DataIntegrityViolationException) e a chamada pode ser repetida para obter o lote original.
+    // Um lote DELETE precisa do provedor (providerId): só os países sincronizados por ele são removidos.
+    @Transactional(rollbackFor = IOException.class)
+    public CallbackReceipt enqueue(List<CountryDTO> countries, SyncOperation operation, Integer providerId,
+                                   String ingestionId, Integer chunkIndex, String idempotencyKey) throws IOException {
+        if (operation == SyncOperation.DELETE && providerId == null) {
+            throw new IllegalArgumentException("X-Provider-Id é obrigatório em lotes com X-Sync-Operation: DELETE.");
+        }
+        List<CountryDTO> payload = countries == null ? List.of() : countries;
+        String payloadHash = null;
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException("Idempotency-Key inválida: deve ter entre 1 e "
+                        + MAX_IDEMPOTENCY_KEY_LENGTH + " caracteres.");
+            }
+            payloadHash = callbackPayloadStore.digest(operation, payload);
+            Optional<CallbackBatch> original = callbackBatchRepository.findByIdempotencyKey(idempotencyKey);
+            if (original.isPresent()) {
+                return duplicateOf(original.get(), payloadHash, payload);
+            }
+        }
+        CallbackBatch newBatch = new CallbackBatch(ingestionId, chunkIndex, operation, payload.size());
+        newBatch.setProviderId(providerId);
+        newBatch.setIdempotencyKey(idempotencyKey);
+        newBatch.setPayloadHash(payloadHash);
+        CallbackBatch batch = callbackBatchRepository.save(newBatch);
+        Path payloadFile = callbackPayloadStore.write(batch.getId(), payload);
+        batch.setPayloadFile(payloadFile.toString());
+        eventPublisher.publishEvent(new CallbackBatchQueuedEvent(batch.getId(), ingestionId));
+        logger.info("Lote de callback {} recebido ({} {}, ingestão {}, lote {}).", batch.getId(),
+                batch.getTotalRecords(), operation, ingestionId, chunkIndex);
+        return new CallbackReceipt(convertToDTO(batch), false);
+    }
+
+    // Reenvio de um lote já recebido, se o conteúdo for o mesmo: o lote original.
+    // Um lote que terminou FAILED ou COMPLETED_WITH_ERRORS é recolocado na fila com o conteúdo reenviado e aplicado de
+    // novo após o commit. A troca de status é condicional (requeueIf): entre reenvios simultâneos, só um recoloca o lote.
+    private CallbackReceipt duplicateOf(CallbackBatch original, String payloadHash, List<CountryDTO> payload)
+            throws IOException {
+        if (!payloadHash.equals(original.getPayloadHash())) {
+            throw new IllegalStateException("Idempotency-Key " + original.getIdempotencyKey()
+                    + " já foi usada pelo lote " + original.getId() + " com outro conteúdo.");
+        }
+        if (REAPPLIED_STATUSES.contains(original.getStatus())) {
+            Long batchId = original.getId();
+            CallbackBatchStatus previousStatus = original.getStatus();
+            Path payloadFile = callbackPayloadStore.fileOf(batchId);
+            if (callbackBatchRepository.requeueIf(batchId, REAPPLIED_STATUSES, payloadFile.toString(),
+                    LocalDateTime.now()) == 1) {
+                callbackPayloadStore.write(batchId, payload);
+                eventPublisher.publishEvent(new CallbackBatchQueuedEvent(batchId, original.getIngestionId()));
+                logger.info("Lote de callback repetido (Idempotency-Key {}): o lote {} terminou {} e será aplicado novamente.",
+                        original.getIdempotencyKey(), batchId, previousStatus);
+            }
+            // Recolocado na fila por este reenvio ou por um reenvio simultâneo
+            CallbackBatch requeued = callbackBatchRepository.findById(batchId)
+                    .orElseThrow(() -> new EntityNotFoundException("Callback batch not found with id: " + batchId));
+            return new CallbackReceipt(convertToDTO(requeued), true);
+        }
+        logger.info("Lote de callback repetido (Idempotency-Key {}): retornando o lote {} ({}), sem aplicá-lo novamente.",
+                original.getIdempotencyKey(), original.getId(), original.getStatus());
+        return new CallbackReceipt(convertToDTO(original), true);
+    }
+
+    // Status do processamento de um lote.
+    // Se o lote não for encontrado, lança uma EntityNotFoundException.
+    @Transactional(readOnly = true)
+    public CallbackBatchDTO getBatch(Long processingId) {
+        CallbackBatch batch = callbackBatchRepository.findById(processingId)
+                .orElseThrow(() -> new EntityNotFoundException("Callback batch not found with id: " + processingId));
+        return convertToDTO(batch);
+    }
+
+    // Entrega o lote ao worker somente após o commit, para que o worker encontre o lote e o arquivo gravados.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onBatchQueued(CallbackBatchQueuedEvent event) {
+        schedule(event.ingestionId(), event.batchId());
+    }
+
+    // Retoma os lotes que ficaram pendentes (na fila ou em processamento) no encerramento anterior.
+    // Reaplicar um lote interrompido é seguro: a inclusão/atualização e a remoção de países são idempotentes.
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingBatches() {
+        List<CallbackBatch> pending = callbackBatchRepository.findByStatusInOrderByIdAsc(
+                List.of(CallbackBatchStatus.QUEUED, CallbackBatchStatus.PROCESSING));
+        if (!pending.isEmpty()) {
+            logger.info("Retomando {} lote(s) de callback pendente(s).", pending.size());
+        }
+        pending.forEach(batch -> schedule(batch.getIngestionId(), batch.getId()));
+    }
+
+    // Coloca o lote na fila da sua ingestão. Se a fila estava vazia, um worker passa a atendê-la (drain) até esvaziá-la;
+    // caso contrário, o lote será aplicado pelo worker que já atende a fila, após os lotes de ID menor.
+    private void schedule(String ingestionId, Long batchId) {
+        synchronized (queuesByIngestion) {
+            SortedSet<Long> queue = queuesByIngestion.get(ingestionId);
+            if (queue != null) {
+                queue.add(batchId);
+                return;
+            }
+            queue = new TreeSet<>();
+            queue.add(batchId);
+            queuesByIngestion.put(ingestionId, queue);
+        }
+        workers.execute(() -> drain(ingestionId));
+    }
+
+    // Aplica os lotes da fila da ingestão, um de cada vez e em ordem de ID, até a fila esvaziar.
+    // No encerramento, os lotes restantes continuam QUEUED e são retomados na inicialização seguinte.
+    private void drain(String ingestionId) {
+        while (true) {
+            Long batchId;
+            synchronized (queuesByIngestion) {
+                SortedSet<Long> queue = queuesByIngestion.get(ingestionId);
+                if (queue.isEmpty() || workers.isShutdown()) {
+                    queuesByIngestion.remove(ingestionId);
+                    return;
+                }
+                batchId = queue.first();
+                queue.remove(batchId);
+            }
+            process(batchId);
+        }
+    }
+
+    // Remove os lotes concluídos há mais de retentionHours, com os arquivos que ainda restarem (lotes FAILED).
+    @Scheduled(fixedDelayString = "${mdm.callback.cleanup-interval-ms:3600000}")
+    @Transactional
+    public int purgeExpiredBatches() {
+        List<CallbackBatch> expired = callbackBatchRepository.findByStatusInAndCompletedAtBefore(FINISHED_STATUSES,
+                LocalDateTime.now().minusHours(retentionHours));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        callbackBatchRepository.deleteAllInBatch(expired);
+        expired.stream()
+                .filter(batch -> batch.getPayloadFile() != null)
+                .forEach(batch -> callbackPayloadStore.delete(Paths.get(batch.getPayloadFile())));
+        logger.info("{} lote(s) de callback concluído(s) há mais de {} horas removido(s).", expired.size(), retentionHours);
+        return expired.size();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Lote de callback ainda em processamento no encerramento; será retomado na próxima inicialização.");
+            workers.shutdownNow();
+        }
+        appliers.shutdownNow();
+    }
+
+    private void process(Long batchId) {
+        try {
+            applyBatch(batchId);
+        } catch (RuntimeException e) {
+            // Ex.: falha ao registrar o progresso; o lote continua pendente e é retomado na próxima inicialização
+            logger.error("Erro não tratado no lote de callback {}: ", batchId, e);
+        }
+    }
+
+    // Aplica um lote aos países, em transações de até applyBatchSize registros, registrando o progresso no lote.
+    private void applyBatch(Long batchId) {
+        CallbackBatch batch = callbackBatchRepository.findById(batchId).orElse(null);
+        if (batch == null || (batch.getStatus() != CallbackBatchStatus.QUEUED
+                && batch.getStatus() != CallbackBatchStatus.PROCESSING)) {
+            return;
+        }
+        batch.setStatus(CallbackBatchStatus.PROCESSING);
+        batch.setStartedAt(LocalDateTime.now());
+        batch.setAppliedRecords(0);
+        batch.setFailedRecords(0);
+        batch = callbackBatchRepository.save(batch);
+
+        Path payloadFile = Paths.get(batch.getPayloadFile());
+        List<CountryDTO> countries;
+        try {
+            countries = callbackPayloadStore.read(payloadFile);
+        } catch (IOException e) {
+            logger.error("Não foi possível ler o lote de callback {}: {}", batchId, e.getMessage());
+            batch.setStatus(CallbackBatchStatus.FAILED);
+            batch.setLastError(truncate("Erro ao ler o lote: " + e.getMessage()));
+            batch.setCompletedAt(LocalDateTime.now());
+            callbackBatchRepository.save(batch);
+            return;
+        }
+
+        // Partições aplicadas pelos appliers; o progresso é gravado periodicamente enquanto elas são aplicadas
+        Progress progress = new Progress();
+        SyncOperation operation = batch.getOperation();
+        Integer providerId = batch.getProviderId();
+        List<List<CountryDTO>> partitions = partition(countries, parallelApply ? applyParallelism : 1);
+        CompletionService<Void> completion = new ExecutorCompletionService<>(appliers);
+        for (List<CountryDTO> partition : partitions) {
+            completion.submit(() -> applyPartition(batchId, operation, providerId, partition, progress), null);
+        }
+        try {
+            int remaining = partitions.size();
+            while (remaining > 0) {
+                Future<Void> done = completion.poll(PROGRESS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (done != null) {
+                    done.get();
+                    remaining--;
+                }
+                batch = saveProgress(batch, progress); // Progresso visível no endpoint de status
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Encerramento: o lote continua em PROCESSING e é retomado
+            return;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erro ao aplicar uma partição do lote " + batchId, e.getCause());
+        }
+
+        batch.setStatus(batch.getFailedRecords() == 0 ? CallbackBatchStatus.COMPLETED
+                : CallbackBatchStatus.COMPLETED_WITH_ERRORS);
+        batch.setCompletedAt(LocalDateTime.now());
+        batch.setPayloadFile(null);
+        callbackBatchRepository.save(batch);
+        callbackPayloadStore.delete(payloadFile);
+        logger.info("Lote de callback {} processado: {} aplicados, {} com falha ({} partições).", batchId,
+                batch.getAppliedRecords(), batch.getFailedRecords(), partitions.size());
+    }
+
+    // Divide os registros em partições pela faixa da chave (faixa % partições), mantendo a ordem do lote em cada partição:
+    // registros repetidos de um mesmo país caem na mesma partição e são aplicados na ordem em que chegaram.
+    private List<List<CountryDTO>> partition(List<CountryDTO> countries, int partitionCount) {
+        List<List<CountryDTO>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (CountryDTO country : countries) {
+            partitions.get(countryKeyLocks.stripeOf(country) % partitionCount).add(country);
+        }
+        partitions.removeIf(List::isEmpty);
+        return partitions;
+    }
+
+    // Aplica uma partição em transações de até applyBatchSize registros, em ordem
+    private void applyPartition(Long batchId, SyncOperation operation, Integer providerId, List<CountryDTO> partition,
+                                Progress progress) {
+        for (int from = 0; from < partition.size(); from += applyBatchSize) {
+            List<CountryDTO> slice = partition.subList(from, Math.min(from + applyBatchSize, partition.size()));
+            try {
+                applyWithLocks(operation, providerId, slice);
+                progress.applied.addAndGet(slice.size());
+            } catch (RuntimeException e) {
+                logger.warn("Lote de callback {}: falha ao aplicar {} registros em conjunto ({}); aplicando um a um.",
+                        batchId, slice.size(), e.getMessage());
+                applyOneByOne(batchId, operation, providerId, slice, progress);
+            }
+        }
+    }
+
+    private void applyOneByOne(Long batchId, SyncOperation operation, Integer providerId, List<CountryDTO> countries,
+                               Progress progress) {
+        for (CountryDTO country : countries) {
+            try {
+                applyWithLocks(operation, providerId, List.of(country));
+                progress.applied.incrementAndGet();
+            } catch (RuntimeException e) {
+                progress.failed.incrementAndGet();
+                progress.lastError = truncate("País '" + country.getCountryName() + "' (" + country.getNumericCode()
+                        + "): " + e.getMessage());
+                logger.warn("Lote de callback {}: falha ao aplicar o país '{}': {}", batchId,
+                        country.getCountryName(), e.getMessage());
+            }
+        }
+    }
+
+    // Aplica os registros em uma transação, com os locks das faixas das suas chaves; em caso de conflito de versão
+    // com outra transação, repete até MAX_APPLY_ATTEMPTS vezes.
+    private void applyWithLocks(SyncOperation operation, Integer providerId, List<CountryDTO> countries) {
+        SortedSet<Integer> stripes = countries.stream()
+                .map(countryKeyLocks::stripeOf)
+                .collect(Collectors.toCollection(TreeSet::new));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                countryKeyLocks.callWithLocks(stripes, () -> {
+                    apply(operation, providerId, countries);
+                    return null;
+                });
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_APPLY_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Conflito de versão ao aplicar {} registros (tentativa {}); repetindo.", countries.size(), attempt);
+            }
+        }
+    }
+
+    private CallbackBatch saveProgress(CallbackBatch batch, Progress progress) {
+        batch.setAppliedRecords(progress.applied.get());
+        batch.setFailedRecords(progress.failed.get());
+        if (progress.lastError != null) {
+            batch.setLastError(progress.lastError);
+        }
+        return callbackBatchRepository.save(batch);
+    }
+
+    // Contadores do lote, atualizados pelos appliers
+    private static final class Progress {
+        private final AtomicInteger applied = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile String lastError;
+    }
+
+    // Cada chamada ao CountryService é uma transação própria
+    private void apply(SyncOperation operation, Integer providerId, List<CountryDTO> countries) {
+        if (operation == SyncOperation.DELETE) {
+            countryService.deleteSyncedCountries(countries, providerId);
+        } else {
+            countryService.processAndSaveCountries(countries, providerId);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private CallbackBatchDTO convertToDTO(CallbackBatch batch) {
+        CallbackBatchDTO dto = new CallbackBatchDTO();
+        dto.setProcessingId(batch.getId());
+        dto.setIngestionId(batch.getIngestionId());
+        dto.setChunkIndex(batch.getChunkIndex());
+        dto.setIdempotencyKey(batch.getIdempotencyKey());
+        dto.setOperation(batch.getOperation().name());
+        dto.setStatus(batch.getStatus().name());
+        dto.setTotalRecords(batch.getTotalRecords());
+        dto.setAppliedRecords(batch.getAppliedRecords());
+        dto.setFailedRecords(batch.getFailedRecords());
+        dto.setLastError(batch.getLastError());
+        if (batch.getReceivedAt() != null) {
+            dto.setReceivedAt(batch.getReceivedAt().format(formatter));
+        }
+        if (batch.getStartedAt() != null) {
+            dto.setStartedAt(batch.getStartedAt().format(formatter));
+        }
+        if (batch.getCompletedAt() != null) {
+            dto.setCompletedAt(batch.getCompletedAt().format(formatter));
+        }
+        return dto;
+    }
+}
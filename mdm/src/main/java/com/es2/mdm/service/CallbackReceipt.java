@@ -0,0 +1,8 @@
+package com.es2.mdm.service;
+
+import com.es2.mdm.dto.CallbackBatchDTO;
+
+// Resultado do recebimento de um lote no callback.
+// duplicate indica que um lote com a mesma Idempotency-Key já havia sido recebido; batch é então o lote original.
+public record CallbackReceipt(CallbackBatchDTO batch, boolean duplicate) {
+}
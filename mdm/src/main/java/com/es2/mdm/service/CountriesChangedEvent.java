@@ -0,0 +1,8 @@
+package com.es2.mdm.service;
+
+import java.util.Set;
+
+// Evento publicado pelo CountryService quando países são criados, alterados ou excluídos.
+// Após o commit da transação, o CountryService atualiza o CountryReadModel com os países informados.
+public record CountriesChangedEvent(Set<Integer> changedCountryIds, Set<Integer> deletedCountryIds) {
+}
@@ -0,0 +1,63 @@
+package com.es2.mdm.service;
+
+import java.util.SortedSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.es2.mdm.dto.CountryDTO;
+
+@Component
+public class CountryKeyLocks {
+
+// Locks por faixa (striped locks) da chave dos países recebidos no callback: o código numérico ou, na falta dele, o nome.
+// Cada chave pertence a uma faixa fixa (hash da chave); escritas de países da mesma faixa, vindas de lotes
+// processados ao mesmo tempo (ex.: callbacks de provedores diferentes), são serializadas, enquanto faixas diferentes
+// são aplicadas em paralelo. A quantidade de faixas limita a memória usada, independentemente do número de países.
+
+    private final ReentrantLock[] stripes;
+
+    @Autowired
+    public CountryKeyLocks(@Value("${mdm.callback.lock-stripes:64}") int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    // Faixa da chave do país
+    public int stripeOf(CountryDTO country) {
+        int hash = country.getNumericCode() != null ? Integer.hashCode(country.getNumericCode())
+                : country.getCountryName() != null ? country.getCountryName().hashCode() : 0;
+        return Math.floorMod(hash * 0x9E3779B9, stripes.length); // Espalha códigos numéricos sequenciais entre as faixas
+    }
+
+    // Executa a ação com os locks das faixas informadas, adquiridos em ordem crescente (a mesma ordem em todas as
+    // threads, o que evita deadlocks) e liberados ao final.
+    // A ação deve abrir e confirmar a sua própria transação, para que os locks só sejam liberados após o commit.
+    public <T> T callWithLocks(SortedSet<Integer> stripeIndexes, Supplier<T> action) {
+        int acquired = 0;
+        try {
+            for (Integer stripe : stripeIndexes) {
+                stripes[stripe].lock();
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            int released = 0;
+            for (Integer stripe : stripeIndexes) {
+                if (released++ == acquired) {
+                    break;
+                }
+                stripes[stripe].unlock();
+            }
+        }
+    }
+}
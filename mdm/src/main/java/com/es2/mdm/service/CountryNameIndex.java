@@ -0,0 +1,257 @@
+package com.es2.mdm.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.es2.mdm.dto.CountryDTO;
+
+public final class CountryNameIndex {
+
+// Índice imutável de nomes de países para a busca por nome (GET /countries/search).
+// Os nomes são normalizados (normalize): sem acentos, em minúsculas, sem apóstrofos e com a pontuação trocada por espaços,
+// de modo que "Côte d'Ivoire" e "cote divoire" resultam na mesma chave.
+// - Trie: cada nome normalizado é inserido a partir do início e a partir do início de cada palavra, para buscas por prefixo.
+// - Trigramas: para cada trigrama, os países cujo nome o contém; usados na busca aproximada (coeficiente de Dice).
+// A atualização (with) é incremental: só os nós da trie no caminho dos nomes alterados e as listas dos trigramas
+// afetados são copiados; o restante é compartilhado com o índice anterior, que continua válido para as leituras em curso.
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['’`´]");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+    private static final double PREFIX_SCORE = 0.9; // Nome começa com a busca
+    private static final double WORD_PREFIX_SCORE = 0.8; // Alguma palavra do nome começa com a busca
+    private static final double MIN_FUZZY_SCORE = 0.3; // Similaridade mínima para a busca aproximada
+
+    public static final CountryNameIndex EMPTY = new CountryNameIndex(TrieNode.EMPTY, Map.of(), Map.of());
+
+    private final TrieNode trie;
+    private final Map<String, Set<Integer>> idsByTrigram;
+    private final Map<Integer, IndexedName> namesById; // Nome normalizado de cada país indexado
+
+    private CountryNameIndex(TrieNode trie, Map<String, Set<Integer>> idsByTrigram, Map<Integer, IndexedName> namesById) {
+        this.trie = trie;
+        this.idsByTrigram = idsByTrigram;
+        this.namesById = namesById;
+    }
+
+    // Nome normalizado e quantidade de trigramas distintos do nome (denominador da similaridade)
+    private record IndexedName(String name, int trigramCount) {
+    }
+
+    // Tipo de correspondência de um resultado, em ordem de relevância
+    public enum MatchType {
+        EXACT, PREFIX, WORD_PREFIX, FUZZY
+    }
+
+    // País encontrado, com o tipo de correspondência e a pontuação (0 a 1)
+    public record Match(Integer countryId, MatchType matchType, double score) {
+    }
+
+    public static CountryNameIndex build(Collection<CountryDTO> countries) {
+        return EMPTY.with(countries, Set.of());
+    }
+
+    // Novo índice com os países alterados (re)indexados e os IDs removidos fora do índice
+    public CountryNameIndex with(Collection<CountryDTO> changedCountries, Set<Integer> removedIds) {
+        Map<Integer, IndexedName> names = new HashMap<>(namesById);
+        Map<String, Set<Integer>> trigrams = new HashMap<>(idsByTrigram);
+        Set<String> copiedTrigrams = new HashSet<>(); // Listas já copiadas nesta atualização
+        TrieNode root = trie;
+
+        Set<Integer> idsToUnindex = new HashSet<>(removedIds);
+        changedCountries.forEach(country -> idsToUnindex.add(country.getId()));
+        for (Integer id : idsToUnindex) {
+            IndexedName indexedName = names.remove(id);
+            if (indexedName == null) {
+                continue;
+            }
+            for (String key : keysOf(indexedName.name())) {
+                root = root.remove(key, 0, id);
+            }
+            for (String trigram : trigramsOf(indexedName.name())) {
+                mutableIds(trigrams, copiedTrigrams, trigram).remove(id);
+            }
+        }
+        for (CountryDTO country : changedCountries) {
+            String name = normalize(country.getCountryName());
+            if (name.isEmpty()) {
+                continue;
+            }
+            Set<String> nameTrigrams = trigramsOf(name);
+            names.put(country.getId(), new IndexedName(name, nameTrigrams.size()));
+            for (String key : keysOf(name)) {
+                root = root.add(key, 0, country.getId());
+            }
+            for (String trigram : nameTrigrams) {
+                mutableIds(trigrams, copiedTrigrams, trigram).add(country.getId());
+            }
+        }
+        copiedTrigrams.forEach(trigram -> trigrams.remove(trigram, Set.of())); // Trigramas que ficaram sem países
+        return new CountryNameIndex(root, trigrams, names);
+    }
+
+    // Países cujo nome corresponde à busca, do mais ao menos relevante (até limit).
+    // Correspondências exatas e por prefixo vêm da trie; as demais, da similaridade de trigramas com o nome completo.
+    public List<Match> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Integer, Match> matches = new HashMap<>();
+
+        TrieNode prefixNode = trie.find(normalizedQuery);
+        if (prefixNode != null) {
+            Set<Integer> ids = new LinkedHashSet<>();
+            prefixNode.collectIds(ids);
+            for (Integer id : ids) {
+                String name = namesById.get(id).name();
+                Match match;
+                if (name.equals(normalizedQuery)) {
+                    match = new Match(id, MatchType.EXACT, 1.0);
+                } else if (name.startsWith(normalizedQuery)) {
+                    match = new Match(id, MatchType.PREFIX, PREFIX_SCORE);
+                } else {
+                    match = new Match(id, MatchType.WORD_PREFIX, WORD_PREFIX_SCORE);
+                }
+                matches.put(id, match);
+            }
+        }
+
+        // Trigramas em comum com a busca, por país (apenas os países que compartilham algum trigrama são visitados)
+        Set<String> queryTrigrams = trigramsOf(normalizedQuery);
+        Map<Integer, Integer> sharedTrigrams = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (Integer id : idsByTrigram.getOrDefault(trigram, Set.of())) {
+                sharedTrigrams.merge(id, 1, Integer::sum);
+            }
+        }
+        sharedTrigrams.forEach((id, shared) -> {
+            if (matches.containsKey(id)) {
+                return;
+            }
+            double score = 2.0 * shared / (queryTrigrams.size() + namesById.get(id).trigramCount());
+            if (score >= MIN_FUZZY_SCORE) {
+                matches.put(id, new Match(id, MatchType.FUZZY, score));
+            }
+        });
+
+        List<Match> ranked = new ArrayList<>(matches.values());
+        ranked.sort(Comparator.comparingDouble(Match::score).reversed()
+                .thenComparing(match -> namesById.get(match.countryId()).name()));
+        return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+    }
+
+    // Forma normalizada de um nome, usada tanto na indexação quanto na busca
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        folded = APOSTROPHES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(folded).replaceAll(" ").trim();
+    }
+
+    // Chaves do nome na trie: o nome inteiro e o trecho a partir de cada palavra seguinte
+    private static List<String> keysOf(String normalizedName) {
+        List<String> keys = new ArrayList<>();
+        keys.add(normalizedName);
+        for (int i = normalizedName.indexOf(' '); i >= 0; i = normalizedName.indexOf(' ', i + 1)) {
+            keys.add(normalizedName.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // Trigramas do nome com um espaço antes e depois, para que o início e o fim das palavras também contem
+    private static Set<String> trigramsOf(String normalizedName) {
+        String padded = " " + normalizedName + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Lista de IDs do trigrama que pode ser alterada: copiada na primeira alteração, pois a original é compartilhada
+    private static Set<Integer> mutableIds(Map<String, Set<Integer>> trigrams, Set<String> copiedTrigrams, String trigram) {
+        if (copiedTrigrams.add(trigram)) {
+            Set<Integer> ids = new HashSet<>(trigrams.getOrDefault(trigram, Set.of()));
+            trigrams.put(trigram, ids);
+            return ids;
+        }
+        return trigrams.get(trigram);
+    }
+
+    // Nó imutável da trie: as alterações devolvem um novo nó, copiando apenas o caminho até a chave alterada
+    private static final class TrieNode {
+
+        static final TrieNode EMPTY = new TrieNode(Map.of(), Set.of());
+
+        private final Map<Character, TrieNode> children;
+        private final Set<Integer> ids; // Países com alguma chave que termina neste nó
+
+        private TrieNode(Map<Character, TrieNode> children, Set<Integer> ids) {
+            this.children = children;
+            this.ids = ids;
+        }
+
+        TrieNode add(String key, int position, Integer id) {
+            if (position == key.length()) {
+                Set<Integer> newIds = new HashSet<>(ids);
+                newIds.add(id);
+                return new TrieNode(children, Collections.unmodifiableSet(newIds));
+            }
+            TrieNode child = children.getOrDefault(key.charAt(position), EMPTY);
+            Map<Character, TrieNode> newChildren = new HashMap<>(children);
+            newChildren.put(key.charAt(position), child.add(key, position + 1, id));
+            return new TrieNode(Collections.unmodifiableMap(newChildren), ids);
+        }
+
+        TrieNode remove(String key, int position, Integer id) {
+            if (position == key.length()) {
+                Set<Integer> newIds = new HashSet<>(ids);
+                newIds.remove(id);
+                return new TrieNode(children, Collections.unmodifiableSet(newIds));
+            }
+            TrieNode child = children.get(key.charAt(position));
+            if (child == null) {
+                return this;
+            }
+            TrieNode newChild = child.remove(key, position + 1, id);
+            Map<Character, TrieNode> newChildren = new HashMap<>(children);
+            if (newChild.isEmpty()) {
+                newChildren.remove(key.charAt(position));
+            } else {
+                newChildren.put(key.charAt(position), newChild);
+            }
+            return new TrieNode(Collections.unmodifiableMap(newChildren), ids);
+        }
+
+        TrieNode find(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node;
+        }
+
+        void collectIds(Set<Integer> result) {
+            result.addAll(ids);
+            children.values().forEach(child -> child.collectIds(result));
+        }
+
+        private boolean isEmpty() {
+            return ids.isEmpty() && children.isEmpty();
+        }
+    }
+}
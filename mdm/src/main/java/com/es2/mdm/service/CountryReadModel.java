@@ -0,0 +1,303 @@
+package com.es2.mdm.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.dto.CountryFilterDTO;
+import com.es2.mdm.dto.CurrencyDTO;
+
+@Component
+public class CountryReadModel {
+
+// Modelo de leitura em memória dos países: um retrato imutável (Snapshot) de todos os CountryDTOs,
+// indexado por ID, código numérico e nome, e com índices ordenados para os filtros da listagem
+// (código de moeda, população, área e prefixo do nome) e com o índice da busca por nome (CountryNameIndex).
+// As leituras apenas obtêm o retrato atual (AtomicReference), sem bloqueio e sem acesso ao banco.
+// Após cada escrita confirmada (commit), o CountryService aplica as alterações: um novo retrato é montado a partir do
+// anterior e substitui o atual de forma atômica. Cada retrato tem uma versão, que só aumenta; a versão inicial é o
+// instante da inicialização (ms), de modo que também aumenta entre reinícios da aplicação.
+// Os CountryDTOs do retrato são compartilhados entre as leituras e não devem ser alterados.
+
+    private final AtomicReference<Snapshot> current =
+            new AtomicReference<>(new Snapshot(System.currentTimeMillis(), List.of(), CountryNameIndex.EMPTY));
+
+    // Retrato atual dos países
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    // Substitui todos os países (carga inicial).
+    public synchronized void replaceAll(Collection<CountryDTO> countries) {
+        current.set(new Snapshot(current.get().version() + 1, countries, CountryNameIndex.build(countries)));
+    }
+
+    // Aplica as alterações de uma escrita confirmada: países criados/alterados e IDs de países excluídos.
+    // As escritas são serializadas; as leituras continuam usando o retrato anterior até a troca.
+    public synchronized void apply(Collection<CountryDTO> changedCountries, Set<Integer> deletedCountryIds) {
+        Snapshot previous = current.get();
+        Map<Integer, CountryDTO> countriesById = new HashMap<>(previous.byId);
+        deletedCountryIds.forEach(countriesById::remove);
+        changedCountries.forEach(country -> countriesById.put(country.getId(), country));
+        CountryNameIndex nameIndex = previous.nameIndex.with(changedCountries, deletedCountryIds); // Atualização incremental
+        current.set(new Snapshot(previous.version() + 1, countriesById.values(), nameIndex));
+    }
+
+    // Resultado de uma leitura com a versão do retrato em que foi feita
+    public record Versioned<T>(T value, long version) {
+    }
+
+    // Retrato imutável dos países em uma versão
+    public static final class Snapshot {
+
+        private final long version;
+        private final List<CountryDTO> countries; // Ordenados por ID
+        private final Map<Integer, CountryDTO> byId;
+        private final Map<Integer, CountryDTO> byNumericCode;
+        private final Map<String, CountryDTO> byCountryName;
+        // Índices dos filtros; países sem o valor indexado (nulo) ficam fora do índice correspondente
+        private final Map<String, List<CountryDTO>> byCurrencyCode; // Código em maiúsculas -> países, ordenados por ID
+        private final SortedIndex<Integer> byPopulation;
+        private final SortedIndex<Float> byArea;
+        private final SortedIndex<String> byLowerCaseName;
+        private final CountryNameIndex nameIndex;
+
+        private Snapshot(long version, Collection<CountryDTO> countries, CountryNameIndex nameIndex) {
+            List<CountryDTO> sorted = new ArrayList<>(countries);
+            sorted.sort(Comparator.comparing(CountryDTO::getId));
+            Map<Integer, CountryDTO> byId = new HashMap<>();
+            Map<Integer, CountryDTO> byNumericCode = new HashMap<>();
+            Map<String, CountryDTO> byCountryName = new HashMap<>();
+            Map<String, List<CountryDTO>> byCurrencyCode = new HashMap<>();
+            for (CountryDTO country : sorted) {
+                byId.put(country.getId(), country);
+                if (country.getNumericCode() != null) {
+                    byNumericCode.put(country.getNumericCode(), country);
+                }
+                if (country.getCountryName() != null) {
+                    byCountryName.put(country.getCountryName(), country);
+                }
+                for (String currencyCode : currencyCodesOf(country)) {
+                    byCurrencyCode.computeIfAbsent(currencyCode, code -> new ArrayList<>()).add(country);
+                }
+            }
+            this.version = version;
+            this.countries = Collections.unmodifiableList(sorted);
+            this.byId = byId;
+            this.byNumericCode = byNumericCode;
+            this.byCountryName = byCountryName;
+            this.byCurrencyCode = byCurrencyCode;
+            this.byPopulation = new SortedIndex<>(sorted, CountryDTO::getPopulation);
+            this.byArea = new SortedIndex<>(sorted, CountryDTO::getArea);
+            this.byLowerCaseName = new SortedIndex<>(sorted, country -> country.getCountryName() == null ? null
+                    : country.getCountryName().toLowerCase(Locale.ROOT));
+            this.nameIndex = nameIndex;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        // Todos os países, ordenados por ID
+        public List<CountryDTO> countries() {
+            return countries;
+        }
+
+        public int size() {
+            return countries.size();
+        }
+
+        public Optional<CountryDTO> findById(Integer id) {
+            return Optional.ofNullable(byId.get(id));
+        }
+
+        public Optional<CountryDTO> findByNumericCode(Integer numericCode) {
+            return Optional.ofNullable(byNumericCode.get(numericCode));
+        }
+
+        public Optional<CountryDTO> findByCountryName(String countryName) {
+            return Optional.ofNullable(byCountryName.get(countryName));
+        }
+
+        // Países que atendem aos filtros, ordenados por ID.
+        // Cada filtro informado seleciona um intervalo no seu índice (busca binária, ou busca direta para a moeda);
+        // o menor desses intervalos é percorrido e os seus países são verificados contra os demais filtros.
+        // Lança IllegalArgumentException se um intervalo tiver o mínimo maior que o máximo.
+        public List<CountryDTO> query(CountryFilterDTO filter) {
+            if (filter == null || filter.isEmpty()) {
+                return countries;
+            }
+            Integer minPopulation = filter.getMinPopulation();
+            Integer maxPopulation = filter.getMaxPopulation();
+            Float minArea = filter.getMinArea();
+            Float maxArea = filter.getMaxArea();
+            checkRange("população", minPopulation, maxPopulation);
+            checkRange("área", minArea, maxArea);
+            String currencyCode = normalize(filter.getCurrencyCode(), true);
+            String namePrefix = normalize(filter.getNamePrefix(), false);
+
+            List<CountryDTO> candidates = countries;
+            boolean candidatesSortedById = true;
+            List<Predicate<CountryDTO>> conditions = new ArrayList<>();
+            if (currencyCode != null) {
+                candidates = byCurrencyCode.getOrDefault(currencyCode, List.of());
+                conditions.add(country -> currencyCodesOf(country).contains(currencyCode));
+            }
+            if (minPopulation != null || maxPopulation != null) {
+                List<CountryDTO> range = byPopulation.range(minPopulation, maxPopulation);
+                if (range.size() < candidates.size()) {
+                    candidates = range;
+                    candidatesSortedById = false;
+                }
+                conditions.add(country -> inRange(country.getPopulation(), minPopulation, maxPopulation));
+            }
+            if (minArea != null || maxArea != null) {
+                List<CountryDTO> range = byArea.range(minArea, maxArea);
+                if (range.size() < candidates.size()) {
+                    candidates = range;
+                    candidatesSortedById = false;
+                }
+                conditions.add(country -> inRange(country.getArea(), minArea, maxArea));
+            }
+            if (namePrefix != null) {
+                // Nomes com o prefixo ficam entre o próprio prefixo e o prefixo seguido do maior caractere
+                List<CountryDTO> range = byLowerCaseName.range(namePrefix, namePrefix + Character.MAX_VALUE);
+                if (range.size() < candidates.size()) {
+                    candidates = range;
+                    candidatesSortedById = false;
+                }
+                conditions.add(country -> country.getCountryName() != null
+                        && country.getCountryName().toLowerCase(Locale.ROOT).startsWith(namePrefix));
+            }
+
+            List<CountryDTO> result = new ArrayList<>();
+            for (CountryDTO country : candidates) {
+                if (conditions.stream().allMatch(condition -> condition.test(country))) {
+                    result.add(country);
+                }
+            }
+            if (!candidatesSortedById) {
+                result.sort(Comparator.comparing(CountryDTO::getId));
+            }
+            return result;
+        }
+
+        // Busca por nome (exata, por prefixo ou aproximada), do resultado mais ao menos relevante
+        public List<CountryNameIndex.Match> searchByName(String query, int limit) {
+            return nameIndex.search(query, limit);
+        }
+
+        // Até limit países com ID maior que afterId, em ordem de ID
+        public List<CountryDTO> countriesAfter(Integer afterId, int limit) {
+            return after(countries, afterId, limit);
+        }
+
+        // Até limit países da lista (ordenada por ID) com ID maior que afterId (busca binária)
+        public static List<CountryDTO> after(List<CountryDTO> countriesSortedById, Integer afterId, int limit) {
+            int low = 0;
+            int high = countriesSortedById.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (countriesSortedById.get(middle).getId() <= afterId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return countriesSortedById.subList(low, Math.min(low + limit, countriesSortedById.size()));
+        }
+
+        private static Set<String> currencyCodesOf(CountryDTO country) {
+            Set<String> currencyCodes = new HashSet<>();
+            if (country.getCurrencies() != null) {
+                for (CurrencyDTO currency : country.getCurrencies()) {
+                    if (currency.getCurrencyCode() != null) {
+                        currencyCodes.add(currency.getCurrencyCode().toUpperCase(Locale.ROOT));
+                    }
+                }
+            }
+            return currencyCodes;
+        }
+
+        // Filtro de texto sem diferenciar maiúsculas de minúsculas; texto em branco equivale a filtro ausente
+        private static String normalize(String value, boolean upperCase) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            String trimmed = value.trim();
+            return upperCase ? trimmed.toUpperCase(Locale.ROOT) : trimmed.toLowerCase(Locale.ROOT);
+        }
+
+        private static <K extends Comparable<K>> void checkRange(String field, K min, K max) {
+            if (min != null && max != null && min.compareTo(max) > 0) {
+                throw new IllegalArgumentException("Intervalo de " + field + " inválido: mínimo (" + min
+                        + ") maior que o máximo (" + max + ").");
+            }
+        }
+
+        private static <K extends Comparable<K>> boolean inRange(K value, K min, K max) {
+            return value != null && (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+        }
+    }
+
+    // Índice ordenado de países por um valor (população, área, nome...), para consultas por intervalo com busca binária.
+    // Países sem o valor (nulo) não entram no índice.
+    private static final class SortedIndex<K extends Comparable<K>> {
+
+        private final List<K> keys; // Valores em ordem crescente
+        private final List<CountryDTO> countries; // Países na mesma ordem dos valores
+
+        private SortedIndex(List<CountryDTO> countriesSortedById, Function<CountryDTO, K> keyExtractor) {
+            List<CountryDTO> indexed = new ArrayList<>(countriesSortedById.size());
+            for (CountryDTO country : countriesSortedById) {
+                if (keyExtractor.apply(country) != null) {
+                    indexed.add(country);
+                }
+            }
+            indexed.sort(Comparator.comparing(keyExtractor)); // Ordenação estável: o ID desempata
+            List<K> keys = new ArrayList<>(indexed.size());
+            for (CountryDTO country : indexed) {
+                keys.add(keyExtractor.apply(country));
+            }
+            this.keys = keys;
+            this.countries = Collections.unmodifiableList(indexed);
+        }
+
+        // Países com valor entre min e max, inclusive (limite nulo: sem limite)
+        List<CountryDTO> range(K min, K max) {
+            int from = min == null ? 0 : firstIndex(min, false);
+            int to = max == null ? keys.size() : firstIndex(max, true);
+            return from >= to ? List.of() : countries.subList(from, to);
+        }
+
+        // Primeira posição com valor maior ou igual (ou estritamente maior, se strictlyGreater) ao informado
+        private int firstIndex(K key, boolean strictlyGreater) {
+            int low = 0;
+            int high = keys.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int comparison = keys.get(middle).compareTo(key);
+                if (comparison < 0 || (strictlyGreater && comparison == 0)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,20 +1,53 @@
 package com.es2.mdm.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.dto.CountryFilterDTO;
+import com.es2.mdm.dto.CountrySearchResultDTO;
 import com.es2.mdm.dto.CurrencyDTO;
 import com.es2.mdm.model.Country;
 import com.es2.mdm.model.Currency;
 import com.es2.mdm.repository.CountryRepository;
+import com.es2.mdm.service.CountryReadModel.Versioned;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 
 @Service
@@ -22,13 +55,45 @@ public class CountryService {
 
 // Serviço responsável por gerenciar as operações CRUD relacionadas a países.
 // Ele utiliza o repositório CountryRepository para interagir com o banco de dados e realizar operações de criação, leitura, atualização e exclusão de países.
+// As leituras são atendidas pelo CountryReadModel (retrato em memória), atualizado após o commit de cada escrita.
+
+    private static final Logger logger = LoggerFactory.getLogger(CountryService.class);
 
     private final CountryRepository countryRepository;
+    private final CountryReadModel countryReadModel; // Retrato em memória usado nas leituras
+    private final ApplicationEventPublisher eventPublisher; // Notifica escritas (atualização do CountryReadModel após o commit)
+    private final EntityManager entityManager;
+    private final Object readModelRefreshLock = new Object();
+    private final TransactionTemplate refreshTransaction; // Nova transação, somente leitura, para reler os países após o commit
+    private volatile boolean readModelStale = false; // Uma atualização do retrato falhou e a recarga completa está pendente
+    private final ObjectWriter exportWriter; // NDJSON: JSON compacto, um país por linha
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME; // Formato de data e hora ISO
+    static final int EXPORT_PAGE_SIZE = 500; // Países por página da exportação (o contexto de persistência é limpo entre as páginas)
+    public static final int MAX_SEARCH_RESULTS = 50; // Limite de resultados da busca por nome
+    // Campos aceitos na ordenação da listagem paginada (valores nulos por último)
+    private static final Map<String, Comparator<CountryDTO>> SORT_FIELDS = Map.of(
+            "id", Comparator.comparing(CountryDTO::getId),
+            "countryName", Comparator.comparing(CountryDTO::getCountryName, Comparator.nullsLast(Comparator.naturalOrder())),
+            "numericCode", Comparator.comparing(CountryDTO::getNumericCode, Comparator.nullsLast(Comparator.naturalOrder())),
+            "capitalCity", Comparator.comparing(CountryDTO::getCapitalCity, Comparator.nullsLast(Comparator.naturalOrder())),
+            "population", Comparator.comparing(CountryDTO::getPopulation, Comparator.nullsLast(Comparator.naturalOrder())),
+            "area", Comparator.comparing(CountryDTO::getArea, Comparator.nullsLast(Comparator.naturalOrder())));
 
     @Autowired
-    public CountryService(CountryRepository countryRepository) {
+    public CountryService(CountryRepository countryRepository, CountryReadModel countryReadModel,
+                          ApplicationEventPublisher eventPublisher, EntityManager entityManager, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager) {
         this.countryRepository = countryRepository;
+        this.countryReadModel = countryReadModel;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.refreshTransaction = new TransactionTemplate(transactionManager);
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTransaction.setReadOnly(true);
+        this.exportWriter = objectMapper.writerFor(CountryDTO.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET) // O OutputStream pertence a quem chama
+                .withRootValueSeparator("\n");
     }
 
     // Cria um novo país no banco de dados.
@@ -38,36 +103,122 @@ public class CountryService {
     public CountryDTO createCountry(CountryDTO countryDTO) {
         Country country = convertToEntity(countryDTO);
         Country savedCountry = countryRepository.save(country);
+        eventPublisher.publishEvent(new CountriesChangedEvent(Set.of(savedCountry.getId()), Set.of()));
         return convertToDTO(savedCountry);
     }
 
-    // Obtém todos os países do banco de dados.
-    // O método é anotado com @Transactional(readOnly = true) para indicar que é uma operação de leitura.
-    // Ele busca todos os países do repositório, converte cada entidade Country em CountryDTO e retorna uma lista de CountryDTOs.
-    @Transactional(readOnly = true)
+    // Obtém todos os países, ordenados por ID.
+    // A leitura é feita no CountryReadModel (retrato em memória), sem acesso ao banco.
     public List<CountryDTO> getAllCountries() {
-        return countryRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return countryReadModel.snapshot().countries();
+    }
+
+    // Obtém uma página dos países que atendem aos filtros, do retrato atual do CountryReadModel, com a versão desse retrato.
+    // Os filtros usam os índices ordenados do retrato (CountryReadModel.Snapshot.query).
+    // Lança IllegalArgumentException se a ordenação usar um campo não suportado ou se um intervalo do filtro for inválido.
+    public Versioned<Page<CountryDTO>> getCountries(CountryFilterDTO filter, Pageable pageable) {
+        Comparator<CountryDTO> comparator = null;
+        for (Sort.Order order : pageable.getSort()) {
+            Comparator<CountryDTO> fieldComparator = SORT_FIELDS.get(order.getProperty());
+            if (fieldComparator == null) {
+                throw new IllegalArgumentException("Campo de ordenação não suportado: '" + order.getProperty()
+                        + "'. Campos válidos: " + SORT_FIELDS.keySet());
+            }
+            if (order.isDescending()) {
+                fieldComparator = fieldComparator.reversed();
+            }
+            comparator = comparator == null ? fieldComparator : comparator.thenComparing(fieldComparator);
+        }
+
+        CountryReadModel.Snapshot snapshot = countryReadModel.snapshot();
+        List<CountryDTO> countries = snapshot.query(filter); // Já ordenados por ID
+        if (comparator != null) {
+            countries = new ArrayList<>(countries);
+            countries.sort(comparator); // Ordenação estável: o ID desempata
+        }
+        long offset = pageable.getOffset();
+        List<CountryDTO> content = offset >= countries.size() ? List.of()
+                : countries.subList((int) offset, (int) Math.min(offset + pageable.getPageSize(), countries.size()));
+        return new Versioned<>(new PageImpl<>(content, pageable, countries.size()), snapshot.version());
+    }
+
+    // Obtém até limit países que atendem aos filtros com ID maior que afterId, em ordem de ID (paginação por chave),
+    // com a versão do retrato.
+    public Versioned<List<CountryDTO>> getCountriesAfter(CountryFilterDTO filter, Integer afterId, int limit) {
+        CountryReadModel.Snapshot snapshot = countryReadModel.snapshot();
+        List<CountryDTO> countries = filter == null || filter.isEmpty()
+                ? snapshot.countriesAfter(afterId, limit)
+                : CountryReadModel.Snapshot.after(snapshot.query(filter), afterId, limit);
+        return new Versioned<>(countries, snapshot.version());
+    }
+
+    // Busca países pelo nome no índice de nomes do retrato atual (CountryNameIndex), sem acesso ao banco.
+    // A busca ignora acentos, maiúsculas e pontuação e aceita prefixos e erros de digitação; os resultados vêm do mais
+    // ao menos relevante. Lança IllegalArgumentException se limit estiver fora de 1..MAX_SEARCH_RESULTS.
+    public Versioned<List<CountrySearchResultDTO>> searchCountriesByName(String name, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new IllegalArgumentException("O limite da busca deve estar entre 1 e " + MAX_SEARCH_RESULTS + ".");
+        }
+        CountryReadModel.Snapshot snapshot = countryReadModel.snapshot();
+        List<CountrySearchResultDTO> results = new ArrayList<>();
+        for (CountryNameIndex.Match match : snapshot.searchByName(name, limit)) {
+            snapshot.findById(match.countryId()).ifPresent(country ->
+                    results.add(new CountrySearchResultDTO(country, match.matchType().name(), match.score())));
+        }
+        return new Versioned<>(results, snapshot.version());
+    }
+
+    // Versão atual dos dados de países (versão do retrato do CountryReadModel), sem acesso ao banco
+    public long getDataVersion() {
+        return countryReadModel.snapshot().version();
+    }
+
+    // Versão atual dos dados de países e quantidade de países
+    public Versioned<Integer> getCountryCount() {
+        CountryReadModel.Snapshot snapshot = countryReadModel.snapshot();
+        return new Versioned<>(snapshot.size(), snapshot.version());
+    }
+
+    // Exporta todos os países (com as moedas) para o OutputStream, em NDJSON (um CountryDTO por linha).
+    // Os países são lidos em páginas de EXPORT_PAGE_SIZE IDs (paginação por chave: IDs maiores que o último exportado),
+    // cada página com as moedas em uma única consulta, e escritos um a um. O contexto de persistência é limpo apenas entre
+    // as páginas, quando nenhum resultado da página anterior continua em uso, de modo que o uso de memória não cresce
+    // com o tamanho da tabela.
+    // Retorna a quantidade de países exportados.
+    @Transactional(readOnly = true)
+    public long exportCountries(OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (SequenceWriter output = exportWriter.writeValues(outputStream)) {
+            List<Integer> ids = countryRepository.findIdsAfter(Integer.MIN_VALUE, Limit.of(EXPORT_PAGE_SIZE));
+            while (!ids.isEmpty()) {
+                for (Country country : countryRepository.findAllWithCurrenciesByIdInOrderById(ids)) {
+                    output.write(convertToDTO(country));
+                    count++;
+                }
+                entityManager.clear();
+                ids = ids.size() < EXPORT_PAGE_SIZE ? List.of()
+                        : countryRepository.findIdsAfter(ids.get(ids.size() - 1), Limit.of(EXPORT_PAGE_SIZE));
+            }
+        }
+        return count;
     }
 
     // Obtém um país pelo ID.
-    // O método é anotado com @Transactional(readOnly = true) para indicar que é uma operação de leitura.
-    // Ele busca o país pelo ID no repositório, converte a entidade Country em CountryDTO e retorna o CountryDTO.
+    // Ele busca o país pelo ID no CountryReadModel (sem acesso ao banco) e retorna o CountryDTO com a versão do retrato.
     // Se o país não for encontrado, lança uma EntityNotFoundException.
     // O método utiliza o Optional para lidar com a possibilidade de o país não existir.
-    @Transactional(readOnly = true)
-    public CountryDTO getCountryById(Integer id) {
-        Country country = countryRepository.findById(id)
+    public Versioned<CountryDTO> getCountryById(Integer id) {
+        CountryReadModel.Snapshot snapshot = countryReadModel.snapshot();
+        CountryDTO country = snapshot.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Country not found with id: " + id));
-        return convertToDTO(country);
+        return new Versioned<>(country, snapshot.version());
     }
 
     // Atualiza um país existente.
     // O método é anotado com @Transactional para garantir que a operação seja executada dentro de uma transação.
     // Ele busca o país pelo ID, atualiza os campos com os valores do CountryDTO fornecido, atualiza as moedas associadas e salva o país atualizado no repositório.
     // Se o país não for encontrado, lança uma EntityNotFoundException.
-    // O método também substitui as moedas existentes por novas moedas.
+    // O método também reconcilia as moedas existentes com as moedas do CountryDTO (reconcileCurrencies).
     // O método utiliza o Optional para lidar com a possibilidade de o país não existir.
     @Transactional
     public CountryDTO updateCountry(Integer id, CountryDTO countryDTO) {
@@ -81,16 +232,10 @@ public class CountryService {
         existingCountry.setPopulation(countryDTO.getPopulation());
         existingCountry.setArea(countryDTO.getArea());
 
-        // Atualizar moedas (substituí as existestes, sem tratamento de duplicidade)
-        // Limpa as moedas existentes antes de adicionar as novas
-        existingCountry.getCurrencies().clear();    
-        if (countryDTO.getCurrencies() != null) {
-            countryDTO.getCurrencies().forEach(currencyDTO -> {
-                Currency currency = convertToEntity(currencyDTO, existingCountry);
-                existingCountry.addCurrency(currency);
-            });
-        }
+        // Atualizar moedas (reconciliadas pelo código: alteradas no lugar, novas inseridas e ausentes removidas)
+        reconcileCurrencies(existingCountry, countryDTO.getCurrencies());
         Country updatedCountry = countryRepository.save(existingCountry);
+        eventPublisher.publishEvent(new CountriesChangedEvent(Set.of(id), Set.of()));
         return convertToDTO(updatedCountry);
     }
 
@@ -104,49 +249,259 @@ public class CountryService {
             throw new EntityNotFoundException("Country not found with id: " + id);
         }
         countryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CountriesChangedEvent(Set.of(), Set.of(id)));
     }
 
 
     // Processa uma lista de CountryDTOs recebidos do DEM e salva ou atualiza os países no banco de dados.
     // O método verifica se a lista está vazia ou nula e retorna imediatamente se for o caso.
-    // Para cada CountryDTO na lista, ele verifica se já existe um país com o mesmo código numérico.
-    // Se existir, atualiza os campos do país existente com os valores do CountryDTO.
-    // Se não existir, cria um novo país a partir do CountryDTO e o salva no repositório.
+    // Os países já existentes do lote são carregados de uma só vez (loadExistingCountries), em vez de uma consulta por país.
+    // Para cada CountryDTO, procura o país existente pelo código numérico e, se não encontrar, pelo nome.
+    // Se existir, atualiza os campos do país existente com os valores do CountryDTO (gravados pelo dirty checking ao final da transação).
+    // Se não existir, cria um novo país; os novos países são inseridos juntos com saveAll, em lotes JDBC
+    // (spring.jpa.properties.hibernate.jdbc.batch_size), o que os IDs por sequência permitem.
+    // Os países criados ou atualizados passam a ser do provedor informado (syncProviderId), quando houver.
     @Transactional
-    public void processAndSaveCountries(List<CountryDTO> countryDTOs) {
+    public void processAndSaveCountries(List<CountryDTO> countryDTOs, Integer providerId) {
         if (countryDTOs == null || countryDTOs.isEmpty()) { // Verifica se a lista de CountryDTOs está vazia ou nula
             return;
         }
 
-        for (CountryDTO dto : countryDTOs) {    
-            Optional<Country> existingCountryOpt = Optional.empty();
-
-            if (dto.getNumericCode() != null) {     // Para cada CountryDTO na lista, verifica se já existe um país com o mesmo código numérico
-                existingCountryOpt = countryRepository.findByNumericCode(dto.getNumericCode());
+        ExistingCountries existing = loadExistingCountries(countryDTOs);
+        List<Country> newCountries = new ArrayList<>();
+        Set<Country> savedCountries = new LinkedHashSet<>();
 
-            } 
-            if (dto.getCountryName() != null && existingCountryOpt.isEmpty()) { // Se não encontrou pelo código numérico, tenta pelo nome do país
-                existingCountryOpt = countryRepository.findByCountryName(dto.getCountryName());
-            }
+        for (CountryDTO dto : countryDTOs) {
+            Country existingCountry = existing.find(dto);
 
-            Country countryToSave;
-            if (existingCountryOpt.isPresent()) { //Se ja existe um país com o mesmo código numérico e nome, atualiza o país
-                countryToSave = existingCountryOpt.get();
+            if (existingCountry != null) { //Se ja existe um país com o mesmo código numérico ou nome, atualiza o país
+                Country countryToSave = existingCountry;
+                existing.rename(countryToSave, dto.getCountryName());
+                savedCountries.add(countryToSave);
                 // Atualiza os campos de countryToSave com os valores de dto
                 countryToSave.setCountryName(dto.getCountryName());
                 countryToSave.setCapitalCity(dto.getCapitalCity());
                 countryToSave.setPopulation(dto.getPopulation());
                 countryToSave.setArea(dto.getArea());
-                
-                countryToSave.getCurrencies().clear();
-                if (dto.getCurrencies() != null) { 
-                    dto.getCurrencies().forEach(currencyDTO -> countryToSave.addCurrency(convertToEntity(currencyDTO, countryToSave)));
+                if (providerId != null) {
+                    countryToSave.setSyncProviderId(providerId);
                 }
+                
+                reconcileCurrencies(countryToSave, dto.getCurrencies());
 
             } else {    //Cria novo país
-                countryToSave = convertToEntity(dto); 
+                Country newCountry = convertToEntity(dto);
+                newCountry.setSyncProviderId(providerId);
+                existing.add(newCountry); // Um DTO repetido no mesmo lote atualiza o país recém-criado
+                newCountries.add(newCountry);
+                savedCountries.add(newCountry);
+            }
+        }
+        countryRepository.saveAll(newCountries);
+        eventPublisher.publishEvent(new CountriesChangedEvent(idsOf(savedCountries), Set.of()));
+    }
+
+    // Remove os países enviados pelo DEM como excluídos no provedor (delta de ingestão).
+    // Cada CountryDTO traz apenas a chave: o código numérico ou, na falta dele, o nome do país.
+    // Países que já não existem no MDM são ignorados, para que o reenvio de um lote não gere erro.
+    // Só são removidos os países sincronizados por último pelo provedor informado: países mantidos pela API ou
+    // atualizados por outro provedor continuam no MDM.
+    @Transactional
+    public void deleteSyncedCountries(List<CountryDTO> countryDTOs, Integer providerId) {
+        if (countryDTOs == null || countryDTOs.isEmpty() || providerId == null) {
+            return;
+        }
+
+        ExistingCountries existing = loadExistingCountries(countryDTOs);
+        Set<Country> countriesToDelete = new LinkedHashSet<>();
+        for (CountryDTO dto : countryDTOs) {
+            Country existingCountry = dto.getNumericCode() != null
+                    ? existing.byNumericCode.get(dto.getNumericCode())
+                    : existing.byCountryName.get(dto.getCountryName());
+            if (existingCountry != null && providerId.equals(existingCountry.getSyncProviderId())) {
+                countriesToDelete.add(existingCountry);
+            } else if (existingCountry != null) {
+                logger.info("País '{}' não removido: não foi sincronizado pelo provedor {}.",
+                        existingCountry.getCountryName(), providerId);
+            }
+        }
+        countryRepository.deleteAll(countriesToDelete);
+        eventPublisher.publishEvent(new CountriesChangedEvent(Set.of(), idsOf(countriesToDelete)));
+    }
+
+    // Carrega o CountryReadModel com todos os países do banco na inicialização, antes de a aplicação receber requisições.
+    @PostConstruct
+    void loadReadModel() {
+        List<CountryDTO> countries = loadAllCountries();
+        countryReadModel.replaceAll(countries);
+        logger.info("Modelo de leitura de países carregado: {} países (versão {}).",
+                countries.size(), countryReadModel.snapshot().version());
+    }
+
+    // Atualiza o CountryReadModel após o commit de uma escrita.
+    // Os países alterados são relidos do banco em uma nova transação (estado confirmado, não o do contexto de persistência
+    // da escrita); países que já não existem são removidos. A releitura e a aplicação são serializadas, de modo que
+    // escritas concorrentes não deixem um estado mais antigo por último no retrato.
+    // Se a releitura falhar, o retrato fica marcado como desatualizado e todos os países são recarregados (replaceAll),
+    // agora ou, se a recarga também falhar, em retryStaleReadModel; até lá, cada nova escrita também tenta a recarga.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCountriesChanged(CountriesChangedEvent event) {
+        synchronized (readModelRefreshLock) {
+            if (!readModelStale) {
+                try {
+                    refreshTransaction.executeWithoutResult(status -> applyChangedCountries(event));
+                    return;
+                } catch (RuntimeException e) {
+                    logger.warn("Falha ao atualizar o modelo de leitura de países ({}); recarregando todos os países.",
+                            e.getMessage());
+                    readModelStale = true;
+                }
+            }
+            reloadReadModel();
+        }
+    }
+
+    // Recarrega todos os países enquanto o retrato estiver desatualizado por uma falha de atualização anterior.
+    @Scheduled(fixedDelayString = "${mdm.read-model.retry-ms:5000}")
+    public void retryStaleReadModel() {
+        if (!readModelStale) {
+            return;
+        }
+        synchronized (readModelRefreshLock) {
+            if (readModelStale) {
+                reloadReadModel();
+            }
+        }
+    }
+
+    boolean isReadModelStale() {
+        return readModelStale;
+    }
+
+    // Deve ser chamado com readModelRefreshLock. Em caso de falha, o retrato continua marcado como desatualizado.
+    private void reloadReadModel() {
+        try {
+            List<CountryDTO> countries = refreshTransaction.execute(status -> loadAllCountries());
+            countryReadModel.replaceAll(countries);
+            readModelStale = false;
+            logger.info("Modelo de leitura de países recarregado: {} países (versão {}).",
+                    countries.size(), countryReadModel.snapshot().version());
+        } catch (RuntimeException e) {
+            logger.error("Falha ao recarregar o modelo de leitura de países; nova tentativa em seguida: {}", e.getMessage());
+        }
+    }
+
+    private void applyChangedCountries(CountriesChangedEvent event) {
+        List<CountryDTO> changedCountries = event.changedCountryIds().isEmpty() ? List.of()
+                : countryRepository.findAllWithCurrenciesByIdIn(event.changedCountryIds()).stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList());
+        Set<Integer> removedIds = new HashSet<>(event.deletedCountryIds());
+        removedIds.addAll(event.changedCountryIds());
+        changedCountries.forEach(country -> removedIds.remove(country.getId()));
+        countryReadModel.apply(changedCountries, removedIds);
+    }
+
+    private List<CountryDTO> loadAllCountries() {
+        return countryRepository.findAllWithCurrencies().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private Set<Integer> idsOf(Collection<Country> countries) {
+        return countries.stream().map(Country::getId).collect(Collectors.toSet());
+    }
+
+    // Reconcilia as moedas do país com as moedas recebidas, pelo código da moeda (currencyCode):
+    // moedas existentes são atualizadas no lugar (só geram UPDATE se algum campo mudou), moedas novas são inseridas
+    // e moedas que não vieram na lista são removidas (orphanRemoval). Uma lista nula remove todas as moedas.
+    // Um código repetido, na lista recebida ou nas moedas existentes, resulta em uma única moeda (a primeira).
+    // Assim, sincronizações sem mudanças não reescrevem a tabela currency nem alteram o CreatedAt das moedas.
+    private void reconcileCurrencies(Country country, List<CurrencyDTO> currencyDTOs) {
+        Map<String, Currency> existingByCode = new HashMap<>();
+        List<Currency> currenciesToRemove = new ArrayList<>();
+        for (Currency currency : country.getCurrencies()) {
+            if (existingByCode.putIfAbsent(currency.getCurrencyCode(), currency) != null) {
+                currenciesToRemove.add(currency); // Código repetido no mesmo país: mantém apenas a primeira moeda
+            }
+        }
+
+        if (currencyDTOs != null) {
+            Set<String> receivedCodes = new HashSet<>();
+            for (CurrencyDTO currencyDTO : currencyDTOs) {
+                if (!receivedCodes.add(currencyDTO.getCurrencyCode())) {
+                    continue; // Código repetido na lista recebida: vale apenas a primeira moeda, como nas moedas existentes
+                }
+                Currency existingCurrency = existingByCode.remove(currencyDTO.getCurrencyCode());
+                if (existingCurrency != null) {
+                    existingCurrency.setCurrencyName(currencyDTO.getCurrencyName());
+                    existingCurrency.setCurrencySymbol(currencyDTO.getCurrencySymbol());
+                } else {
+                    country.addCurrency(convertToEntity(currencyDTO, country));
+                }
+            }
+        }
+
+        // Moedas que não vieram na lista
+        currenciesToRemove.addAll(existingByCode.values());
+        currenciesToRemove.forEach(country::removeCurrency);
+    }
+
+    // Carrega em uma única consulta os países existentes que correspondem ao lote, pelo código numérico ou pelo nome.
+    private ExistingCountries loadExistingCountries(List<CountryDTO> countryDTOs) {
+        Set<Integer> numericCodes = new HashSet<>();
+        Set<String> countryNames = new HashSet<>();
+        for (CountryDTO dto : countryDTOs) {
+            if (dto.getNumericCode() != null) {
+                numericCodes.add(dto.getNumericCode());
+            }
+            if (dto.getCountryName() != null) {
+                countryNames.add(dto.getCountryName());
+            }
+        }
+
+        ExistingCountries existing = new ExistingCountries();
+        if (!numericCodes.isEmpty() || !countryNames.isEmpty()) {
+            countryRepository.findAllWithCurrenciesByNumericCodeInOrCountryNameIn(numericCodes, countryNames)
+                    .forEach(existing::add);
+        }
+        return existing;
+    }
+
+    // Países existentes de um lote, indexados pelo código numérico e pelo nome
+    private static class ExistingCountries {
+        private final Map<Integer, Country> byNumericCode = new HashMap<>();
+        private final Map<String, Country> byCountryName = new HashMap<>();
+
+        void add(Country country) {
+            if (country.getNumericCode() != null) {
+                byNumericCode.put(country.getNumericCode(), country);
+            }
+            if (country.getCountryName() != null) {
+                byCountryName.put(country.getCountryName(), country);
+            }
+        }
+
+        // Mesmo critério das consultas individuais: primeiro pelo código numérico, depois pelo nome
+        Country find(CountryDTO dto) {
+            Country country = null;
+            if (dto.getNumericCode() != null) {
+                country = byNumericCode.get(dto.getNumericCode());
+            }
+            if (country == null && dto.getCountryName() != null) {
+                country = byCountryName.get(dto.getCountryName());
+            }
+            return country;
+        }
+
+        // Mantém o índice por nome coerente quando um país é renomeado durante o processamento do lote
+        void rename(Country country, String newCountryName) {
+            if (country.getCountryName() != null) {
+                byCountryName.remove(country.getCountryName(), country);
+            }
+            if (newCountryName != null) {
+                byCountryName.put(newCountryName, country);
             }
-            countryRepository.save(countryToSave);
         }
     }
 
@@ -0,0 +1,240 @@
+package com.es2.mdm.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+@Component
+public class DemIngestionEventRelay {
+
+// Repassa aos clientes do MDM (GET /mdm/api/admin/ingest/events) o fluxo de eventos de ingestão do DEM
+// (GET /dem/api/ingestion/events), em vez de cada painel consultar o status dos trabalhos periodicamente.
+// Uma única conexão com o DEM é aberta enquanto houver clientes conectados e os eventos são repassados a todos,
+// com o mesmo ID, nome e conteúdo. Se a conexão cair, ela é reaberta (mdm.dem-events.reconnect-delay-ms) com o
+// Last-Event-ID do último evento recebido, e o DEM reenvia os que foram perdidos.
+// Os últimos eventos também ficam guardados aqui (mdm.dem-events.replay-size) para os clientes que reconectam ao MDM.
+// A conexão é lida com o HttpClient do JDK: o RestTemplate lê a resposta até o fim ao fechá-la, o que nunca
+// acontece num fluxo de eventos.
+
+    private static final Logger logger = LoggerFactory.getLogger(DemIngestionEventRelay.class);
+
+    @Value("${dem.api.base-url}")
+    private String demApiBaseUrl;
+
+    @Value("${mdm.dem-events.emitter-timeout-ms:1800000}")   // Duração máxima de uma conexão de cliente
+    private long emitterTimeoutMs;
+
+    @Value("${mdm.dem-events.reconnect-delay-ms:3000}")   // Espera antes de reabrir a conexão com o DEM
+    private long reconnectDelayMs;
+
+    @Value("${mdm.dem-events.replay-size:256}")   // Eventos guardados para clientes que reconectam
+    private int replaySize;
+
+    @Value("${mdm.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Deque<RelayedEvent> recentEvents = new ArrayDeque<>(); // Acessado apenas pela thread de envio
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("mdm-dem-events").daemon().factory());
+    private HttpClient httpClient;
+    private Thread upstream; // Thread que lê o fluxo do DEM, protegida pelo monitor deste objeto
+    private volatile String lastUpstreamEventId;
+    private volatile boolean stopped = false;
+
+    // Evento recebido do DEM; data é o IngestionDTO em JSON, repassado sem conversão
+    private record RelayedEvent(long id, String name, String data) {
+    }
+
+    // Conecta um novo cliente e abre a conexão com o DEM, se necessário.
+    // Com lastEventId, os eventos posteriores a ele ainda guardados são reenviados antes dos novos.
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        submit(() -> {
+            try {
+                emitter.send(SseEmitter.event().comment("connected")); // Envia os cabeçalhos da resposta imediatamente
+            } catch (IOException | IllegalStateException e) {
+                return;
+            }
+            if (lastEventId != null) {
+                for (RelayedEvent event : recentEvents) {
+                    if (event.id() > lastEventId && !send(emitter, event)) {
+                        return;
+                    }
+                }
+            }
+            emitters.add(emitter);
+            startUpstreamIfNeeded();
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        synchronized (this) {
+            if (upstream != null) {
+                upstream.interrupt();
+            }
+        }
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+
+    private synchronized void startUpstreamIfNeeded() {
+        if (upstream != null || stopped) {
+            return;
+        }
+        if (httpClient == null) {
+            httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(connectTimeoutMs)).build();
+        }
+        upstream = Thread.ofVirtual().name("mdm-dem-events-upstream").start(this::readUpstream);
+    }
+
+    // Lê o fluxo do DEM enquanto houver clientes, reconectando após falhas
+    private void readUpstream() {
+        try {
+            while (!stopped && !emitters.isEmpty()) {
+                try {
+                    readUpstreamOnce();
+                } catch (IOException e) {
+                    logger.warn("Conexão com o fluxo de eventos do DEM interrompida: {}", e.toString());
+                    relayHeartbeat(); // Mantém os clientes conectados enquanto o DEM está indisponível e detecta os que saíram
+                }
+                if (!stopped && !emitters.isEmpty()) {
+                    Thread.sleep(reconnectDelayMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                upstream = null;
+            }
+        }
+        // Um cliente pode ter se conectado enquanto a leitura terminava
+        if (!stopped && !emitters.isEmpty()) {
+            startUpstreamIfNeeded();
+        }
+    }
+
+    // Uma conexão com o DEM: interpreta as linhas do fluxo (campos id, event e data; linha vazia encerra o evento)
+    private void readUpstreamOnce() throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(demApiBaseUrl + "/ingestion/events"))
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE);
+        if (lastUpstreamEventId != null) {
+            request.header("Last-Event-ID", lastUpstreamEventId);
+        }
+        HttpResponse<Stream<String>> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("DEM respondeu com status " + response.statusCode());
+            }
+            logger.info("Conectado ao fluxo de eventos de ingestão do DEM.");
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext() && !stopped && !emitters.isEmpty()) {
+                String line = iterator.next();
+                if (line.isEmpty()) {
+                    if (data.length() > 0 && id != null) {
+                        lastUpstreamEventId = id;
+                        relay(new RelayedEvent(Long.parseLong(id), name, data.toString()));
+                    }
+                    id = null;
+                    name = null;
+                    data.setLength(0);
+                } else if (line.startsWith(":")) {
+                    relayHeartbeat();
+                } else {
+                    int colon = line.indexOf(':');
+                    String field = colon < 0 ? line : line.substring(0, colon);
+                    String value = colon < 0 ? "" : line.substring(line.startsWith(": ", colon) ? colon + 2 : colon + 1);
+                    switch (field) {
+                        case "id" -> id = value;
+                        case "event" -> name = value;
+                        case "data" -> data.append(data.length() > 0 ? "\n" : "").append(value);
+                        default -> { } // Campos desconhecidos (ex.: retry) são ignorados
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Falhas de leitura do HttpClient chegam ao iterador como UncheckedIOException
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private void relay(RelayedEvent event) {
+        submit(() -> {
+            recentEvents.addLast(event);
+            if (recentEvents.size() > replaySize) {
+                recentEvents.removeFirst();
+            }
+            for (SseEmitter emitter : emitters) {
+                send(emitter, event);
+            }
+        });
+    }
+
+    // Heartbeat para os clientes, repassado do DEM ou enviado a cada tentativa de reconexão
+    private void relayHeartbeat() {
+        submit(() -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    emitters.remove(emitter);
+                }
+            }
+        });
+    }
+
+    private void submit(Runnable task) {
+        try {
+            sender.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Repasse de eventos do DEM encerrado; tarefa descartada.");
+        }
+    }
+
+    // Retorna false se o cliente foi desconectado por falha no envio
+    private boolean send(SseEmitter emitter, RelayedEvent event) {
+        try {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().id(Long.toString(event.id()));
+            if (event.name() != null) {
+                builder.name(event.name());
+            }
+            emitter.send(builder.data(event.data(), MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitters.remove(emitter);
+            return false;
+        }
+    }
+}
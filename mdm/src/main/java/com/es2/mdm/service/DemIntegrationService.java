@@ -1,18 +1,30 @@
 package com.es2.mdm.service;
 
+import java.net.URI;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import com.es2.mdm.dto.DemIngestionFilterDTO;
+import com.es2.mdm.dto.DemIngestionPageDTO;
 import com.es2.mdm.dto.DemIngestionRequestDTO;
 import com.es2.mdm.dto.DemIngestionResponseDTO;
 
@@ -34,6 +46,10 @@ public class DemIntegrationService {
     @Value("${mdm.callback.base-url}")  // URL base do MDM para callbacks, injetada a partir do application.properties
     private String mdmCallbackBaseUrl; 
 
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TOTAL_PAGES_HEADER = "X-Total-Pages";
+    private static final String SMILE_PREFERRED_ACCEPT = "application/x-jackson-smile, application/json;q=0.9";
+
     // Caminho do endpoint de callback do MDM para o DEM, onde o DEM enviará os dados processados.
     private final String mdmCallbackPath = "/countries/callback";   
 
@@ -93,8 +109,10 @@ public class DemIntegrationService {
             // Envia uma solicitação GET para o endpoint de status de ingestão do DEM
             // O RestTemplate faz a chamada HTTP e espera uma resposta do tipo DemIngestionResponseDTO.
             // A resposta contém informações sobre o status da ingestão, como ID, status, caminhos dos dados e mensagens de status.
-            ResponseEntity<DemIngestionResponseDTO> response = restTemplate.getForEntity(
+            ResponseEntity<DemIngestionResponseDTO> response = restTemplate.exchange(
                     demStatusEndpoint,
+                    HttpMethod.GET,
+                    binaryPreferred(),
                     DemIngestionResponseDTO.class);
 
             if (response.getStatusCode().is2xxSuccessful()) {   //Verifica se é um status na casa 200 -> bem-sucedido
@@ -111,32 +129,76 @@ public class DemIntegrationService {
     }
 
 
-    // Método que consulta todos os trabalhos de ingestão no DEM.
-    // Ele envia uma solicitação GET para o endpoint do DEM que lista todos os trabalhos de ingestão.
-    // Retorna: Uma lista de DemIngestionResponseDTO contendo os detalhes e status dos trabalhos de ingestão.
-    // Se a consulta falhar, retorna uma lista vazia ou pode lançar uma exceção personalizada.
-    public List<DemIngestionResponseDTO> getAllDemIngestionJobs() {
-        String demGetAllIngestionsUrl = demApiBaseUrl + "/ingestion"; // Endpoint do DEM que lista todos
-        logger.info("Consultando todos os jobs de ingestão no DEM: {}", demGetAllIngestionsUrl);
+    // Pede ao DEM que invalide o cache de detalhes do provedor alterado ou excluído.
+    // Executado somente após o commit da alteração, para que o DEM não volte a ler o valor antigo.
+    // Uma falha aqui apenas é registrada: o cache do DEM expira sozinho (dem.provider-cache.ttl-seconds).
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProviderChanged(ProviderChangedEvent event) {
+        String demProviderCacheUrl = demApiBaseUrl + "/providers/" + event.providerId() + "/cache";
+        try {
+            restTemplate.delete(demProviderCacheUrl);
+            logger.info("Cache do provedor {} invalidado no DEM.", event.providerId());
+        } catch (RestClientException e) {
+            logger.warn("Não foi possível invalidar o cache do provedor {} no DEM: {}", event.providerId(), e.getMessage());
+        }
+    }
+
+
+    // Método que consulta uma página dos trabalhos de ingestão no DEM, com os filtros informados.
+    // Os filtros, a página e a ordenação são repassados ao DEM, que retorna apenas os trabalhos da página
+    // (sem a mensagem de status) e os totais nos cabeçalhos X-Total-Count e X-Total-Pages.
+    // Retorna: A página com os DemIngestionResponseDTO e os totais; se a consulta falhar, uma página vazia.
+    // Lança IllegalArgumentException se o DEM rejeitar os parâmetros (400 Bad Request).
+    public DemIngestionPageDTO getDemIngestionJobs(DemIngestionFilterDTO filter, Pageable pageable) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(demApiBaseUrl + "/ingestion") // Endpoint do DEM que lista os jobs
+                .queryParam("page", pageable.getPageNumber())
+                .queryParam("size", pageable.getPageSize())
+                .queryParamIfPresent("status", Optional.ofNullable(filter.getStatus()))
+                .queryParamIfPresent("mdmProviderId", Optional.ofNullable(filter.getMdmProviderId()))
+                .queryParamIfPresent("createdFrom", Optional.ofNullable(filter.getCreatedFrom()))
+                .queryParamIfPresent("createdTo", Optional.ofNullable(filter.getCreatedTo()));
+        pageable.getSort().forEach(order -> uri.queryParam("sort",
+                order.getProperty() + "," + order.getDirection().name().toLowerCase()));
+        String demGetIngestionsUrl = uri.build().encode().toUriString();
+        logger.info("Consultando jobs de ingestão no DEM: {}", demGetIngestionsUrl);
 
         try {
             // O endpoint do DEM retorna uma List<IngestionDTO>.
             // Com RestTemplate, uma forma comum de obter uma lista é deserializar para um array e depois converter.
-            ResponseEntity<DemIngestionResponseDTO[]> response = restTemplate.getForEntity(
-                    demGetAllIngestionsUrl,
+            ResponseEntity<DemIngestionResponseDTO[]> response = restTemplate.exchange(
+                    URI.create(demGetIngestionsUrl),
+                    HttpMethod.GET,
+                    binaryPreferred(),
                     DemIngestionResponseDTO[].class); // Espera um array de DemIngestionResponseDTO
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                logger.info("Recebidos {} jobs de ingestão do DEM.", response.getBody().length);
-                return Arrays.asList(response.getBody());
+                List<DemIngestionResponseDTO> jobs = Arrays.asList(response.getBody());
+                logger.info("Recebidos {} jobs de ingestão do DEM.", jobs.size());
+                return new DemIngestionPageDTO(jobs,
+                        headerAsLong(response.getHeaders(), TOTAL_COUNT_HEADER, jobs.size()),
+                        (int) headerAsLong(response.getHeaders(), TOTAL_PAGES_HEADER, 1));
             } else {
-                logger.error("Falha ao consultar todos os jobs de ingestão no DEM. Status: {}, Body: {}",
+                logger.error("Falha ao consultar os jobs de ingestão no DEM. Status: {}, Body: {}",
                              response.getStatusCode(), response.getBody());
-                return Collections.emptyList(); // Lançar exceção
+                return new DemIngestionPageDTO(Collections.emptyList(), 0, 0);
             }
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException(e.getResponseBodyAsString(), e);
         } catch (RestClientException e) {
-            logger.error("Erro de comunicação ao consultar todos os jobs de ingestão no DEM: ", e);
-            return Collections.emptyList(); 
+            logger.error("Erro de comunicação ao consultar os jobs de ingestão no DEM: ", e);
+            return new DemIngestionPageDTO(Collections.emptyList(), 0, 0);
         }
     }
+
+    // Requisição sem corpo que prefere a resposta em Smile (binário); um DEM sem suporte a Smile responde em JSON
+    private HttpEntity<Void> binaryPreferred() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, SMILE_PREFERRED_ACCEPT);
+        return new HttpEntity<>(headers);
+    }
+
+    private long headerAsLong(HttpHeaders headers, String name, long defaultValue) {
+        String value = headers.getFirst(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
 }
\ No newline at end of file
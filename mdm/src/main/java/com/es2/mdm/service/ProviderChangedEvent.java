@@ -0,0 +1,7 @@
+package com.es2.mdm.service;
+
+// Evento publicado pelo ProviderService quando um provedor é criado, alterado ou excluído.
+// Após o commit da transação, o DemIntegrationService pede ao DEM que invalide o cache desse provedor
+// e o ProviderService incrementa a versão dos dados de provedores (ETag).
+public record ProviderChangedEvent(Integer providerId) {
+}
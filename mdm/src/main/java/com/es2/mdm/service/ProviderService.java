@@ -1,16 +1,24 @@
 package com.es2.mdm.service;
 
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import com.es2.mdm.dto.ProviderDTO;
 import com.es2.mdm.model.Provider;
 import com.es2.mdm.repository.ProviderRepository;
+import com.fasterxml.jackson.core.JsonPointer;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -19,22 +27,39 @@ public class ProviderService {
 
 // Serviço responsável pela lógica de negócios relacionada aos provedores de serviços no MDM.
 // Ele fornece métodos para criar, ler, atualizar e excluir provedores, além de converter entre DTOs e entidades.
+// Mantém também a versão dos dados de provedores (ETag das consultas), incrementada após o commit de cada alteração.
+// O mapeamento de campos (fieldMappings) é validado na criação e na atualização, com as mesmas regras aplicadas pelo
+// DEM na ingestão: campos de destino conhecidos e expressões JSON Pointer válidas. Um mapeamento inválido resulta em
+// 400 Bad Request, em vez de uma falha só na próxima ingestão do provedor.
+
+    // Campos de destino aceitos pelo DEM no mapeamento de campos
+    private static final Set<String> MAPPING_TARGET_FIELDS = Set.of("countryName", "numericCode", "capitalCity",
+            "population", "area", "currencies", "currencies.currencyCode", "currencies.currencyName",
+            "currencies.currencySymbol");
+    private static final String CURRENCY_CODE_TARGET = "currencies.currencyCode";
+    private static final String KEY_EXPRESSION = "@key"; // Código da moeda a partir da chave do objeto de moedas
 
     private final ProviderRepository providerRepository;
+    private final ApplicationEventPublisher eventPublisher; // Notifica alterações de provedores (invalidação do cache no DEM)
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // Versão dos dados de provedores; começa no instante da inicialização (ms) para também mudar entre reinícios
+    private final AtomicLong dataVersion = new AtomicLong(System.currentTimeMillis());
 
 
     @Autowired
-    public ProviderService(ProviderRepository providerRepository) {
+    public ProviderService(ProviderRepository providerRepository, ApplicationEventPublisher eventPublisher) {
         this.providerRepository = providerRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // Cria um novo provedor no banco de dados.
     // Este método recebe um ProviderDTO, converte-o em uma entidade Provider, salva no repositório e retorna o ProviderDTO salvo.
     @Transactional
     public ProviderDTO createProvider(ProviderDTO providerDTO) {
+        validateFieldMappings(providerDTO.getFieldMappings());
         Provider provider = convertToEntity(providerDTO);
         Provider savedProvider = providerRepository.save(provider);
+        eventPublisher.publishEvent(new ProviderChangedEvent(savedProvider.getId()));
         return convertToDTO(savedProvider);
     }
 
@@ -62,9 +87,10 @@ public class ProviderService {
     // Este método recebe um ID e um ProviderDTO, busca o provedor existente pelo ID, 
     // atualiza seus campos com os valores do DTO e salva as alterações no repositório.
     // Se o provedor não for encontrado, lança uma EntityNotFoundException.
-    // O método retorna o ProviderDTO atualizado.
+    // O método retorna o ProviderDTO atualizado e publica um ProviderChangedEvent.
     @Transactional
     public ProviderDTO updateProvider(Integer id, ProviderDTO providerDTO) {
+        validateFieldMappings(providerDTO.getFieldMappings());
         Provider existingProvider = providerRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Provider not found with id: " + id));
 
@@ -72,8 +98,13 @@ public class ProviderService {
         existingProvider.setCategory(providerDTO.getCategory());
         existingProvider.setApiUrl(providerDTO.getApiUrl());
         existingProvider.setDescription(providerDTO.getDescription());
+        existingProvider.getFieldMappings().clear();
+        if (providerDTO.getFieldMappings() != null) {
+            existingProvider.getFieldMappings().putAll(providerDTO.getFieldMappings());
+        }
 
         Provider updatedProvider = providerRepository.save(existingProvider);
+        eventPublisher.publishEvent(new ProviderChangedEvent(id));
         return convertToDTO(updatedProvider);
     }
 
@@ -81,12 +112,54 @@ public class ProviderService {
     // Exclui um provedor pelo ID.
     // Este método verifica se o provedor existe no repositório antes de tentar excluí-lo.
     // Se o provedor não for encontrado, lança uma EntityNotFoundException.
+    // Publica um ProviderChangedEvent após a exclusão.
     @Transactional
     public void deleteProvider(Integer id) {
         if (!providerRepository.existsById(id)) {
             throw new EntityNotFoundException("Provider not found with id: " + id);
         }
         providerRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProviderChangedEvent(id));
+    }
+
+    // Versão atual dos dados de provedores, sem acesso ao banco
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    // Incrementa a versão dos dados após o commit de uma alteração, de modo que uma versão nova nunca é associada
+    // a dados ainda não confirmados.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProviderChanged(ProviderChangedEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    // Valida o mapeamento de campos (nulo ou vazio: mapeamento padrão do DEM).
+    // Lança IllegalArgumentException se houver um campo de destino desconhecido ou uma expressão JSON Pointer inválida.
+    private void validateFieldMappings(Map<String, String> fieldMappings) {
+        if (fieldMappings == null) {
+            return;
+        }
+        for (Map.Entry<String, String> mapping : fieldMappings.entrySet()) {
+            String target = mapping.getKey();
+            String expression = mapping.getValue();
+            if (!MAPPING_TARGET_FIELDS.contains(target)) {
+                throw new IllegalArgumentException("Campo de destino desconhecido no mapeamento: '" + target
+                        + "'. Campos válidos: " + MAPPING_TARGET_FIELDS.stream().sorted().toList());
+            }
+            if (expression == null) {
+                throw new IllegalArgumentException("Expressão ausente no mapeamento do campo '" + target + "'.");
+            }
+            if (KEY_EXPRESSION.equals(expression) && CURRENCY_CODE_TARGET.equals(target)) {
+                continue;
+            }
+            try {
+                JsonPointer.compile(expression);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Expressão JSON Pointer inválida para '" + target + "': '"
+                        + expression + "' (" + e.getMessage() + ")", e);
+            }
+        }
     }
 
     //Métodos de conversão de entidades entre DTO's e modelos.
@@ -97,6 +170,7 @@ public class ProviderService {
         dto.setCategory(provider.getCategory());
         dto.setApiUrl(provider.getApiUrl());
         dto.setDescription(provider.getDescription());
+        dto.setFieldMappings(new HashMap<>(provider.getFieldMappings()));
         if (provider.getCreatedAt() != null) {
             dto.setCreatedAt(provider.getCreatedAt().format(formatter));
         }
@@ -113,6 +187,9 @@ public class ProviderService {
         provider.setCategory(dto.getCategory());
         provider.setApiUrl(dto.getApiUrl());
         provider.setDescription(dto.getDescription());
+        if (dto.getFieldMappings() != null) {
+            provider.getFieldMappings().putAll(dto.getFieldMappings());
+        }
 
         return provider;
     }
@@ -0,0 +1,72 @@
+package com.es2.mdm.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.Configurable;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+// RestTemplate do MDM sobre o cliente HTTP com pool de conexões, com os limites e tempos máximos configurados (mdm.http.*).
+class HttpClientConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(RestTemplateAutoConfiguration.class))
+            .withUserConfiguration(HttpClientConfig.class, AppConfig.class)
+            .withPropertyValues(
+                    "mdm.http.connect-timeout-ms=1500",
+                    "mdm.http.read-timeout-ms=7000",
+                    "mdm.http.connection-request-timeout-ms=900",
+                    "mdm.http.max-total=12",
+                    "mdm.http.max-per-route=4");
+
+    @Test
+    void restTemplateUsesThePooledClientWithTheConfiguredTimeouts() {
+        contextRunner.run(context -> {
+            RestTemplate restTemplate = context.getBean(RestTemplate.class);
+            assertThat(restTemplate.getRequestFactory()).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+
+            HttpClient httpClient = ((HttpComponentsClientHttpRequestFactory) restTemplate.getRequestFactory()).getHttpClient();
+            RequestConfig requestConfig = ((Configurable) httpClient).getConfig();
+            assertThat(requestConfig.getConnectionRequestTimeout()).isEqualTo(Timeout.ofMilliseconds(900));
+
+            PoolingHttpClientConnectionManager connectionManager = context.getBean(PoolingHttpClientConnectionManager.class);
+            HttpRoute demRoute = new HttpRoute(new HttpHost("http", "localhost", 8082));
+            ConnectionConfig connectionConfig = ReflectionTestUtils.invokeMethod(connectionManager,
+                    "resolveConnectionConfig", demRoute);
+            assertThat(connectionConfig.getConnectTimeout()).isEqualTo(Timeout.ofMilliseconds(1500));
+            assertThat(connectionConfig.getSocketTimeout()).isEqualTo(Timeout.ofMilliseconds(7000));
+            assertThat(ReflectionTestUtils.getField(httpClient, "connManager")).isSameAs(connectionManager);
+        });
+    }
+
+    @Test
+    void poolLimitsAreApplied() {
+        contextRunner.run(context -> {
+            PoolingHttpClientConnectionManager connectionManager = context.getBean(PoolingHttpClientConnectionManager.class);
+
+            assertThat(connectionManager.getMaxTotal()).isEqualTo(12);
+            assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(4);
+        });
+    }
+
+    @Test
+    void http2UsesTheJdkClientWithoutAPool() {
+        contextRunner.withPropertyValues("mdm.http.http2-enabled=true").run(context -> {
+            assertThat(context.getBean(RestTemplate.class).getRequestFactory()).isInstanceOf(JdkClientHttpRequestFactory.class);
+            assertThat(context).doesNotHaveBean(PoolingHttpClientConnectionManager.class);
+        });
+    }
+}
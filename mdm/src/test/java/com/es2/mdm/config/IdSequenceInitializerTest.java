@@ -0,0 +1,94 @@
+package com.es2.mdm.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.es2.mdm.model.Country;
+import com.es2.mdm.model.Currency;
+import com.es2.mdm.repository.CountryRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Alinhamento das sequências de IDs a um banco que já possui países e moedas (IDs gerados quando ainda eram IDENTITY):
+// os novos INSERTs não podem reutilizar IDs existentes.
+// Contexto próprio: o Hibernate guarda em memória o bloco de IDs já obtido da sequência, e o alinhamento ocorre
+// na inicialização, antes de qualquer INSERT.
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // ALTER SEQUENCE encerra a transação no H2
+class IdSequenceInitializerTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @BeforeEach
+    void seedExistingRows() {
+        insertCountry(1, "Alpha");
+        insertCountry(2, "Beta");
+        insertCountry(75, "Gamma");
+        insertCurrency(1, "AAA", 1);
+        insertCurrency(2, "BBB", 2);
+        insertCurrency(60, "CCC", 75);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM currency");
+        jdbcTemplate.update("DELETE FROM country");
+    }
+
+    @Test
+    void newRowsDoNotReuseExistingIds() {
+        new IdSequenceInitializer(entityManagerFactory, jdbcTemplate).alignSequences();
+
+        Country country = new Country("Delta", 4, "Capital", 1000, 10.0f);
+        Currency currency = new Currency("DDD", "Moeda", "D", country);
+        country.getCurrencies().add(currency);
+        Country saved = countryRepository.save(country);
+
+        assertThat(saved.getId()).isGreaterThan(75);
+        assertThat(saved.getCurrencies().get(0).getCurrencyId()).isGreaterThan(60);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM country", Integer.class)).isEqualTo(4);
+    }
+
+    @Test
+    void aligningTwiceKeepsTheSequencesAhead() {
+        IdSequenceInitializer initializer = new IdSequenceInitializer(entityManagerFactory, jdbcTemplate);
+        initializer.alignSequences();
+        Long afterFirst = baseValue("COUNTRY_SEQ");
+
+        initializer.alignSequences();
+
+        assertThat(baseValue("COUNTRY_SEQ")).isEqualTo(afterFirst);
+        assertThat(afterFirst - Country.ID_ALLOCATION_SIZE + 1).isGreaterThan(75);
+    }
+
+    private void insertCountry(int id, String name) {
+        jdbcTemplate.update("INSERT INTO country (countryid, country_name, version) VALUES (?, ?, 0)", id, name);
+    }
+
+    private void insertCurrency(int id, String code, int countryId) {
+        jdbcTemplate.update("INSERT INTO currency (currencyid, currency_code, countryid) VALUES (?, ?, ?)",
+                id, code, countryId);
+    }
+
+    private Long baseValue(String sequenceName) {
+        return jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, sequenceName);
+    }
+}
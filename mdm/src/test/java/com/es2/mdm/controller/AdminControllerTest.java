@@ -0,0 +1,97 @@
+package com.es2.mdm.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestTemplate;
+
+import com.es2.mdm.service.DemIngestionEventRelay;
+import com.es2.mdm.service.DemIntegrationService;
+
+// Listagem das ingestões do DEM pelo MDM (GET /mdm/api/admin/ingest/status/all): filtros, página e ordenação
+// repassados ao DEM, totais do DEM devolvidos nos cabeçalhos e 400 quando o DEM rejeita os parâmetros.
+class AdminControllerTest {
+
+    private static final String DEM_INGESTIONS_URL = "http://dem.test/dem/api/ingestion";
+
+    private MockRestServiceServer dem;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        dem = MockRestServiceServer.bindTo(restTemplate).build();
+        DemIntegrationService demIntegrationService = new DemIntegrationService(restTemplate);
+        ReflectionTestUtils.setField(demIntegrationService, "demApiBaseUrl", "http://dem.test/dem/api");
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new AdminController(demIntegrationService, mock(DemIngestionEventRelay.class)))
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+    }
+
+    @Test
+    void filtersAndPageAreForwardedToTheDemWithItsTotals() throws Exception {
+        HttpHeaders totals = new HttpHeaders();
+        totals.set("X-Total-Count", "41");
+        totals.set("X-Total-Pages", "3");
+        dem.expect(requestTo(Matchers.startsWith(DEM_INGESTIONS_URL)))
+                .andExpect(queryParam("page", "1"))
+                .andExpect(queryParam("size", "20"))
+                .andExpect(queryParam("status", "FAILED"))
+                .andExpect(queryParam("mdmProviderId", "3"))
+                .andExpect(queryParam("createdFrom", "2025-01-01T00:00"))
+                .andExpect(queryParam("sort", "updatedAt,asc"))
+                .andRespond(withSuccess("[{\"id\": 7, \"status\": \"FAILED\"}]", MediaType.APPLICATION_JSON)
+                        .headers(totals));
+
+        mockMvc.perform(get("/mdm/api/admin/ingest/status/all")
+                        .param("status", "FAILED")
+                        .param("mdmProviderId", "3")
+                        .param("createdFrom", "2025-01-01T00:00:00")
+                        .param("page", "1")
+                        .param("size", "20")
+                        .param("sort", "updatedAt,asc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "41"))
+                .andExpect(header().string("X-Total-Pages", "3"))
+                .andExpect(jsonPath("$[0].id").value(7));
+        dem.verify();
+    }
+
+    @Test
+    void defaultPageAsksTheDemForTheNewestIngestions() throws Exception {
+        dem.expect(requestTo(DEM_INGESTIONS_URL + "?page=0&size=50&sort=createdAt,desc&sort=id,desc"))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        mockMvc.perform(get("/mdm/api/admin/ingest/status/all"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "0"));
+        dem.verify();
+    }
+
+    @Test
+    void filterRejectedByTheDemIsABadRequest() throws Exception {
+        dem.expect(requestTo(Matchers.startsWith(DEM_INGESTIONS_URL)))
+                .andRespond(withBadRequest().body("Status de ingestão inválido: X"));
+
+        mockMvc.perform(get("/mdm/api/admin/ingest/status/all").param("status", "X"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,104 @@
+package com.es2.mdm.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.service.CallbackProcessingService;
+import com.es2.mdm.service.CountryReadModel.Versioned;
+import com.es2.mdm.service.CountryService;
+
+// GET condicional dos países: ETag e X-Data-Version com a versão do CountryReadModel usada na resposta,
+// e 304 Not Modified, sem montar a resposta, quando o If-None-Match corresponde à versão atual.
+class CountryControllerTest {
+
+    private static final long DATA_VERSION = 7L;
+    private static final String ETAG = "\"7\"";
+
+    private CountryService countryService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        countryService = mock(CountryService.class);
+        when(countryService.getDataVersion()).thenReturn(DATA_VERSION);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new CountryController(countryService, mock(CallbackProcessingService.class)))
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver())
+                .build();
+    }
+
+    @Test
+    void countryIsReturnedWithTheDataVersionAsETag() throws Exception {
+        when(countryService.getCountryById(1)).thenReturn(new Versioned<>(country(1, "Portugal"), DATA_VERSION));
+
+        mockMvc.perform(get("/countries/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string("X-Data-Version", "7"))
+                .andExpect(jsonPath("$.countryName").value("Portugal"));
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModifiedWithoutLoadingTheCountry() throws Exception {
+        mockMvc.perform(get("/countries/1").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+        verify(countryService, never()).getCountryById(any());
+    }
+
+    @Test
+    void matchingIfNoneMatchOnTheListingReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/countries").param("page", "0").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+
+        verify(countryService, never()).getCountries(any(), any());
+    }
+
+    @Test
+    void staleIfNoneMatchReturnsTheCurrentPage() throws Exception {
+        when(countryService.getCountries(any(), any())).thenReturn(
+                new Versioned<>(new PageImpl<>(List.of(country(1, "Portugal")), PageRequest.of(0, 100), 1), DATA_VERSION));
+
+        mockMvc.perform(get("/countries").header(HttpHeaders.IF_NONE_MATCH, "\"6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$[0].countryName").value("Portugal"));
+    }
+
+    @Test
+    void matchingIfNoneMatchOnTheSearchReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/countries/search").param("name", "port").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+
+        verify(countryService, never()).searchCountriesByName(any(), anyInt());
+    }
+
+    private static CountryDTO country(Integer id, String name) {
+        CountryDTO country = new CountryDTO();
+        country.setId(id);
+        country.setCountryName(name);
+        return country;
+    }
+}
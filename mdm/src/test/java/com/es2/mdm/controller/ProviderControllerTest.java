@@ -0,0 +1,85 @@
+package com.es2.mdm.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.es2.mdm.dto.ProviderDTO;
+import com.es2.mdm.service.ProviderService;
+
+// GET condicional dos provedores: ETag com a versão dos dados e 304 Not Modified, sem consultar os provedores,
+// quando o If-None-Match corresponde à versão atual.
+class ProviderControllerTest {
+
+    private static final long DATA_VERSION = 42L;
+    private static final String ETAG = "\"42\"";
+
+    private ProviderService providerService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        providerService = mock(ProviderService.class);
+        when(providerService.getDataVersion()).thenReturn(DATA_VERSION);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProviderController(providerService)).build();
+    }
+
+    @Test
+    void providerIsReturnedWithTheDataVersionAsETag() throws Exception {
+        when(providerService.getProviderById(1)).thenReturn(provider(1, "Provedor A"));
+
+        mockMvc.perform(get("/mdm/api/providers/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.name").value("Provedor A"));
+    }
+
+    @Test
+    void matchingIfNoneMatchReturnsNotModifiedWithoutLoadingTheProvider() throws Exception {
+        mockMvc.perform(get("/mdm/api/providers/1").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+
+        verify(providerService, never()).getProviderById(1);
+    }
+
+    @Test
+    void staleIfNoneMatchReturnsTheCurrentProviders() throws Exception {
+        when(providerService.getAllProviders()).thenReturn(List.of(provider(1, "Provedor A"), provider(2, "Provedor B")));
+
+        mockMvc.perform(get("/mdm/api/providers").header(HttpHeaders.IF_NONE_MATCH, "\"41\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void matchingIfNoneMatchOnTheListReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/mdm/api/providers").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+
+        verify(providerService, never()).getAllProviders();
+    }
+
+    private static ProviderDTO provider(Integer id, String name) {
+        ProviderDTO provider = new ProviderDTO();
+        provider.setId(id);
+        provider.setName(name);
+        return provider;
+    }
+}
@@ -0,0 +1,241 @@
+package com.es2.mdm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.es2.mdm.controller.CountryController;
+import com.es2.mdm.dto.CallbackBatchDTO;
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.enums.CallbackBatchStatus;
+import com.es2.mdm.enums.SyncOperation;
+import com.es2.mdm.model.CallbackBatch;
+import com.es2.mdm.repository.CallbackBatchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Idempotência do callback (Idempotency-Key): reenvios, conflitos, reenvios simultâneos, reaplicação de lotes com
+// falhas e retenção dos lotes concluídos.
+// Sem a transação do teste, para que as gravações simultâneas vejam os lotes gravados (restrição de unicidade da chave).
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CallbackIdempotencyTest {
+
+    private static final String KEY = "dem-ingestion-1-chunk-0-6f1c2d3e";
+    private static final Integer PROVIDER_ID = 3;
+
+    @Autowired
+    private CallbackBatchRepository callbackBatchRepository;
+
+    @TempDir
+    private Path tempDir;
+
+    private ApplicationEventPublisher eventPublisher;
+    private CallbackPayloadStore callbackPayloadStore;
+    private CallbackProcessingService service;
+    private CountryController controller;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        callbackPayloadStore = new CallbackPayloadStore(new ObjectMapper());
+        ReflectionTestUtils.setField(callbackPayloadStore, "storagePath", tempDir.toString());
+        ReflectionTestUtils.setField(callbackPayloadStore, "ioBufferSize", 8192);
+        // Sem start() e sem o proxy transacional: os lotes ficam na fila, pois o publicador de eventos é simulado,
+        // e cada operação do repositório é uma transação própria
+        service = new CallbackProcessingService(callbackBatchRepository, callbackPayloadStore, mock(CountryService.class),
+                new CountryKeyLocks(64), eventPublisher);
+        ReflectionTestUtils.setField(service, "retentionHours", 24L);
+        controller = new CountryController(mock(CountryService.class), service);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        callbackBatchRepository.deleteAll();
+    }
+
+    @Test
+    void replayWithSameKeyAndBodyReturnsTheOriginalBatch() throws Exception {
+        CallbackReceipt first = enqueue(countries("Portugal"), 0, KEY);
+        CallbackReceipt replay = enqueue(countries("Portugal"), 0, KEY);
+
+        assertThat(first.duplicate()).isFalse();
+        assertThat(replay.duplicate()).isTrue();
+        assertThat(replay.batch().getProcessingId()).isEqualTo(first.batch().getProcessingId());
+        assertThat(callbackBatchRepository.count()).isEqualTo(1);
+        verify(eventPublisher, times(1)).publishEvent(any(CallbackBatchQueuedEvent.class)); // Aplicado uma única vez
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsAConflict() {
+        ResponseEntity<Object> first = receive(countries("Portugal"), SyncOperation.UPSERT);
+        ResponseEntity<Object> otherBody = receive(countries("Espanha"), SyncOperation.UPSERT);
+        ResponseEntity<Object> otherOperation = receive(countries("Portugal"), SyncOperation.DELETE);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(otherBody.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(otherOperation.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(callbackBatchRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentDuplicatesResolveToOneBatch() throws Exception {
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<Object>>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(requests)) {
+            for (int i = 0; i < requests; i++) {
+                Callable<ResponseEntity<Object>> request = () -> {
+                    start.await();
+                    return receive(countries("Portugal"), SyncOperation.UPSERT);
+                };
+                responses.add(executor.submit(request));
+            }
+            start.countDown();
+
+            Long processingId = null;
+            int replayed = 0;
+            for (Future<ResponseEntity<Object>> future : responses) {
+                ResponseEntity<Object> response = future.get();
+                assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+                Long id = ((CallbackBatchDTO) response.getBody()).getProcessingId();
+                assertThat(processingId == null || processingId.equals(id)).as("mesmo processingId").isTrue();
+                processingId = id;
+                if ("true".equals(response.getHeaders().getFirst("Idempotent-Replayed"))) {
+                    replayed++;
+                }
+            }
+            assertThat(replayed).isEqualTo(requests - 1);
+        }
+        assertThat(callbackBatchRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void replayOfABatchThatEndedWithErrorsAppliesItAgain() throws Exception {
+        CallbackReceipt first = enqueue(countries("Portugal", "Espanha"), 0, KEY);
+        Long batchId = first.batch().getProcessingId();
+        finish(batchId, CallbackBatchStatus.COMPLETED_WITH_ERRORS, LocalDateTime.now());
+
+        CallbackReceipt replay = enqueue(countries("Portugal", "Espanha"), 0, KEY);
+
+        assertThat(replay.batch().getProcessingId()).isEqualTo(batchId);
+        assertThat(replay.batch().getStatus()).isEqualTo(CallbackBatchStatus.QUEUED.name());
+        assertThat(replay.batch().getAppliedRecords()).isZero();
+        assertThat(replay.batch().getFailedRecords()).isZero();
+        assertThat(replay.batch().getLastError()).isNull();
+        CallbackBatch batch = callbackBatchRepository.findById(batchId).orElseThrow();
+        assertThat(callbackPayloadStore.read(Paths.get(batch.getPayloadFile())))
+                .extracting(CountryDTO::getCountryName).containsExactly("Portugal", "Espanha");
+        verify(eventPublisher, times(2)).publishEvent(new CallbackBatchQueuedEvent(batchId, "1"));
+    }
+
+    @Test
+    void completedBatchIsNotAppliedAgain() throws Exception {
+        Long batchId = enqueue(countries("Portugal"), 0, KEY).batch().getProcessingId();
+        finish(batchId, CallbackBatchStatus.COMPLETED, LocalDateTime.now());
+
+        CallbackReceipt replay = enqueue(countries("Portugal"), 0, KEY);
+
+        assertThat(replay.batch().getStatus()).isEqualTo(CallbackBatchStatus.COMPLETED.name());
+        verify(eventPublisher, times(1)).publishEvent(any(CallbackBatchQueuedEvent.class));
+    }
+
+    @Test
+    void concurrentReplaysOfAFailedBatchRequeueItOnce() throws Exception {
+        Long batchId = enqueue(countries("Portugal"), 0, KEY).batch().getProcessingId();
+        finish(batchId, CallbackBatchStatus.FAILED, LocalDateTime.now());
+        int requests = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CallbackReceipt>> receipts = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(requests)) {
+            for (int i = 0; i < requests; i++) {
+                Callable<CallbackReceipt> replay = () -> {
+                    start.await();
+                    return enqueue(countries("Portugal"), 0, KEY);
+                };
+                receipts.add(executor.submit(replay));
+            }
+            start.countDown();
+            for (Future<CallbackReceipt> receipt : receipts) {
+                assertThat(receipt.get().batch().getProcessingId()).isEqualTo(batchId);
+            }
+        }
+        // O envio original e uma única recolocação na fila
+        verify(eventPublisher, times(2)).publishEvent(any(CallbackBatchQueuedEvent.class));
+        assertThat(callbackBatchRepository.findById(batchId).orElseThrow().getStatus()).isEqualTo(CallbackBatchStatus.QUEUED);
+    }
+
+    @Test
+    void finishedBatchesAreRemovedAfterTheRetentionPeriod() throws Exception {
+        Long expired = enqueue(countries("Portugal"), 0, KEY + "-a").batch().getProcessingId();
+        Long failed = enqueue(countries("Espanha"), 1, KEY + "-b").batch().getProcessingId();
+        Long recent = enqueue(countries("França"), 2, KEY + "-c").batch().getProcessingId();
+        Long queued = enqueue(countries("Itália"), 3, KEY + "-d").batch().getProcessingId();
+        finish(expired, CallbackBatchStatus.COMPLETED, LocalDateTime.now().minusHours(25));
+        finish(failed, CallbackBatchStatus.FAILED, LocalDateTime.now().minusHours(25));
+        finish(recent, CallbackBatchStatus.COMPLETED, LocalDateTime.now().minusHours(1));
+        Path failedPayload = callbackPayloadStore.fileOf(failed);
+
+        assertThat(service.purgeExpiredBatches()).isEqualTo(2);
+
+        assertThat(callbackBatchRepository.findAll()).extracting(CallbackBatch::getId).containsExactlyInAnyOrder(recent, queued);
+        assertThat(Files.exists(failedPayload)).isFalse();
+        // Depois da retenção, o mesmo envio é recebido como um lote novo
+        assertThat(enqueue(countries("Portugal"), 0, KEY + "-a").duplicate()).isFalse();
+    }
+
+    // Marca o lote como concluído, como o worker faria; lotes FAILED mantêm o arquivo
+    private void finish(Long batchId, CallbackBatchStatus status, LocalDateTime completedAt) {
+        CallbackBatch batch = callbackBatchRepository.findById(batchId).orElseThrow();
+        batch.setStatus(status);
+        batch.setAppliedRecords(status == CallbackBatchStatus.COMPLETED ? batch.getTotalRecords() : 0);
+        batch.setFailedRecords(status == CallbackBatchStatus.COMPLETED ? 0 : batch.getTotalRecords());
+        batch.setLastError(status == CallbackBatchStatus.COMPLETED ? null : "Erro ao aplicar o lote");
+        batch.setCompletedAt(completedAt);
+        batch.setPayloadFile(status == CallbackBatchStatus.FAILED ? callbackPayloadStore.fileOf(batchId).toString() : null);
+        callbackBatchRepository.save(batch);
+    }
+
+    private CallbackReceipt enqueue(List<CountryDTO> countries, int chunkIndex, String idempotencyKey) throws IOException {
+        return service.enqueue(countries, SyncOperation.UPSERT, PROVIDER_ID, "1", chunkIndex, idempotencyKey);
+    }
+
+    private ResponseEntity<Object> receive(List<CountryDTO> countries, SyncOperation operation) {
+        return controller.receiveCountries(countries, operation.name(), PROVIDER_ID, "1", 0, KEY);
+    }
+
+    private static List<CountryDTO> countries(String... names) {
+        List<CountryDTO> countries = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            countries.add(new CountryDTO(null, names[i], 100 + i, null, null, null, List.of()));
+        }
+        return countries;
+    }
+}
@@ -0,0 +1,213 @@
+package com.es2.mdm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.enums.CallbackBatchStatus;
+import com.es2.mdm.enums.SyncOperation;
+import com.es2.mdm.model.CallbackBatch;
+import com.es2.mdm.repository.CallbackBatchRepository;
+
+// Aplicação dos lotes do callback: ordem dos registros nas partições, repetição em conflitos de versão
+// e ordem dos lotes de uma mesma ingestão.
+class CallbackProcessingServiceTest {
+
+    private final Map<Long, CallbackBatch> batches = new ConcurrentHashMap<>();
+    private final Map<String, List<CountryDTO>> payloads = new ConcurrentHashMap<>(); // Conteúdo de cada arquivo de lote
+    private final List<CountryDTO> applied = Collections.synchronizedList(new ArrayList<>());
+    private CallbackPayloadStore callbackPayloadStore;
+    private CountryService countryService;
+    private CallbackProcessingService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CallbackBatchRepository callbackBatchRepository = mock(CallbackBatchRepository.class);
+        when(callbackBatchRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(batches.get(invocation.<Long>getArgument(0))));
+        when(callbackBatchRepository.save(any(CallbackBatch.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        callbackPayloadStore = mock(CallbackPayloadStore.class);
+        when(callbackPayloadStore.read(any(Path.class))).thenAnswer(invocation -> {
+            List<CountryDTO> countries = payloads.get(invocation.getArgument(0).toString());
+            if (countries == null) {
+                throw new IOException("Arquivo não encontrado: " + invocation.getArgument(0));
+            }
+            return countries;
+        });
+        countryService = mock(CountryService.class);
+        doAnswer(invocation -> applied.addAll(invocation.getArgument(0)))
+                .when(countryService).processAndSaveCountries(anyList(), any());
+
+        service = new CallbackProcessingService(callbackBatchRepository, callbackPayloadStore, countryService,
+                new CountryKeyLocks(64), mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(service, "applyBatchSize", 1);
+        ReflectionTestUtils.setField(service, "workerCount", 2);
+        ReflectionTestUtils.setField(service, "parallelApply", true);
+        ReflectionTestUtils.setField(service, "applyParallelism", 4);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.stop();
+    }
+
+    @Test
+    void repeatedRecordsOfOneCountryAreAppliedInOrder() throws Exception {
+        service.start();
+        List<CountryDTO> records = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            records.add(country(i, "País " + i));
+            if (i % 10 == 0) {
+                records.add(country(7, "Versão " + i / 10)); // O mesmo país, três vezes ao longo do lote
+            }
+        }
+
+        CallbackBatch batch = queue(1L, "ing-1", records);
+        awaitStatus(batch, CallbackBatchStatus.COMPLETED);
+
+        assertThat(batch.getAppliedRecords()).isEqualTo(records.size());
+        List<String> versions;
+        synchronized (applied) {
+            versions = applied.stream().filter(country -> country.getNumericCode() == 7)
+                    .map(CountryDTO::getCountryName).toList();
+        }
+        assertThat(versions).containsExactly("País 7", "Versão 1", "Versão 2", "Versão 3");
+    }
+
+    @Test
+    void versionConflictIsRetriedInANewTransaction() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("Conflito de versão");
+            }
+            return null;
+        }).when(countryService).processAndSaveCountries(anyList(), any());
+        service.start();
+
+        CallbackBatch batch = queue(1L, "ing-1", List.of(country(1, "Portugal")));
+        awaitStatus(batch, CallbackBatchStatus.COMPLETED);
+
+        assertThat(batch.getAppliedRecords()).isEqualTo(1);
+        assertThat(batch.getFailedRecords()).isZero();
+        verify(countryService, times(2)).processAndSaveCountries(anyList(), any());
+    }
+
+    @Test
+    void persistentConflictFallsBackToOneByOne() throws Exception {
+        doAnswer(invocation -> {
+            List<CountryDTO> countries = invocation.getArgument(0);
+            if (countries.stream().anyMatch(country -> country.getNumericCode() == 2)) {
+                throw new OptimisticLockingFailureException("Conflito de versão");
+            }
+            applied.addAll(countries);
+            return null;
+        }).when(countryService).processAndSaveCountries(anyList(), any());
+        ReflectionTestUtils.setField(service, "applyBatchSize", 10);
+        ReflectionTestUtils.setField(service, "parallelApply", false);
+        service.start();
+
+        CallbackBatch batch = queue(1L, "ing-1", List.of(country(1, "Portugal"), country(2, "Espanha"), country(3, "França")));
+        awaitStatus(batch, CallbackBatchStatus.COMPLETED_WITH_ERRORS);
+
+        assertThat(batch.getAppliedRecords()).isEqualTo(2);
+        assertThat(batch.getFailedRecords()).isEqualTo(1);
+        assertThat(batch.getLastError()).contains("Espanha");
+        assertThat(applied).extracting(CountryDTO::getNumericCode).containsExactly(1, 3);
+        // 3 tentativas com o lote inteiro e 3 com o país em conflito, além de uma aplicação para cada um dos outros dois
+        verify(countryService, times(8)).processAndSaveCountries(anyList(), any());
+    }
+
+    @Test
+    void batchesOfOneIngestionAreAppliedOneAtATimeInIdOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            List<CountryDTO> countries = invocation.getArgument(0);
+            if (countries.get(0).getNumericCode() == 1) {
+                assertThat(release.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            applied.addAll(countries);
+            return null;
+        }).when(countryService).processAndSaveCountries(anyList(), any());
+        service.start();
+
+        CallbackBatch first = queue(1L, "ing-1", List.of(country(1, "Portugal")));
+        await().atMost(Duration.ofSeconds(5)).until(() -> first.getStatus() == CallbackBatchStatus.PROCESSING);
+        CallbackBatch third = queue(3L, "ing-1", List.of(country(3, "França")));
+        CallbackBatch second = queue(2L, "ing-1", List.of(country(2, "Espanha"))); // Confirmado depois do lote 3
+        CallbackBatch other = queue(4L, "ing-2", List.of(country(4, "Itália")));
+
+        awaitStatus(other, CallbackBatchStatus.COMPLETED); // Outra ingestão não espera
+        assertThat(second.getStatus()).isEqualTo(CallbackBatchStatus.QUEUED);
+        assertThat(third.getStatus()).isEqualTo(CallbackBatchStatus.QUEUED);
+
+        release.countDown();
+        awaitStatus(third, CallbackBatchStatus.COMPLETED);
+        assertThat(first.getStatus()).isEqualTo(CallbackBatchStatus.COMPLETED);
+        assertThat(second.getStatus()).isEqualTo(CallbackBatchStatus.COMPLETED);
+        assertThat(applied).extracting(CountryDTO::getNumericCode).containsExactly(4, 1, 2, 3);
+    }
+
+    @Test
+    void unreadablePayloadFailsTheBatch() throws Exception {
+        service.start();
+        CallbackBatch batch = new CallbackBatch("ing-1", 0, SyncOperation.UPSERT, 1);
+        batch.setId(1L);
+        batch.setPayloadFile("lote-1.json");
+        batches.put(1L, batch);
+
+        service.onBatchQueued(new CallbackBatchQueuedEvent(1L, "ing-1"));
+        awaitStatus(batch, CallbackBatchStatus.FAILED);
+
+        assertThat(batch.getLastError()).contains("lote-1.json");
+        verify(countryService, never()).processAndSaveCountries(anyList(), any());
+    }
+
+    // Grava o lote (no repositório simulado) com o conteúdo informado e o entrega como após o commit do callback
+    private CallbackBatch queue(Long id, String ingestionId, List<CountryDTO> countries) throws Exception {
+        CallbackBatch batch = new CallbackBatch(ingestionId, id.intValue(), SyncOperation.UPSERT, countries.size());
+        batch.setId(id);
+        batch.setPayloadFile("lote-" + id + ".json");
+        payloads.put(batch.getPayloadFile(), countries);
+        batches.put(id, batch);
+        service.onBatchQueued(new CallbackBatchQueuedEvent(id, ingestionId));
+        return batch;
+    }
+
+    private void awaitStatus(CallbackBatch batch, CallbackBatchStatus status) {
+        await().atMost(Duration.ofSeconds(10)).until(() -> batch.getStatus() == status);
+    }
+
+    private static CountryDTO country(int numericCode, String name) {
+        return new CountryDTO(null, name, numericCode, null, null, null, List.of());
+    }
+}
@@ -0,0 +1,95 @@
+package com.es2.mdm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.service.CountryNameIndex.Match;
+import com.es2.mdm.service.CountryNameIndex.MatchType;
+
+// Índice de nomes da busca de países: normalização, tipos de correspondência e atualização incremental (with).
+class CountryNameIndexTest {
+
+    private static final List<CountryDTO> COUNTRIES = List.of(
+            country(1, "Côte d'Ivoire"),
+            country(2, "United States"),
+            country(3, "United Kingdom"),
+            country(4, "Germany"),
+            country(5, "Guinea-Bissau"));
+
+    @Test
+    void accentsApostrophesAndCaseAreFolded() {
+        assertThat(CountryNameIndex.normalize("Côte d'Ivoire")).isEqualTo("cote divoire");
+        assertThat(CountryNameIndex.normalize("  GUINEA-Bissau ")).isEqualTo("guinea bissau");
+
+        List<Match> matches = CountryNameIndex.build(COUNTRIES).search("cote divoire", 10);
+
+        assertThat(matches).first().isEqualTo(new Match(1, MatchType.EXACT, 1.0));
+    }
+
+    @Test
+    void prefixesMatchTheNameAndEachWord() {
+        CountryNameIndex index = CountryNameIndex.build(COUNTRIES);
+
+        assertThat(index.search("unit", 10)).extracting(Match::countryId, Match::matchType)
+                .containsExactlyInAnyOrder(tuple(2, MatchType.PREFIX), tuple(3, MatchType.PREFIX));
+        assertThat(index.search("kingd", 10)).first().isEqualTo(new Match(3, MatchType.WORD_PREFIX, 0.8));
+        assertThat(index.search("bissau", 10)).first().extracting(Match::countryId, Match::matchType)
+                .containsExactly(5, MatchType.WORD_PREFIX);
+    }
+
+    @Test
+    void typosAreFoundByTrigramSimilarity() {
+        List<Match> matches = CountryNameIndex.build(COUNTRIES).search("germny", 10);
+
+        assertThat(matches).first().extracting(Match::countryId, Match::matchType).containsExactly(4, MatchType.FUZZY);
+    }
+
+    @Test
+    void renameRemovesTheOldNameFromTrieAndTrigrams() {
+        CountryNameIndex before = CountryNameIndex.build(COUNTRIES);
+
+        CountryNameIndex after = before.with(List.of(country(4, "Deutschland")), Set.of());
+
+        assertThat(after.search("germany", 10)).isEmpty(); // Nem exata, nem por prefixo
+        assertThat(after.search("germny", 10)).isEmpty(); // Nem pelos trigramas do nome antigo
+        assertThat(after.search("deutsch", 10)).containsExactly(new Match(4, MatchType.PREFIX, 0.9));
+        // O índice anterior continua válido para as leituras em curso
+        assertThat(before.search("germany", 10)).containsExactly(new Match(4, MatchType.EXACT, 1.0));
+        assertThat(before.search("deutsch", 10)).isEmpty();
+    }
+
+    @Test
+    void deleteRemovesTheCountryButKeepsNamesThatShareKeys() {
+        CountryNameIndex index = CountryNameIndex.build(COUNTRIES).with(List.of(), Set.of(2));
+
+        assertThat(index.search("united states", 10)).extracting(Match::countryId).doesNotContain(2);
+        assertThat(index.search("unit", 10)).extracting(Match::countryId).containsExactly(3);
+        assertThat(index.search("states", 10)).extracting(Match::countryId).doesNotContain(2);
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFreshBuild() {
+        CountryNameIndex incremental = CountryNameIndex.build(COUNTRIES)
+                .with(List.of(country(4, "Deutschland"), country(6, "Guinea")), Set.of(2, 5));
+        CountryNameIndex rebuilt = CountryNameIndex.build(List.of(
+                country(1, "Côte d'Ivoire"),
+                country(3, "United Kingdom"),
+                country(4, "Deutschland"),
+                country(6, "Guinea")));
+
+        for (String query : List.of("guinea", "gui", "bissau", "united", "states", "germany", "deutschland", "kingdom",
+                "cote", "ivoire", "untied kingdom", "gunea")) {
+            assertThat(incremental.search(query, 10)).as(query).isEqualTo(rebuilt.search(query, 10));
+        }
+    }
+
+    private static CountryDTO country(int id, String name) {
+        return new CountryDTO(id, name, id, null, null, null, List.of());
+    }
+}
@@ -0,0 +1,115 @@
+package com.es2.mdm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.es2.mdm.model.Country;
+import com.es2.mdm.repository.CountryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+// Atualização do CountryReadModel após o commit: recarga completa quando a atualização incremental falha.
+class CountryReadModelRefreshTest {
+
+    private CountryRepository countryRepository;
+    private CountryReadModel countryReadModel;
+    private CountryService countryService;
+
+    @BeforeEach
+    void setUp() {
+        countryRepository = mock(CountryRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        countryReadModel = new CountryReadModel();
+        countryService = new CountryService(countryRepository, countryReadModel, mock(ApplicationEventPublisher.class),
+                mock(EntityManager.class), new ObjectMapper(), transactionManager);
+
+        when(countryRepository.findAllWithCurrencies()).thenReturn(List.of(country(1, "Portugal")));
+        countryService.loadReadModel();
+    }
+
+    @Test
+    void changedCountriesAreAppliedIncrementally() {
+        when(countryRepository.findAllWithCurrenciesByIdIn(anyCollection())).thenReturn(List.of(country(1, "Portuguesa")));
+        long version = countryReadModel.snapshot().version();
+
+        countryService.onCountriesChanged(new CountriesChangedEvent(Set.of(1), Set.of()));
+
+        assertThat(countryReadModel.snapshot().version()).isGreaterThan(version);
+        assertThat(countryReadModel.snapshot().findById(1)).get().extracting("countryName").isEqualTo("Portuguesa");
+        assertThat(countryService.isReadModelStale()).isFalse();
+    }
+
+    @Test
+    void failedRefreshFallsBackToFullReload() {
+        when(countryRepository.findAllWithCurrenciesByIdIn(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("banco indisponível"));
+        when(countryRepository.findAllWithCurrencies()).thenReturn(List.of(country(1, "Portuguesa"), country(2, "Espanha")));
+        long version = countryReadModel.snapshot().version();
+
+        countryService.onCountriesChanged(new CountriesChangedEvent(Set.of(1, 2), Set.of()));
+
+        assertThat(countryReadModel.snapshot().version()).isGreaterThan(version); // Nova versão: o ETag anterior deixa de valer
+        assertThat(countryReadModel.snapshot().countries()).extracting("countryName").containsExactly("Portuguesa", "Espanha");
+        assertThat(countryService.isReadModelStale()).isFalse();
+    }
+
+    @Test
+    void failedReloadIsRetriedUntilItSucceeds() {
+        when(countryRepository.findAllWithCurrenciesByIdIn(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("banco indisponível"));
+        when(countryRepository.findAllWithCurrencies())
+                .thenThrow(new DataAccessResourceFailureException("banco indisponível"));
+        long version = countryReadModel.snapshot().version();
+
+        countryService.onCountriesChanged(new CountriesChangedEvent(Set.of(1), Set.of()));
+
+        assertThat(countryService.isReadModelStale()).isTrue();
+        assertThat(countryReadModel.snapshot().version()).isEqualTo(version);
+
+        doReturn(List.of(country(1, "Portuguesa"))).when(countryRepository).findAllWithCurrencies();
+        countryService.retryStaleReadModel();
+
+        assertThat(countryService.isReadModelStale()).isFalse();
+        assertThat(countryReadModel.snapshot().version()).isGreaterThan(version);
+        assertThat(countryReadModel.snapshot().findById(1)).get().extracting("countryName").isEqualTo("Portuguesa");
+    }
+
+    @Test
+    void writesWhileStaleReloadEverything() {
+        when(countryRepository.findAllWithCurrenciesByIdIn(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("banco indisponível"));
+        when(countryRepository.findAllWithCurrencies())
+                .thenThrow(new DataAccessResourceFailureException("banco indisponível"));
+        countryService.onCountriesChanged(new CountriesChangedEvent(Set.of(1), Set.of()));
+        assertThat(countryService.isReadModelStale()).isTrue();
+
+        // A próxima escrita não é aplicada de forma incremental sobre um retrato desatualizado
+        doReturn(List.of(country(2, "Espanha"))).when(countryRepository).findAllWithCurrencies();
+        countryService.onCountriesChanged(new CountriesChangedEvent(Set.of(2), Set.of(1)));
+
+        assertThat(countryService.isReadModelStale()).isFalse();
+        assertThat(countryReadModel.snapshot().countries()).extracting("countryName").containsExactly("Espanha");
+    }
+
+    private Country country(int id, String name) {
+        Country country = new Country(name, id, null, null, null);
+        country.setId(id);
+        return country;
+    }
+}
@@ -0,0 +1,206 @@
+package com.es2.mdm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.es2.mdm.dto.CountryDTO;
+import com.es2.mdm.dto.CurrencyDTO;
+import com.es2.mdm.model.Country;
+import com.es2.mdm.model.Currency;
+import com.es2.mdm.repository.CountryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+// Operações do CountryService sobre o banco (H2 em memória): exportação em NDJSON, reconciliação das moedas e
+// remoções enviadas pelo DEM.
+@DataJpaTest
+class CountryServiceTest {
+
+    private static final Integer PROVIDER_ID = 3;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CountryService countryService;
+
+    @BeforeEach
+    void setUp() {
+        countryService = new CountryService(countryRepository, new CountryReadModel(),
+                mock(ApplicationEventPublisher.class), entityManager, objectMapper, transactionManager);
+    }
+
+    @Test
+    void exportWritesEveryCountryWithAllCurrenciesAcrossPages() throws Exception {
+        int total = 2 * CountryService.EXPORT_PAGE_SIZE + 7; // Três páginas, a última incompleta
+        List<Country> countries = new ArrayList<>();
+        for (int i = 1; i <= total; i++) {
+            Country country = new Country("Country " + i, i, "Capital " + i, i * 1000, (float) i);
+            country.addCurrency(new Currency("EUR", "Euro " + i, "€", country));
+            country.addCurrency(new Currency("USD", "Dólar " + i, "$", country));
+            countries.add(country);
+        }
+        countryRepository.saveAll(countries);
+        entityManager.flush();
+        entityManager.clear();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long exported = countryService.exportCountries(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(total);
+        assertThat(lines).hasSize(total);
+        Integer previousId = null;
+        for (String line : lines) {
+            CountryDTO country = objectMapper.readValue(line, CountryDTO.class);
+            int n = country.getNumericCode();
+            assertThat(country.getCountryName()).isEqualTo("Country " + n);
+            assertThat(country.getCurrencies()).extracting("currencyName").containsExactlyInAnyOrder("Euro " + n, "Dólar " + n);
+            if (previousId != null) {
+                assertThat(country.getId()).isGreaterThan(previousId); // Em ordem de ID, sem repetições
+            }
+            previousId = country.getId();
+        }
+    }
+
+    @Test
+    void exportOfAnEmptyTableWritesNothing() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThat(countryService.exportCountries(output)).isZero();
+        assertThat(output.size()).isZero();
+    }
+
+    @Test
+    void currenciesAreReconciledByCode() {
+        Country stored = new Country("Portugal", 620, "Lisboa", 10_000_000, 92_090f);
+        stored.addCurrency(new Currency("EUR", "Euro", "€", stored));
+        stored.addCurrency(new Currency("USD", "Dólar", "$", stored));
+        Integer id = countryRepository.saveAndFlush(stored).getId();
+        Map<String, Currency> before = currenciesByCode(id);
+
+        countryService.updateCountry(id, countryDTO("Portugal", 620,
+                new CurrencyDTO(null, "EUR", "Euro (novo)", "€"),
+                new CurrencyDTO(null, "GBP", "Libra", "£")));
+        entityManager.flush();
+
+        Map<String, Currency> after = currenciesByCode(id);
+        assertThat(after).containsOnlyKeys("EUR", "GBP"); // USD não veio na lista e foi removida
+        Currency euro = after.get("EUR");
+        assertThat(euro.getCurrencyId()).isEqualTo(before.get("EUR").getCurrencyId()); // Alterada no lugar
+        assertThat(euro.getCurrencyName()).isEqualTo("Euro (novo)");
+        assertThat(euro.getCreatedAt()).isEqualTo(before.get("EUR").getCreatedAt());
+        assertThat(after.get("GBP").getCurrencyId()).isNotNull();
+        assertThat(countCurrencies()).isEqualTo(2);
+    }
+
+    @Test
+    void unchangedCurrenciesKeepTheirRows() {
+        Country stored = new Country("Portugal", 620, "Lisboa", 10_000_000, 92_090f);
+        stored.addCurrency(new Currency("EUR", "Euro", "€", stored));
+        Integer id = countryRepository.saveAndFlush(stored).getId();
+        Currency before = currenciesByCode(id).get("EUR");
+
+        countryService.updateCountry(id, countryDTO("Portugal", 620, new CurrencyDTO(null, "EUR", "Euro", "€")));
+        entityManager.flush();
+
+        Currency after = currenciesByCode(id).get("EUR");
+        assertThat(after.getCurrencyId()).isEqualTo(before.getCurrencyId());
+        assertThat(after.getUpdatedAt()).isEqualTo(before.getUpdatedAt()); // Nenhum UPDATE na moeda
+    }
+
+    @Test
+    void repeatedCodeInThePayloadKeepsOnlyTheFirstCurrency() {
+        Country stored = new Country("Portugal", 620, "Lisboa", 10_000_000, 92_090f);
+        stored.addCurrency(new Currency("EUR", "Euro", "€", stored));
+        Integer id = countryRepository.saveAndFlush(stored).getId();
+        Integer euroId = currenciesByCode(id).get("EUR").getCurrencyId();
+
+        CountryDTO repeated = countryDTO("Portugal", 620,
+                new CurrencyDTO(null, "EUR", "Euro", "€"),
+                new CurrencyDTO(null, "EUR", "Euro repetido", "€"));
+        countryService.updateCountry(id, repeated);
+        entityManager.flush();
+        countryService.updateCountry(id, repeated); // Reenvio: nenhuma moeda removida e inserida novamente
+        entityManager.flush();
+
+        assertThat(countCurrencies()).isEqualTo(1);
+        Currency euro = currenciesByCode(id).get("EUR");
+        assertThat(euro.getCurrencyId()).isEqualTo(euroId);
+        assertThat(euro.getCurrencyName()).isEqualTo("Euro");
+    }
+
+    @Test
+    void syncedCountryWithNewCodeGetsTheCurrencyInserted() {
+        Country stored = new Country("Portugal", 620, "Lisboa", 10_000_000, 92_090f);
+        countryRepository.saveAndFlush(stored);
+
+        countryService.processAndSaveCountries(List.of(countryDTO("Portugal", 620, new CurrencyDTO(null, "EUR", "Euro", "€"))),
+                PROVIDER_ID);
+        entityManager.flush();
+
+        assertThat(currenciesByCode(stored.getId())).containsOnlyKeys("EUR");
+    }
+
+    @Test
+    void syncedDeleteRemovesOnlyCountriesOfTheSendingProvider() {
+        countryService.processAndSaveCountries(List.of(countryDTO("Portugal", 620)), PROVIDER_ID);
+        countryService.processAndSaveCountries(List.of(countryDTO("Espanha", 724)), PROVIDER_ID + 1);
+        countryRepository.saveAndFlush(new Country("França", 250, "Paris", 68_000_000, 551_695f)); // Criado pela API
+
+        countryService.deleteSyncedCountries(List.of(countryDTO(null, 620), countryDTO(null, 724), countryDTO("França", null)),
+                PROVIDER_ID);
+        entityManager.flush();
+
+        assertThat(countryRepository.findAll()).extracting(Country::getCountryName).containsExactlyInAnyOrder("Espanha", "França");
+    }
+
+    @Test
+    void countrySyncedByAnotherProviderIsNoLongerDeletedByTheFirst() {
+        countryService.processAndSaveCountries(List.of(countryDTO("Portugal", 620)), PROVIDER_ID);
+        countryService.processAndSaveCountries(List.of(countryDTO("Portugal", 620)), PROVIDER_ID + 1);
+
+        countryService.deleteSyncedCountries(List.of(countryDTO(null, 620)), PROVIDER_ID);
+        countryService.deleteSyncedCountries(List.of(countryDTO(null, 620)), null); // Sem provedor, nada é removido
+        entityManager.flush();
+
+        assertThat(countryRepository.findAll()).extracting(Country::getCountryName).containsExactly("Portugal");
+    }
+
+    // Moedas gravadas do país, relidas do banco
+    private Map<String, Currency> currenciesByCode(Integer countryId) {
+        entityManager.clear();
+        return countryRepository.findAllWithCurrenciesByIdIn(List.of(countryId)).get(0).getCurrencies().stream()
+                .collect(Collectors.toMap(Currency::getCurrencyCode, Function.identity()));
+    }
+
+    private long countCurrencies() {
+        return entityManager.createQuery("select count(c) from Currency c", Long.class).getSingleResult();
+    }
+
+    private CountryDTO countryDTO(String name, Integer numericCode, CurrencyDTO... currencies) {
+        return new CountryDTO(null, name, numericCode, "Lisboa", 10_000_000, 92_090f, List.of(currencies));
+    }
+}
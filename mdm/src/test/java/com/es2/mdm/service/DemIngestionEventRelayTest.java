@@ -0,0 +1,147 @@
+package com.es2.mdm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.es2.mdm.controller.AdminController;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Repasse do fluxo de eventos de ingestão do DEM (GET /mdm/api/admin/ingest/events), com um DEM simulado:
+// a conexão com o DEM é reaberta com o Last-Event-ID do último evento recebido, e um cliente do MDM que reconecta
+// com Last-Event-ID recebe, em ordem, os eventos guardados posteriores a esse ID.
+class DemIngestionEventRelayTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Pattern EVENT = Pattern.compile("id:(\\d+)\\nevent:ingestion\\ndata:\\{\"id\":(\\d+)}");
+
+    private HttpServer dem;
+    private final List<String> upstreamLastEventIds = new CopyOnWriteArrayList<>();
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+    private DemIngestionEventRelay relay;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dem = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        dem.createContext("/dem/api/ingestion/events", this::streamEvents);
+        dem.start();
+
+        relay = new DemIngestionEventRelay();
+        ReflectionTestUtils.setField(relay, "demApiBaseUrl", "http://localhost:" + dem.getAddress().getPort() + "/dem/api");
+        ReflectionTestUtils.setField(relay, "emitterTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(relay, "reconnectDelayMs", 50L);
+        ReflectionTestUtils.setField(relay, "replaySize", 10);
+        ReflectionTestUtils.setField(relay, "connectTimeoutMs", 1_000L);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new AdminController(mock(DemIntegrationService.class), relay))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+        shutdown.countDown();
+        dem.stop(0);
+    }
+
+    @Test
+    void reconnectingClientReceivesTheRelayedEventsAfterLastEventIdInOrder() throws Exception {
+        List<Event> relayed = awaitEvents(connect(null), 3);
+        assertThat(relayed).extracting(Event::id).containsExactly(10L, 11L, 12L);
+        // A primeira conexão com o DEM caiu após o evento 11; a segunda retomou a partir dele
+        assertThat(upstreamLastEventIds).startsWith("", "11");
+
+        MockHttpServletResponse reconnected = connect(10L);
+
+        List<Event> replayed = awaitEvents(reconnected, 2);
+        assertThat(replayed).extracting(Event::id).containsExactly(11L, 12L);
+        assertThat(replayed).extracting(Event::ingestionId).containsExactly(2, 3);
+    }
+
+    // DEM simulado: a primeira conexão envia os eventos 10 e 11 e cai; as seguintes enviam apenas o que o
+    // cliente ainda não recebeu (evento 12) e permanecem abertas
+    private void streamEvents(HttpExchange exchange) throws IOException {
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        upstreamLastEventIds.add(lastEventId == null ? "" : lastEventId);
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            write(body, ":connected\n\n");
+            if (lastEventId == null) {
+                write(body, event(10, 1) + event(11, 2));
+                return;
+            }
+            if (Long.parseLong(lastEventId) < 12) {
+                write(body, event(12, 3));
+            }
+            shutdown.await(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Conexão encerrada pelo MDM
+        }
+    }
+
+    private static String event(long id, int ingestionId) {
+        return "id:" + id + "\nevent:ingestion\ndata:{\"id\":" + ingestionId + "}\n\n";
+    }
+
+    private static void write(OutputStream body, String content) throws IOException {
+        body.write(content.getBytes(StandardCharsets.UTF_8));
+        body.flush();
+    }
+
+    private MockHttpServletResponse connect(Long lastEventId) throws Exception {
+        MockHttpServletRequestBuilder subscribe = get("/mdm/api/admin/ingest/events");
+        if (lastEventId != null) {
+            subscribe.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(subscribe).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    // Aguarda a resposta conter a quantidade de eventos esperada e retorna os eventos recebidos
+    private static List<Event> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        await().atMost(TIMEOUT).until(() -> parse(response).size() >= count);
+        List<Event> events = parse(response);
+        assertThat(events).hasSize(count);
+        return events;
+    }
+
+    private static List<Event> parse(MockHttpServletResponse response) throws Exception {
+        List<Event> events = new ArrayList<>();
+        Matcher matcher = EVENT.matcher(response.getContentAsString());
+        while (matcher.find()) {
+            events.add(new Event(Long.parseLong(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+        }
+        return events;
+    }
+
+    private record Event(long id, int ingestionId) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.es2.mdm.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.es2.mdm.dto.ProviderDTO;
+import com.es2.mdm.model.Provider;
+import com.es2.mdm.repository.ProviderRepository;
+
+// Validação do mapeamento de campos dos provedores na criação e na atualização.
+class ProviderServiceTest {
+
+    private ProviderRepository providerRepository;
+    private ProviderService providerService;
+
+    @BeforeEach
+    void setUp() {
+        providerRepository = mock(ProviderRepository.class);
+        when(providerRepository.save(any(Provider.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        providerService = new ProviderService(providerRepository, mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void validMappingIsSaved() {
+        ProviderDTO created = providerService.createProvider(provider(Map.of(
+                "countryName", "/name/official",
+                "numericCode", "/codes/numeric",
+                "currencies", "/currencies",
+                "currencies.currencyCode", "@key",
+                "currencies.currencySymbol", "/symbol")));
+
+        assertThat(created.getFieldMappings()).containsEntry("currencies.currencyCode", "@key").hasSize(5);
+    }
+
+    @Test
+    void missingOrEmptyMappingUsesTheDefault() {
+        assertThat(providerService.createProvider(provider(null)).getFieldMappings()).isEmpty();
+        assertThat(providerService.createProvider(provider(Map.of())).getFieldMappings()).isEmpty();
+    }
+
+    @Test
+    void unknownTargetFieldIsRejected() {
+        assertThatThrownBy(() -> providerService.createProvider(provider(Map.of("capital", "/capital/0"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'capital'");
+        verify(providerRepository, never()).save(any());
+    }
+
+    @Test
+    void malformedPointerIsRejected() {
+        assertThatThrownBy(() -> providerService.createProvider(provider(Map.of("countryName", "name/common"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("JSON Pointer inválida para 'countryName'");
+    }
+
+    @Test
+    void keyExpressionIsOnlyAcceptedForTheCurrencyCode() {
+        assertThatThrownBy(() -> providerService.createProvider(provider(Map.of("countryName", "@key"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void invalidMappingOnUpdateKeepsTheStoredProvider() {
+        Provider stored = new Provider();
+        stored.setName("Atual");
+        stored.getFieldMappings().put("countryName", "/name/common");
+        when(providerRepository.findById(1)).thenReturn(Optional.of(stored));
+
+        assertThatThrownBy(() -> providerService.updateProvider(1, provider(Map.of("population", "pop"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(stored.getName()).isEqualTo("Atual");
+        assertThat(stored.getFieldMappings()).containsOnly(Map.entry("countryName", "/name/common"));
+    }
+
+    private static ProviderDTO provider(Map<String, String> fieldMappings) {
+        ProviderDTO dto = new ProviderDTO();
+        dto.setName("Provedor");
+        dto.setCategory("Geo");
+        dto.setApiUrl("http://provider.test/all");
+        dto.setFieldMappings(fieldMappings == null ? null : new HashMap<>(fieldMappings));
+        return dto;
+    }
+}